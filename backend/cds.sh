@@ -0,0 +1,29 @@
+#!/usr/bin/env sh
+# Arranque rápido con Spring AOT + Class Data Sharing (JDK 17+).
+#
+#   mvn -Paot package && ./cds.sh
+#
+# 1) Extrae el fat jar (CDS necesita un classpath de jars estable).
+# 2) Training run: arranca el contexto, sale en onRefresh y vuelca el archivo CDS.
+# 3) Arranca la app usando el contexto AOT y el archivo CDS.
+#
+# Nota: AOT congela los perfiles y beans condicionales del build; construir con
+# el mismo SPRING_PROFILES_ACTIVE que se usa en ejecución.
+set -e
+
+JAR=$(ls target/smartwomen-*.jar | grep -v original | head -n 1)
+APP_DIR=target/app
+
+rm -rf "$APP_DIR"
+mkdir -p "$APP_DIR"
+(cd "$APP_DIR" && jar -xf "../$(basename "$JAR")")
+CLASSPATH="$APP_DIR/BOOT-INF/classes:$(ls "$APP_DIR"/BOOT-INF/lib/*.jar | tr '\n' ':')"
+
+java -XX:ArchiveClassesAtExit="$APP_DIR/app.jsa" \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -cp "$CLASSPATH" com.smartwomen.SmartWomenApplication
+
+exec java -XX:SharedArchiveFile="$APP_DIR/app.jsa" \
+    -Dspring.aot.enabled=true \
+    -cp "$CLASSPATH" com.smartwomen.SmartWomenApplication "$@"
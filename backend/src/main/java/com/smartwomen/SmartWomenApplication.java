@@ -2,16 +2,29 @@ package com.smartwomen;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableAsync
 @EnableScheduling
 public class SmartWomenApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(SmartWomenApplication.class, args);
+        SpringApplication application = new SpringApplication(SmartWomenApplication.class);
+        // JPA/H2 solo se usan en el perfil "local" (application-local.yml las re-habilita)
+        application.setDefaultProperties(Map.of("spring.autoconfigure.exclude", String.join(",",
+            DataSourceAutoConfiguration.class.getName(),
+            DataSourceTransactionManagerAutoConfiguration.class.getName(),
+            HibernateJpaAutoConfiguration.class.getName(),
+            JpaRepositoriesAutoConfiguration.class.getName())));
+        application.run(args);
         System.out.println("🚀 SmartWomen CRM - AI-Powered Customer Orchestrator");
         System.out.println("🌎 Ready to empower women-led businesses in LATAM!");
     }
@@ -0,0 +1,267 @@
+package com.smartwomen.accounting;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contabilidad de consumo de Azure por agente, deployment y cliente.
+ *
+ * Cada llamada registra tokens de prompt/completion (Azure OpenAI) o
+ * registros de texto facturables (Text Analytics y Content Safety cobran por
+ * cada 1000 caracteres de cada documento; Translator por carácter), su latencia y un costo estimado
+ * con los precios de price-per-1k. Los totales se exponen en
+ * /agents/usage y como métricas ai.*; por cliente solo en el endpoint
+ * (cardinalidad). Con un presupuesto diario por cliente, los agentes
+ * consultan overBudget() para tomar caminos más baratos.
+ */
+@Component
+public class UsageAccountant {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageAccountant.class);
+    private static final int CHARS_PER_RECORD = 1000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.accounting.enabled:true}")
+    private boolean enabled;
+
+    // USD por 1000 tokens / registros / caracteres
+    @Value("#{${smartwomen.accounting.price-per-1k:{promptTokens:0.03,completionTokens:0.06,embeddingTokens:0.0001,textRecords:1.0,safetyRecords:0.38,translatorChars:0.01}}}")
+    private Map<String, Double> pricePer1k;
+
+    // 0 = sin presupuesto
+    @Value("${smartwomen.accounting.customer-daily-budget-usd:0}")
+    private double customerDailyBudgetUsd;
+
+    // Presupuestos diarios por customerId que reemplazan al general
+    @Value("#{${smartwomen.accounting.customer-budgets-usd:{:}}}")
+    private Map<String, Double> customerBudgetsUsd;
+
+    @Value("${smartwomen.accounting.max-customers:100000}")
+    private long maxCustomers;
+
+    private final UsageCounters totals = new UsageCounters();
+    private final Map<String, UsageCounters> byAgent = new ConcurrentHashMap<>();
+    private final Map<String, UsageCounters> byDeployment = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> budgetDowngrades = new ConcurrentHashMap<>();
+    private Cache<String, CustomerUsage> byCustomer;
+
+    @PostConstruct
+    void init() {
+        byCustomer = Caffeine.newBuilder()
+            .maximumSize(maxCustomers)
+            .expireAfterAccess(Duration.ofDays(2))
+            .build();
+        if (customerDailyBudgetUsd > 0 || !customerBudgetsUsd.isEmpty()) {
+            logger.info("💰 Customer daily budget: {} USD ({} overrides)", customerDailyBudgetUsd, customerBudgetsUsd.size());
+        }
+    }
+
+    /**
+     * Chat completion de Azure OpenAI (usage de la respuesta)
+     */
+    public void recordChat(String agent, String deployment, int promptTokens, int completionTokens, long latencyNanos) {
+        UsageCounters.Usage usage = new UsageCounters.Usage();
+        usage.calls = 1;
+        usage.promptTokens = promptTokens;
+        usage.completionTokens = completionTokens;
+        usage.latencyNanos = latencyNanos;
+        usage.costMicroUsd = micros(promptTokens, "promptTokens") + micros(completionTokens, "completionTokens");
+        record(agent, "openai:" + deployment, usage);
+        meterRegistry.counter("ai.tokens", "agent", agent, "deployment", deployment, "type", "prompt").increment(promptTokens);
+        meterRegistry.counter("ai.tokens", "agent", agent, "deployment", deployment, "type", "completion").increment(completionTokens);
+    }
+
+    public void recordEmbedding(String deployment, int promptTokens, long latencyNanos) {
+        String agent = agentOr("SemanticCache");
+        UsageCounters.Usage usage = new UsageCounters.Usage();
+        usage.calls = 1;
+        usage.promptTokens = promptTokens;
+        usage.latencyNanos = latencyNanos;
+        usage.costMicroUsd = micros(promptTokens, "embeddingTokens");
+        record(agent, "openai:" + deployment, usage);
+        meterRegistry.counter("ai.tokens", "agent", agent, "deployment", deployment, "type", "embedding").increment(promptTokens);
+    }
+
+    /**
+     * Llamada(s) de Text Analytics: un registro por cada 1000 caracteres de cada documento
+     */
+    public void recordTextAnalytics(String operation, List<String> texts, int calls, long latencyNanos) {
+        String agent = agentOr("TextAnalytics");
+        UsageCounters.Usage usage = new UsageCounters.Usage();
+        usage.calls = calls;
+        usage.textRecords = records(texts);
+        usage.latencyNanos = latencyNanos;
+        usage.costMicroUsd = micros(usage.textRecords, "textRecords");
+        record(agent, "text-analytics:" + operation, usage);
+        meterRegistry.counter("ai.text.records", "agent", agent, "service", "text-analytics").increment(usage.textRecords);
+    }
+
+    public void recordContentSafety(String agent, String text, long latencyNanos) {
+        UsageCounters.Usage usage = new UsageCounters.Usage();
+        usage.calls = 1;
+        usage.safetyRecords = records(List.of(text == null ? "" : text));
+        usage.latencyNanos = latencyNanos;
+        usage.costMicroUsd = micros(usage.safetyRecords, "safetyRecords");
+        record(agent, "content-safety", usage);
+        meterRegistry.counter("ai.text.records", "agent", agent, "service", "content-safety").increment(usage.safetyRecords);
+    }
+
+    /**
+     * Caracteres enviados a Translator por el request en curso (se cobra también
+     * el texto que ya estaba en el idioma destino)
+     */
+    public void recordTranslation(long chars, long latencyNanos) {
+        String agent = agentOr("Translator");
+        UsageCounters.Usage usage = new UsageCounters.Usage();
+        usage.calls = 1;
+        usage.translatedChars = chars;
+        usage.latencyNanos = latencyNanos;
+        usage.costMicroUsd = micros(chars, "translatorChars");
+        record(agent, "translator", usage);
+        meterRegistry.counter("ai.translated.chars", "agent", agent).increment(chars);
+    }
+
+    /**
+     * true si el cliente del request en curso agotó su presupuesto diario.
+     * Los agentes lo usan para elegir el camino barato (sin GPT-4 / sin Azure)
+     * y, si de verdad lo toman, lo registran con recordBudgetDowngrade.
+     */
+    public boolean overBudget() {
+        String customerId = UsageContext.customerId();
+        if (!enabled || customerId == null) return false;
+        double budget = customerBudgetsUsd.getOrDefault(customerId, customerDailyBudgetUsd);
+        if (budget <= 0) return false;
+        CustomerUsage usage = byCustomer.getIfPresent(customerId);
+        return usage != null && usage.todayCostUsd() >= budget;
+    }
+
+    /**
+     * El agente tomó el camino barato por presupuesto (no cuenta un cache hit
+     * que igual no iba a llamar a Azure).
+     */
+    public void recordBudgetDowngrade(String agent) {
+        budgetDowngrades.computeIfAbsent(agent, k -> new LongAdder()).increment();
+        meterRegistry.counter("ai.budget.downgrades", "agent", agent).increment();
+    }
+
+    public Map<String, Object> getStats(int topCustomers) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("totals", totals.toMap());
+        stats.put("byAgent", toMaps(byAgent));
+        stats.put("byDeployment", toMaps(byDeployment));
+        List<Map<String, Object>> top = new ArrayList<>();
+        byCustomer.asMap().values().stream()
+            .sorted(Comparator.comparingLong((CustomerUsage c) -> c.counters.costMicroUsd.sum()).reversed())
+            .limit(topCustomers)
+            .forEach(c -> top.add(c.toMap()));
+        stats.put("topCustomers", top);
+        stats.put("trackedCustomers", byCustomer.estimatedSize());
+        stats.put("customerDailyBudgetUsd", customerDailyBudgetUsd);
+        Map<String, Long> downgrades = new TreeMap<>();
+        budgetDowngrades.forEach((agent, count) -> downgrades.put(agent, count.sum()));
+        stats.put("budgetDowngrades", downgrades.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("budgetDowngradesByAgent", downgrades);
+        return stats;
+    }
+
+    public Optional<Map<String, Object>> getCustomer(String customerId) {
+        return Optional.ofNullable(byCustomer.getIfPresent(customerId)).map(CustomerUsage::toMap);
+    }
+
+    private void record(String agent, String deployment, UsageCounters.Usage usage) {
+        if (!enabled) return;
+        totals.add(usage);
+        byAgent.computeIfAbsent(agent, k -> new UsageCounters()).add(usage);
+        byDeployment.computeIfAbsent(deployment, k -> new UsageCounters()).add(usage);
+        String customerId = UsageContext.customerId();
+        if (customerId != null) {
+            byCustomer.get(customerId, CustomerUsage::new).add(usage);
+        }
+        meterRegistry.counter("ai.cost.usd", "agent", agent).increment(usage.costMicroUsd / 1_000_000.0);
+        meterRegistry.timer("ai.call.latency", "agent", agent, "deployment", deployment)
+            .record(usage.latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private long micros(long units, String priceKey) {
+        return Math.round(units * pricePer1k.getOrDefault(priceKey, 0.0) * 1000);
+    }
+
+    private static long records(List<String> texts) {
+        long records = 0;
+        for (String text : texts) {
+            records += Math.max(1, (text.length() + CHARS_PER_RECORD - 1) / CHARS_PER_RECORD);
+        }
+        return records;
+    }
+
+    private static String agentOr(String fallback) {
+        String agent = UsageContext.agent();
+        return agent != null ? agent : fallback;
+    }
+
+    private static Map<String, Object> toMaps(Map<String, UsageCounters> counters) {
+        Map<String, Object> result = new TreeMap<>();
+        counters.forEach((key, value) -> result.put(key, value.toMap()));
+        return result;
+    }
+
+    /**
+     * Consumo de un cliente: acumulado y costo del día (para el presupuesto)
+     */
+    private static final class CustomerUsage {
+        final String customerId;
+        final UsageCounters counters = new UsageCounters();
+        private LocalDate day = LocalDate.now();
+        private long dayCostMicroUsd;
+
+        CustomerUsage(String customerId) {
+            this.customerId = customerId;
+        }
+
+        void add(UsageCounters.Usage usage) {
+            counters.add(usage);
+            synchronized (this) {
+                rollDay();
+                dayCostMicroUsd += usage.costMicroUsd;
+            }
+        }
+
+        synchronized double todayCostUsd() {
+            rollDay();
+            return dayCostMicroUsd / 1_000_000.0;
+        }
+
+        private void rollDay() {
+            LocalDate today = LocalDate.now();
+            if (!today.equals(day)) {
+                day = today;
+                dayCostMicroUsd = 0;
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("customerId", customerId);
+            map.putAll(counters.toMap());
+            map.put("todayCostUsd", todayCostUsd());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.smartwomen.accounting;
+
+/**
+ * Cliente y agente del request en curso (ThreadLocal), para atribuir el
+ * consumo de las llamadas a Azure sin pasarlos por cada firma.
+ */
+public final class UsageContext {
+
+    private static final ThreadLocal<String[]> CURRENT = new ThreadLocal<>();
+
+    private UsageContext() {
+    }
+
+    public static void set(String customerId, String agent) {
+        CURRENT.set(new String[]{customerId, agent});
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static String customerId() {
+        String[] current = CURRENT.get();
+        return current == null ? null : current[0];
+    }
+
+    public static String agent() {
+        String[] current = CURRENT.get();
+        return current == null ? null : current[1];
+    }
+}
@@ -0,0 +1,64 @@
+package com.smartwomen.accounting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de consumo acumulados. LongAdder: muchos hilos de request
+ * suman a la vez sobre el mismo agente/deployment sin contención.
+ */
+class UsageCounters {
+
+    final LongAdder calls = new LongAdder();
+    final LongAdder promptTokens = new LongAdder();
+    final LongAdder completionTokens = new LongAdder();
+    final LongAdder textRecords = new LongAdder();
+    final LongAdder safetyRecords = new LongAdder();
+    final LongAdder translatedChars = new LongAdder();
+    final LongAdder costMicroUsd = new LongAdder();
+    final LongAdder latencyNanos = new LongAdder();
+
+    void add(Usage usage) {
+        calls.add(usage.calls);
+        promptTokens.add(usage.promptTokens);
+        completionTokens.add(usage.completionTokens);
+        textRecords.add(usage.textRecords);
+        safetyRecords.add(usage.safetyRecords);
+        translatedChars.add(usage.translatedChars);
+        costMicroUsd.add(usage.costMicroUsd);
+        latencyNanos.add(usage.latencyNanos);
+    }
+
+    double costUsd() {
+        return costMicroUsd.sum() / 1_000_000.0;
+    }
+
+    Map<String, Object> toMap() {
+        long callCount = calls.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("calls", callCount);
+        map.put("promptTokens", promptTokens.sum());
+        map.put("completionTokens", completionTokens.sum());
+        map.put("textAnalyticsRecords", textRecords.sum());
+        map.put("contentSafetyRecords", safetyRecords.sum());
+        map.put("translatedChars", translatedChars.sum());
+        map.put("costUsd", costUsd());
+        map.put("meanLatencyMs", callCount == 0 ? 0.0 : latencyNanos.sum() / 1_000_000.0 / callCount);
+        return map;
+    }
+
+    /**
+     * Consumo de una llamada
+     */
+    static final class Usage {
+        long calls;
+        long promptTokens;
+        long completionTokens;
+        long textRecords;
+        long safetyRecords;
+        long translatedChars;
+        long costMicroUsd;
+        long latencyNanos;
+    }
+}
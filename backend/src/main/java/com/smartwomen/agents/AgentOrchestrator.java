@@ -0,0 +1,354 @@
+package com.smartwomen.agents;
+
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.accounting.UsageContext;
+import com.smartwomen.capture.CaptureContext;
+import com.smartwomen.config.AgentExecutors;
+import com.smartwomen.models.AgentRequest;
+import com.smartwomen.models.AgentResponse;
+import com.smartwomen.scheduling.BrownoutController;
+import com.smartwomen.scheduling.BrownoutLevel;
+import com.smartwomen.session.SessionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Ejecuta en el servidor el plan del PlannerAgent (lo que antes hacía el chat
+ * agente por agente), con ejecución especulativa opcional.
+ *
+ * En modo especulativo los agentes baratos y sin efectos (por defecto
+ * LanguageDetector y SentimentAnalyzer) arrancan a la vez que la llamada a
+ * GPT-4 del planner. Al llegar el plan, los resultados de agentes planificados
+ * se usan tal cual (hit) y el resto se cancela o se descarta (wasted si la
+ * tarea ya había arrancado: la llamada a Azure salió aunque se interrumpa).
+ * Una especulación planificada que falla, responde sin éxito o no termina a
+ * tiempo se descarta y el agente se vuelve a correr tras el plan.
+ * Con brownout o presupuesto agotado no se especula.
+ */
+@Component
+public class AgentOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentOrchestrator.class);
+    // Agentes del plan que no tienen endpoint en el backend
+    private static final Set<String> NOT_EXECUTABLE = Set.of("Planner", "Personalization", "ResponseGenerator", "Handoff");
+
+    @Autowired
+    private PlannerAgent plannerAgent;
+
+    @Autowired
+    private LanguageDetectorAgent languageDetectorAgent;
+
+    @Autowired
+    private SentimentAnalyzerAgent sentimentAnalyzerAgent;
+
+    @Autowired
+    private BiasGuardAgent biasGuardAgent;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private BrownoutController brownout;
+
+    @Autowired
+    private UsageAccountant usageAccountant;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AgentExecutors agentExecutors;
+
+    // Opt-in: también por request con "speculate": true
+    @Value("${smartwomen.speculation.enabled:false}")
+    private boolean speculationEnabled;
+
+    // Solo agentes sin efectos laterales y baratos (Text Analytics, no GPT-4)
+    @Value("#{'${smartwomen.speculation.agents:LanguageDetector,SentimentAnalyzer}'.split(',')}")
+    private List<String> speculativeAgents;
+
+    @Value("${smartwomen.speculation.threads:16}")
+    private int threads;
+
+    // Espera por una especulación planificada: max(join-min-ms, lo que tardó el plan).
+    // Arrancó junto con el plan, así que ya tuvo ese tiempo de ventaja
+    @Value("${smartwomen.speculation.join-min-ms:2000}")
+    private long joinMinMs;
+
+    private final LongAdder orchestrations = new LongAdder();
+    private final LongAdder launched = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder wasted = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder savedMs = new LongAdder();
+
+    private final ReentrantLock executorLock = new ReentrantLock();
+    private ExecutorService executor;
+
+    private ExecutorService executor() {
+        executorLock.lock();
+        try {
+            if (executor == null) {
+                if (agentExecutors.isVirtual()) {
+                    // Un hilo virtual por especulación: el límite ya lo pone el AgentScheduler
+                    // (a lo sumo speculation.agents por orquestación en curso)
+                    executor = agentExecutors.newExecutor("speculative-agent", threads);
+                } else {
+                    // Cola acotada: si se llena, el agente corre después del plan como siempre
+                    executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(threads * 4), AgentExecutors.daemonFactory("speculative-agent"));
+                }
+            }
+            return executor;
+        } finally {
+            executorLock.unlock();
+        }
+    }
+
+    /**
+     * POST /agents/orchestrate: plan + ejecución de los agentes planificados
+     */
+    public AgentResponse orchestrate(AgentRequest request) {
+        long startTime = System.currentTimeMillis();
+        orchestrations.increment();
+        Map<String, Speculation> speculations = speculate(request);
+
+        try {
+            long planStart = System.nanoTime();
+            AgentResponse plan = plannerAgent.createExecutionPlan(request);
+            long planMs = (System.nanoTime() - planStart) / 1_000_000;
+            sessionStore.record(request, plan);
+            Set<String> planned = plannedAgents(plan);
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            List<String> kept = new ArrayList<>();
+            List<String> discarded = new ArrayList<>();
+            List<String> retried = new ArrayList<>();
+            for (Map.Entry<String, Speculation> entry : speculations.entrySet()) {
+                if (planned.contains(entry.getKey())) {
+                    AgentResponse response = entry.getValue().join(Math.max(joinMinMs, planMs));
+                    if (response != null && response.isSuccess()) {
+                        results.put(entry.getKey(), response);
+                        kept.add(entry.getKey());
+                        hits.increment();
+                        meterRegistry.counter("speculation.hits", "agent", entry.getKey()).increment();
+                        savedMs.add(Math.min(planMs, entry.getValue().durationMs()));
+                    } else {
+                        // Fallida o sin terminar: no se usa, el agente corre tras el plan
+                        discard(entry.getKey(), entry.getValue());
+                        retried.add(entry.getKey());
+                    }
+                } else {
+                    discard(entry.getKey(), entry.getValue());
+                    discarded.add(entry.getKey());
+                }
+            }
+
+            // Agentes planificados que no se especularon (o cuya especulación falló): en orden, tras el plan
+            for (String agent : executionOrder(plan)) {
+                if (results.containsKey(agent)) continue;
+                Function<AgentRequest, AgentResponse> runner = runner(agent);
+                if (runner == null) continue;
+                results.put(agent, runAs(agent, runner, copyFor(request, agent)));
+            }
+            results.values().forEach(response -> sessionStore.record(request, (AgentResponse) response));
+
+            Map<String, Object> metadata = plan.getMetadata() == null
+                ? new HashMap<>() : new HashMap<>(plan.getMetadata());
+            metadata.put("speculated", new ArrayList<>(speculations.keySet()));
+            metadata.put("speculationKept", kept);
+            metadata.put("speculationDiscarded", discarded);
+            metadata.put("speculationRetried", retried);
+            metadata.put("planMs", planMs);
+
+            return AgentResponse.builder()
+                .agentType("Orchestrator")
+                .content(plan.getContent())
+                .metadata(metadata)
+                .result(results)
+                .success(plan.isSuccess())
+                .error(plan.getError())
+                .processingTime(System.currentTimeMillis() - startTime)
+                .confidence(plan.getConfidence())
+                .build();
+        } catch (RuntimeException e) {
+            speculations.forEach(this::discard);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long launchedCount = launched.sum();
+        stats.put("enabled", speculationEnabled);
+        stats.put("agents", speculativeAgents);
+        stats.put("orchestrations", orchestrations.sum());
+        stats.put("launched", launchedCount);
+        stats.put("hits", hits.sum());
+        stats.put("hitRate", launchedCount == 0 ? 0.0 : (double) hits.sum() / launchedCount);
+        stats.put("wastedCalls", wasted.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("savedMs", savedMs.sum());
+        return stats;
+    }
+
+    private Map<String, Speculation> speculate(AgentRequest request) {
+        Map<String, Speculation> speculations = new LinkedHashMap<>();
+        Object requested = request.getContext() == null ? null : request.getContext().get("speculate");
+        boolean wanted = requested != null ? Boolean.parseBoolean(requested.toString()) : speculationEnabled;
+        if (!wanted) {
+            return speculations;
+        }
+        // Trabajo que puede tirarse: nunca bajo carga ni con el presupuesto agotado
+        if (brownout.isAtLeast(BrownoutLevel.CACHED_PLAN)) {
+            skipped.increment();
+            return speculations;
+        }
+        if (usageAccountant.overBudget()) {
+            usageAccountant.recordBudgetDowngrade("Orchestrator");
+            skipped.increment();
+            return speculations;
+        }
+        String customerId = UsageContext.customerId();
+        for (String agent : speculativeAgents) {
+            Function<AgentRequest, AgentResponse> runner = runner(agent.trim());
+            if (runner == null) continue;
+            Speculation speculation = new Speculation();
+            AgentRequest copy = copyFor(request, agent.trim());
+            try {
+                speculation.future = executor().submit(CaptureContext.wrap(() -> {
+                    speculation.started = true;
+                    UsageContext.set(customerId, agent.trim());
+                    long start = System.nanoTime();
+                    try {
+                        return runner.apply(copy);
+                    } finally {
+                        speculation.nanos = System.nanoTime() - start;
+                        UsageContext.clear();
+                    }
+                }));
+                speculations.put(agent.trim(), speculation);
+                launched.increment();
+                meterRegistry.counter("speculation.launched", "agent", agent.trim()).increment();
+            } catch (RejectedExecutionException e) {
+                skipped.increment();
+            }
+        }
+        return speculations;
+    }
+
+    // El consumo de Azure se atribuye al agente, no al Orchestrator
+    private static AgentResponse runAs(String agent, Function<AgentRequest, AgentResponse> runner, AgentRequest request) {
+        String customerId = UsageContext.customerId();
+        String previous = UsageContext.agent();
+        UsageContext.set(customerId, agent);
+        try {
+            return runner.apply(request);
+        } finally {
+            UsageContext.set(customerId, previous);
+        }
+    }
+
+    private void discard(String agent, Speculation speculation) {
+        // Solo se ahorra si no había arrancado: terminada o en vuelo, la llamada a Azure
+        // ya se hizo (started se lee después de cancelar: una tarea cancelada no arranca)
+        boolean cancelledBeforeStart = speculation.future.cancel(true) && !speculation.started;
+        if (!cancelledBeforeStart) {
+            wasted.increment();
+            meterRegistry.counter("speculation.wasted", "agent", agent).increment();
+        } else {
+            cancelled.increment();
+            meterRegistry.counter("speculation.cancelled", "agent", agent).increment();
+        }
+    }
+
+    private Function<AgentRequest, AgentResponse> runner(String agent) {
+        if (NOT_EXECUTABLE.contains(agent)) return null;
+        switch (agent) {
+            case "LanguageDetector": return languageDetectorAgent::detectLanguage;
+            case "SentimentAnalyzer": return sentimentAnalyzerAgent::analyzeSentiment;
+            case "BiasGuard": return biasGuardAgent::detectBias;
+            default: return null;
+        }
+    }
+
+    private static AgentRequest copyFor(AgentRequest request, String agent) {
+        return AgentRequest.builder()
+            .agentType(agent)
+            .content(request.getContent())
+            .context(request.getContext())
+            .sessionId(request.getSessionId())
+            .userId(request.getUserId())
+            .requestId(request.getRequestId())
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> executionOrder(AgentResponse plan) {
+        Object order = plan.getMetadata() == null ? null : plan.getMetadata().get("executionOrder");
+        return order instanceof List ? (List<String>) order : List.of();
+    }
+
+    // executionOrder más los grupos de parallelAgents
+    private static Set<String> plannedAgents(AgentResponse plan) {
+        Set<String> planned = new HashSet<>(executionOrder(plan));
+        Object parallel = plan.getMetadata() == null ? null : plan.getMetadata().get("parallelAgents");
+        if (parallel instanceof List) {
+            for (Object group : (List<?>) parallel) {
+                if (group instanceof List) {
+                    ((List<?>) group).forEach(agent -> planned.add(String.valueOf(agent)));
+                }
+            }
+        }
+        return planned;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executorLock.lock();
+        try {
+            if (executor != null) executor.shutdownNow();
+        } finally {
+            executorLock.unlock();
+        }
+    }
+
+    private static final class Speculation {
+        Future<AgentResponse> future;
+        volatile boolean started;
+        volatile long nanos;
+
+        // null si la especulación falló o no terminó en timeoutMs: el agente se vuelve a correr tras el plan
+        AgentResponse join(long timeoutMs) {
+            try {
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("⚠️ Speculative agent still running after {} ms", timeoutMs);
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                logger.warn("⚠️ Speculative agent failed: {}", e.getMessage());
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        long durationMs() {
+            return nanos / 1_000_000;
+        }
+    }
+}
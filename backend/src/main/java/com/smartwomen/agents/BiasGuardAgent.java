@@ -1,14 +1,22 @@
 package com.smartwomen.agents;
 
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.logging.AgentPayloadLogger;
 import com.smartwomen.models.AgentRequest;
 import com.smartwomen.models.AgentResponse;
+import com.smartwomen.scheduling.BrownoutController;
+import com.smartwomen.scheduling.BrownoutLevel;
+import com.smartwomen.semantic.SemanticCache;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import com.azure.ai.openai.OpenAIClient;
 import com.azure.ai.openai.models.ChatRequestUserMessage;
 import com.azure.ai.contentsafety.ContentSafetyClient;
 import com.azure.ai.contentsafety.models.AnalyzeTextOptions;
+import com.azure.ai.contentsafety.models.AnalyzeTextResult;
+import com.azure.ai.contentsafety.models.TextCategoriesAnalysis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,16 +32,32 @@ public class BiasGuardAgent {
     
     @Autowired
     @Qualifier("openAIClient")
-    private OpenAIClient openAIClient;
+    private ObjectProvider<OpenAIClient> openAIClient;
     
     @Autowired
     @Qualifier("contentSafetyClient")
-    private ContentSafetyClient contentSafetyClient;
+    private ObjectProvider<ContentSafetyClient> contentSafetyClient;
     
     @Value("${azure.openai.gpt4-deployment}")
     private String gpt4Deployment;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private AgentPayloadLogger payloadLogger;
+    
+    @Autowired
+    private SemanticCache semanticCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BrownoutController brownout;
+    
+    @Autowired
+    private UsageAccountant usageAccountant;
+    
+    @Autowired
+    private TranslationAgent translationAgent;
     
     /**
      * Detecta y analiza sesgos en el contenido
@@ -41,32 +65,41 @@ public class BiasGuardAgent {
     public AgentResponse detectBias(AgentRequest request) {
         try {
             String inputText = request.getContent();
-            logger.info("🌍 INPUT: [{}]", inputText);
-            
-            // Análisis Azure Content Safety - USANDO SDK
-            AnalyzeTextOptions analyzeTextRequest = new AnalyzeTextOptions(inputText);
-            var azureSafetyResult = contentSafetyClient.analyzeText(analyzeTextRequest);
-            logger.info("📡 AZURE CONTENT SAFETY: {}", azureSafetyResult);
-            
-            // Análisis contextual con GPT-4 especializado en sesgos
-            String systemPrompt = buildBiasPrompt(azureSafetyResult.toString(), inputText);
-            
-            var chatRequest = new com.azure.ai.openai.models.ChatCompletionsOptions(
-                List.of(
-                    new com.azure.ai.openai.models.ChatRequestSystemMessage(systemPrompt),
-                    new com.azure.ai.openai.models.ChatRequestUserMessage("Texto a analizar: " + inputText)
-                )
-            ).setModel(gpt4Deployment);
-            
-            var response = openAIClient.getChatCompletions(gpt4Deployment, chatRequest);
-            String aiAnalysis = response.getChoices().get(0).getMessage().getContent();
-            logger.info("🤖 GPT-4 ANALYSIS: {}", aiAnalysis);
+            payloadLogger.logPayload(logger, "BiasGuard", "🌍 INPUT", inputText);
             
-            // Parsear y estructurar resultado con formato limpio
-            Map<String, Object> biasResult = parseBiasAnalysis(aiAnalysis);
+            // Cache semántico: mensajes parafraseados reutilizan el veredicto
+            SemanticCache.Lookup<Map<String, Object>> cached = semanticCache.lookup("BiasGuard", "", inputText);
+            Map<String, Object> biasResult;
+            String biasPath;
+            // Sin GPT-4 con brownout o si el cliente agotó su presupuesto diario
+            boolean overBudget = usageAccountant.overBudget();
+            boolean safetyOnly = overBudget || brownout.isAtLeast(BrownoutLevel.SAFETY_ONLY);
+            if (cached.isHit()) {
+                biasResult = cached.getValue();
+                biasPath = "semantic-cache";
+                if (!safetyOnly) {
+                    semanticCache.audit(cached, () ->
+                        determineAction(analyzeBias(inputText, request.getContext())).equals(determineAction(cached.getValue())));
+                }
+            } else if (safetyOnly) {
+                // Solo Content Safety; el veredicto degradado no se guarda en cache
+                if (overBudget) usageAccountant.recordBudgetDowngrade("BiasGuard");
+                biasResult = analyzeSafetyOnly(inputText);
+                biasPath = "content-safety-only";
+            } else {
+                biasPath = "content-safety+gpt4";
+                biasResult = analyzeBias(inputText, request.getContext());
+                semanticCache.store(cached, Collections.unmodifiableMap(new HashMap<>(biasResult)));
+            }
             
             // Metadata limpia y correcta
-            Map<String, Object> metadata = buildMetadata(biasResult, azureSafetyResult);
+            Map<String, Object> metadata = buildMetadata(biasResult);
+            metadata.put("semanticCache", cached.isHit() ? "hit" : "miss");
+            metadata.put("biasPath", biasPath);
+            if (overBudget) metadata.put("budgetExceeded", true);
+            if (cached.isHit()) {
+                metadata.put("semanticSimilarity", cached.getSimilarity());
+            }
             
             // Determinar acción final
             String finalAction = determineAction(biasResult);
@@ -92,18 +125,96 @@ public class BiasGuardAgent {
         }
     }
     
-    private String buildBiasPrompt(String azureResult, String inputText) {
+    /**
+     * Content Safety + GPT-4: el análisis completo (sin cache).
+     * Content Safety recibe el original (es multilingüe); GPT-4 el texto normalizado al español.
+     */
+    private Map<String, Object> analyzeBias(String inputText, Map<String, Object> context) {
+        // Análisis Azure Content Safety - USANDO SDK
+        AnalyzeTextOptions analyzeTextRequest = new AnalyzeTextOptions(inputText);
+        long safetyStart = System.nanoTime();
+        var azureSafetyResult = contentSafetyClient.getObject().analyzeText(analyzeTextRequest);
+        usageAccountant.recordContentSafety("BiasGuard", inputText, System.nanoTime() - safetyStart);
+        payloadLogger.logPayload(logger, "BiasGuard", "📡 AZURE CONTENT SAFETY", azureSafetyResult);
+        
+        // Análisis contextual con GPT-4 especializado en sesgos (solo severidades, no el volcado completo)
+        String systemPrompt = buildBiasPrompt(summarizeSafety(azureSafetyResult));
+        
+        var chatRequest = new com.azure.ai.openai.models.ChatCompletionsOptions(
+            List.of(
+                new com.azure.ai.openai.models.ChatRequestSystemMessage(systemPrompt),
+                new com.azure.ai.openai.models.ChatRequestUserMessage(
+                    "Texto a analizar: " + translationAgent.normalizeForAnalysis(inputText, context))
+            )
+        ).setModel(gpt4Deployment);
+        
+        long chatStart = System.nanoTime();
+        var response = openAIClient.getObject().getChatCompletions(gpt4Deployment, chatRequest);
+        if (response.getUsage() != null) {
+            usageAccountant.recordChat("BiasGuard", gpt4Deployment, response.getUsage().getPromptTokens(),
+                response.getUsage().getCompletionTokens(), System.nanoTime() - chatStart);
+        }
+        String aiAnalysis = response.getChoices().get(0).getMessage().getContent();
+        payloadLogger.logPayload(logger, "BiasGuard", "🤖 GPT-4 ANALYSIS", aiAnalysis);
+        
+        // Parsear y estructurar resultado con formato limpio
+        return parseBiasAnalysis(aiAnalysis);
+    }
+    
+    /**
+     * Veredicto solo con Content Safety (brownout o presupuesto agotado): severidad 0..7 de la peor
+     * categoría normalizada a 0..1; las categorías con severidad >= 2 cuentan
+     * como sesgo detectado.
+     */
+    private Map<String, Object> analyzeSafetyOnly(String inputText) {
+        long safetyStart = System.nanoTime();
+        AnalyzeTextResult safetyResult = contentSafetyClient.getObject().analyzeText(new AnalyzeTextOptions(inputText));
+        usageAccountant.recordContentSafety("BiasGuard", inputText, System.nanoTime() - safetyStart);
+        payloadLogger.logPayload(logger, "BiasGuard", "📡 AZURE CONTENT SAFETY (brownout)", safetyResult);
+        
+        int maxSeverity = 0;
+        List<String> categories = new ArrayList<>();
+        if (safetyResult != null && safetyResult.getCategoriesAnalysis() != null) {
+            for (TextCategoriesAnalysis category : safetyResult.getCategoriesAnalysis()) {
+                int severity = category.getSeverity() == null ? 0 : category.getSeverity();
+                maxSeverity = Math.max(maxSeverity, severity);
+                if (severity >= 2) categories.add(String.valueOf(category.getCategory()).toLowerCase(Locale.ROOT));
+            }
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("biasDetected", !categories.isEmpty());
+        result.put("biasTypes", categories);
+        result.put("severity", Math.min(1.0, maxSeverity / 6.0));
+        result.put("confidence", 0.6);
+        result.put("affectedGroups", List.of());
+        result.put("reason", "Content Safety only (brownout)");
+        return result;
+    }
+    
+    /**
+     * Resumen compacto de Content Safety para el prompt: "Hate=2, Sexual=0, ..."
+     */
+    private String summarizeSafety(AnalyzeTextResult safetyResult) {
+        if (safetyResult == null || safetyResult.getCategoriesAnalysis() == null) {
+            return "n/a";
+        }
+        StringJoiner summary = new StringJoiner(", ");
+        for (TextCategoriesAnalysis category : safetyResult.getCategoriesAnalysis()) {
+            summary.add(category.getCategory() + "=" + category.getSeverity());
+        }
+        return summary.length() == 0 ? "n/a" : summary.toString();
+    }
+    
+    // El texto va una sola vez, en el mensaje de usuario
+    private String buildBiasPrompt(String azureResult) {
         return """
             Eres un experto en detección de sesgos y discriminación.
             Analiza el texto para detectar sesgos de género, culturales y socioeconómicos.
             Considera el contexto LATAM y perspectiva de género.
             
-            ANÁLISIS AZURE CONTENT SAFETY:
+            ANÁLISIS AZURE CONTENT SAFETY (severidad por categoría):
             """ + azureResult + """
             
-            TEXTO A ANALIZAR:
-            """ + inputText + """
-            
             Responde SOLO en JSON con estos campos:
             {
               "biasDetected": true/false,
@@ -136,7 +247,7 @@ public class BiasGuardAgent {
         }
     }
     
-    private Map<String, Object> buildMetadata(Map<String, Object> biasResult, Object azureResult) {
+    private Map<String, Object> buildMetadata(Map<String, Object> biasResult) {
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("biasDetected", biasResult.get("biasDetected"));
         metadata.put("biasTypes", biasResult.get("biasTypes"));
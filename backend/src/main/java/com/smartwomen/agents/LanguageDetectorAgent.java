@@ -1,61 +1,53 @@
 package com.smartwomen.agents;
 
+import com.smartwomen.logging.AgentPayloadLogger;
 import com.smartwomen.models.AgentRequest;
 import com.smartwomen.models.AgentResponse;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
-import org.springframework.http.converter.StringHttpMessageConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.nio.charset.StandardCharsets;
 
 @Component
 public class LanguageDetectorAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(LanguageDetectorAgent.class);
     
-    private final RestTemplate restTemplate = buildUtf8RestTemplate(); // ✅ RestTemplate UTF-8
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private TextSegmenter textSegmenter;
 
-    @Value("${azure.text-analytics.endpoint}")
-    private String textAnalyticsEndpoint;
+    @Autowired
+    private TextAnalyticsBatchClient batchClient;
 
-    @Value("${azure.text-analytics.api-key}")
-    private String textAnalyticsApiKey;
+    // Fracción mínima de texto en otro idioma para marcar el mensaje como mixto
+    @Value("${smartwomen.segmentation.mixed-language-share:0.2}")
+    private double mixedLanguageShare;
 
-    // ✅ Constructor que configura UTF-8
-    private RestTemplate buildUtf8RestTemplate() {
-        RestTemplate template = new RestTemplate();
-        template.getMessageConverters()
-            .stream()
-            .filter(StringHttpMessageConverter.class::isInstance)
-            .forEach(converter -> 
-                ((StringHttpMessageConverter) converter).setDefaultCharset(StandardCharsets.UTF_8)
-            );
-        return template;
-    }
+    @Autowired
+    private AgentPayloadLogger payloadLogger;
 
     public AgentResponse detectLanguage(AgentRequest request) {
         long startTime = System.currentTimeMillis();
         
         try {
             String inputText = request.getContent();
-            logger.info("🌍 INPUT: [{}]", inputText);
+            payloadLogger.logPayload(logger, "LanguageDetector", "🌍 INPUT", inputText);
 
             if (inputText == null || inputText.trim().isEmpty()) {
                 throw new IllegalArgumentException("Input text is empty");
             }
 
-            String azureResponse = callAzureTextAnalytics(inputText);
-            logger.info("📡 AZURE: {}", azureResponse);
+            // Un documento por oración/chunk: detecta mensajes que mezclan idiomas
+            List<TextSegmenter.Segment> segments = textSegmenter.segment(inputText);
+            List<JsonNode> documents = batchClient.analyze("languages",
+                segments.stream().map(TextSegmenter.Segment::getText).toList());
+            payloadLogger.logPayload(logger, "LanguageDetector", "📡 AZURE", documents);
             
-            Map<String, Object> detection = parseAzureResponse(azureResponse);
+            Map<String, Object> detection = aggregate(segments, documents);
             
             return buildSuccessResponse(detection, startTime);
                 
@@ -65,60 +57,64 @@ public class LanguageDetectorAgent {
         }
     }
     
-    private String callAzureTextAnalytics(String text) {
-        String url = textAnalyticsEndpoint + "/text/analytics/v3.1/languages";
-        
-        try {
-            // JSON manual con escaping UTF-8
-            String jsonBody = String.format(
-                "{\"documents\":[{\"id\":\"1\",\"text\":%s}]}",
-                objectMapper.writeValueAsString(text)
-            );
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(new MediaType("application", "json", StandardCharsets.UTF_8));
-            headers.set("Ocp-Apim-Subscription-Key", textAnalyticsApiKey);
+    /**
+     * Idioma por segmento y global: el primario es el de mayor peso
+     * (caracteres × confianza); mixedLanguage si otro idioma supera el umbral.
+     */
+    private Map<String, Object> aggregate(List<TextSegmenter.Segment> segments, List<JsonNode> documents) {
+        Map<String, Object> result = new HashMap<>();
+        List<Map<String, Object>> perSegment = new ArrayList<>();
+        Map<String, Double> weights = new LinkedHashMap<>();
+        Map<String, Double> confidenceSum = new HashMap<>();
+        Map<String, Integer> segmentCount = new HashMap<>();
+        double totalWeight = 0;
 
-            HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
-            logger.debug("📤 SENDING: {}", jsonBody);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new RuntimeException("Azure HTTP " + response.getStatusCode());
-            }
-            
-            return response.getBody();
-            
-        } catch (Exception e) {
-            logger.error("Azure call error: {}", e.getMessage());
-            throw new RuntimeException(e);
+        for (int i = 0; i < segments.size(); i++) {
+            JsonNode document = documents.get(i);
+            if (document == null) continue;
+            JsonNode lang = document.path("detectedLanguage");
+            String name = lang.path("name").asText("es");
+            double confidence = lang.path("confidenceScore").asDouble(0.7);
+            TextSegmenter.Segment segment = segments.get(i);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("index", segment.getIndex());
+            entry.put("offset", segment.getOffset());
+            entry.put("length", segment.getText().length());
+            entry.put("language", name);
+            entry.put("iso6391Name", lang.path("iso6391Name").asText(null));
+            entry.put("confidence", confidence);
+            perSegment.add(entry);
+
+            double weight = segment.getText().length() * confidence;
+            weights.merge(name, weight, Double::sum);
+            confidenceSum.merge(name, confidence, Double::sum);
+            segmentCount.merge(name, 1, Integer::sum);
+            totalWeight += weight;
         }
-    }
-    
-    private Map<String, Object> parseAzureResponse(String json) {
-        Map<String, Object> result = new HashMap<>();
-        try {
-            JsonNode root = objectMapper.readTree(json);
-            JsonNode documents = root.path("documents");
-            
-            if (documents.isArray() && documents.size() > 0) {
-                JsonNode lang = documents.get(0).path("detectedLanguage");
-                result.put("primaryLanguage", lang.path("name").asText("es"));
-                result.put("confidence", lang.path("confidenceScore").asDouble(0.7));
-                logger.info("✅ DETECTED: {} (confidence: {})", 
-                    result.get("primaryLanguage"), 
-                    result.get("confidence"));
-            } else {
-                logger.error("❌ No documents in Azure response");
-                result.put("primaryLanguage", "es");
-                result.put("confidence", 0.7);
-            }
-        } catch (Exception e) {
-            logger.error("❌ PARSE ERROR: {}", e.getMessage());
+
+        if (weights.isEmpty()) {
+            logger.error("❌ No documents in Azure response");
             result.put("primaryLanguage", "es");
             result.put("confidence", 0.7);
+            return result;
         }
+
+        String primary = Collections.max(weights.entrySet(), Map.Entry.comparingByValue()).getKey();
+        Map<String, Object> distribution = new LinkedHashMap<>();
+        final double total = totalWeight;
+        weights.forEach((name, weight) -> distribution.put(name, total == 0 ? 0.0 : weight / total));
+        boolean mixed = weights.entrySet().stream()
+            .anyMatch(e -> !e.getKey().equals(primary) && total > 0 && e.getValue() / total >= mixedLanguageShare);
+
+        result.put("primaryLanguage", primary);
+        result.put("confidence", confidenceSum.get(primary) / segmentCount.get(primary));
+        result.put("mixedLanguage", mixed);
+        result.put("languageDistribution", distribution);
+        result.put("segmentCount", segments.size());
+        result.put("segments", perSegment);
+        logger.info("✅ DETECTED: {} (confidence: {}, segments: {}, mixed: {})",
+            primary, result.get("confidence"), segments.size(), mixed);
         return result;
     }
     
@@ -126,9 +122,7 @@ public class LanguageDetectorAgent {
         String lang = (String) detection.get("primaryLanguage");
         Double conf = (Double) detection.get("confidence");
         
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("primaryLanguage", lang);
-        metadata.put("confidence", conf);
+        Map<String, Object> metadata = new HashMap<>(detection);
         
         // Enriquecer metadata LATAM
         enrichMetadata(metadata, lang);
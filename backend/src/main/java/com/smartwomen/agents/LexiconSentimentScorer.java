@@ -0,0 +1,259 @@
+package com.smartwomen.agents;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Scorer de sentimiento local basado en léxico (español LATAM y portugués de Brasil).
+ *
+ * Maneja negación ("no", "nunca", "não"...) con ventana de 3 palabras,
+ * intensificadores/atenuadores ("muy", "re", "muito", "poco"...), signos de
+ * exclamación y emojis. Solo decide cuando la evidencia es clara; si el texto
+ * es ambiguo (poca evidencia o polaridad mixta) el agente consulta a Azure.
+ * Cuenta además palabras funcionales es/pt frente a en/fr para que el agente
+ * no use el léxico sobre textos en otro idioma.
+ */
+@Component
+public class LexiconSentimentScorer {
+
+    private static final int NEGATION_WINDOW = 3;
+    // Términos fuertes ("pésimo", "estafa", 😡): señal de escalamiento por sí solos
+    private static final double STRONG_WEIGHT = 1.8;
+
+    // Palabras sin acentos, en minúsculas: peso (+/-) y emoción dominante
+    private static final Map<String, Entry> LEXICON = new HashMap<>();
+    private static final Map<String, Entry> EMOJI = new HashMap<>();
+    private static final Set<String> NEGATORS = Set.of(
+        "no", "nunca", "jamas", "tampoco", "ni", "sin", "nada", "nao", "nem", "nenhum", "nenhuma");
+    private static final Map<String, Double> MODIFIERS = new HashMap<>();
+    // Palabras funcionales (sin acentos) que distinguen es/pt de en/fr; sin las compartidas ("de", "la", "que")
+    private static final Set<String> LEXICON_LANGUAGE_WORDS = Set.of(
+        "el", "los", "las", "y", "es", "una", "por", "para", "con", "muy", "pero", "mi", "estoy", "esta",
+        "este", "fue", "lo", "del", "al", "porque", "o", "os", "um", "uma", "com", "nao", "muito", "meu",
+        "minha", "estou", "foi", "do", "da", "dos", "das", "mas", "voce", "usted");
+    private static final Set<String> OTHER_LANGUAGE_WORDS = Set.of(
+        "the", "and", "is", "it", "this", "i", "you", "of", "to", "was", "my", "not", "very", "with", "but",
+        "for", "are", "have", "le", "les", "et", "est", "je", "pas", "une", "des", "du", "avec", "pour",
+        "ce", "cette", "vous", "nous", "il", "elle");
+
+    static {
+        // ===== Español (LATAM) positivo =====
+        positive("joy", 2.0, "encanta", "encanto", "feliz", "felices", "excelente", "increible", "maravilloso",
+            "maravillosa", "perfecto", "perfecta", "perfectamente", "genial", "fantastico", "fantastica", "buenisimo",
+            "buenisima", "chevere", "bacan", "chido", "chida", "padrisimo", "brutal", "espectacular",
+            "encantada", "encantado", "felicidades", "amo", "recomiendo");
+        positive("joy", 1.2, "bueno", "buena", "bien", "gracias", "agradecida", "agradecido", "util", "rapido",
+            "rapida", "facil", "contenta", "contento", "satisfecha", "satisfecho", "me gusta", "gusta", "lindo",
+            "linda", "bonito", "bonita", "funciona", "resuelto", "solucionado", "top", "crack", "lujo");
+        positive("trust", 1.0, "confiable", "confio", "seguro", "segura", "recomendable", "honesto", "honesta");
+
+        // ===== Español (LATAM) negativo =====
+        negative("anger", 2.0, "pesimo", "pesima", "horrible", "terrible", "odio", "estafa", "fraude", "robo",
+            "porqueria", "basura", "furiosa", "furioso", "indignada", "indignado", "harta", "harto", "inaceptable",
+            "verguenza", "desastre", "asco", "chafa");
+        negative("anger", 1.2, "malo", "mala", "mal", "molesta", "molesto", "enojada", "enojado", "enojo",
+            "queja", "reclamo", "lento", "lenta", "caro", "falla", "fallo", "error", "problema",
+            "problemas", "cancelar", "devolucion", "reembolso");
+        negative("sadness", 1.5, "triste", "decepcionada", "decepcionado", "decepcion", "lamentable", "frustrada",
+            "frustrado", "frustrante", "desanimada", "perdi");
+        negative("fear", 1.3, "preocupada", "preocupado", "miedo", "angustia", "ansiosa", "ansioso", "riesgo");
+
+        // ===== Português (Brasil) positivo =====
+        positive("joy", 2.0, "adorei", "adoro", "otimo", "otima", "incrivel", "maravilhoso", "maravilhosa",
+            "perfeito", "perfeita", "sensacional", "massa", "demais", "excelente", "amei", "feliz");
+        positive("joy", 1.2, "bom", "boa", "legal", "obrigada", "obrigado", "gostei", "gosto", "rapido",
+            "facil", "satisfeita", "satisfeito", "funciona", "resolvido", "show", "bacana");
+        positive("trust", 1.0, "confiavel", "confio", "recomendo", "seguro", "segura");
+
+        // ===== Português (Brasil) negativo =====
+        negative("anger", 2.0, "pessimo", "pessima", "horrivel", "terrivel", "odeio", "golpe", "fraude",
+            "lixo", "absurdo", "vergonha", "raiva", "revoltada", "revoltado", "inaceitavel");
+        negative("anger", 1.2, "ruim", "chato", "chata", "irritada", "irritado", "reclamacao", "demora",
+            "demorado", "caro", "defeito", "erro", "problema", "problemas", "cancelar", "reembolso");
+        negative("sadness", 1.5, "triste", "decepcionada", "decepcionado", "decepcao", "frustrada",
+            "frustrado", "desanimada", "desanimado");
+        negative("fear", 1.3, "preocupada", "preocupado", "medo", "ansiosa", "ansioso");
+
+        // ===== Emojis =====
+        emoji("joy", 1.5, "😀", "😃", "😄", "😁", "😊", "🙂", "😍", "🥰", "🤩", "❤", "💖", "👍", "👏", "🎉", "🙌", "✨", "💯");
+        emoji("anger", -1.8, "😡", "😠", "🤬", "👎", "💩");
+        emoji("sadness", -1.5, "😢", "😭", "😞", "😔", "💔", "☹", "🙁");
+        emoji("fear", -1.2, "😰", "😨", "😱", "😟");
+
+        // ===== Intensificadores / atenuadores =====
+        for (String w : List.of("muy", "re", "super", "sumamente", "demasiado", "tan", "bastante",
+            "extremadamente", "totalmente", "muito", "bem", "tao", "mega")) {
+            MODIFIERS.put(w, 1.6);
+        }
+        for (String w : List.of("poco", "algo", "medio", "un poco", "pouco", "meio", "meio que")) {
+            MODIFIERS.put(w, 0.5);
+        }
+    }
+
+    /**
+     * Puntúa el texto. Nunca lanza; un texto vacío devuelve un resultado ambiguo.
+     */
+    public Score score(String text) {
+        Score score = new Score();
+        if (text == null || text.isBlank()) {
+            return score;
+        }
+
+        // Emojis antes de normalizar (la normalización los eliminaría)
+        text.codePoints().forEach(cp -> {
+            Entry entry = EMOJI.get(new String(Character.toChars(cp)));
+            if (entry != null) score.add(entry, entry.weight);
+        });
+
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "");
+        String[] tokens = normalized.split("[^\\p{L}\\p{N}]+");
+
+        int negationLeft = 0;
+        double modifier = 1.0;
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.isEmpty()) continue;
+            score.tokens++;
+            if (LEXICON_LANGUAGE_WORDS.contains(token)) score.lexiconLanguageWords++;
+            if (OTHER_LANGUAGE_WORDS.contains(token)) score.otherLanguageWords++;
+
+            String bigram = i + 1 < tokens.length ? token + " " + tokens[i + 1] : null;
+            if (NEGATORS.contains(token)) {
+                negationLeft = NEGATION_WINDOW;
+                continue;
+            }
+            Double mod = bigram != null && MODIFIERS.containsKey(bigram) ? MODIFIERS.get(bigram) : MODIFIERS.get(token);
+            Entry entry = bigram != null && LEXICON.containsKey(bigram) ? LEXICON.get(bigram) : LEXICON.get(token);
+
+            if (entry != null) {
+                double weight = entry.weight * modifier;
+                if (negationLeft > 0) {
+                    // "no está mal" es positivo débil; "no es bueno" es negativo
+                    weight = -weight * 0.8;
+                }
+                score.add(entry, weight);
+                modifier = 1.0;
+                if (bigram != null && LEXICON.containsKey(bigram)) i++;
+            } else if (mod != null) {
+                modifier = mod;
+                if (bigram != null && MODIFIERS.containsKey(bigram)) i++;
+                continue;
+            } else {
+                modifier = 1.0;
+            }
+            if (negationLeft > 0) negationLeft--;
+        }
+
+        long exclamations = text.chars().filter(c -> c == '!').count();
+        score.amplify(1.0 + Math.min(3, exclamations) * 0.1);
+        return score;
+    }
+
+    private static void positive(String emotion, double weight, String... words) {
+        for (String w : words) LEXICON.put(w, new Entry(weight, emotion));
+    }
+
+    private static void negative(String emotion, double weight, String... words) {
+        for (String w : words) LEXICON.put(w, new Entry(-weight, emotion));
+    }
+
+    private static void emoji(String emotion, double weight, String... emojis) {
+        for (String e : emojis) EMOJI.put(e, new Entry(weight, emotion));
+    }
+
+    private static final class Entry {
+        final double weight;
+        final String emotion;
+
+        Entry(double weight, String emotion) {
+            this.weight = weight;
+            this.emotion = emotion;
+        }
+    }
+
+    /**
+     * Resultado local: masa positiva/negativa y emociones acumuladas
+     */
+    public static final class Score {
+        private double positive;
+        private double negative;
+        private final Map<String, Double> emotions = new HashMap<>();
+        private int tokens;
+        private int strongNegatives;
+        private int lexiconLanguageWords;
+        private int otherLanguageWords;
+
+        void add(Entry entry, double weight) {
+            if (weight >= 0) positive += weight; else negative -= weight;
+            // Solo sin negación: "no es pésimo" no es una queja fuerte
+            if (entry.weight <= -STRONG_WEIGHT && weight < 0) strongNegatives++;
+            // Con negación la emoción del léxico ya no aplica
+            if (Math.signum(weight) == Math.signum(entry.weight)) {
+                emotions.merge(entry.emotion, Math.abs(weight), Double::sum);
+            }
+        }
+
+        void amplify(double factor) {
+            positive *= factor;
+            negative *= factor;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+
+        /** Masa negativa, con intensificadores y exclamaciones */
+        public double getNegative() {
+            return negative;
+        }
+
+        /** Términos negativos fuertes sin negar */
+        public int getStrongNegatives() {
+            return strongNegatives;
+        }
+
+        /**
+         * true si el texto parece español o portugués (más palabras funcionales
+         * es/pt que en/fr). Sin ninguna, no se puede afirmar.
+         */
+        public boolean isLexiconLanguage() {
+            return lexiconLanguageWords > otherLanguageWords;
+        }
+
+        public double getEvidence() {
+            return positive + negative;
+        }
+
+        /** -1 (negativo) .. +1 (positivo) */
+        public double getPolarity() {
+            double total = getEvidence();
+            return total == 0 ? 0.0 : (positive - negative) / total;
+        }
+
+        public String getSentiment() {
+            double polarity = getPolarity();
+            if (getEvidence() < 1.0) return "neutral";
+            if (polarity >= 0.5) return "positive";
+            if (polarity <= -0.5) return "negative";
+            return "mixed";
+        }
+
+        /**
+         * Confianza 0..1: crece con la polaridad y con la cantidad de evidencia.
+         */
+        public double getConfidence() {
+            double evidence = Math.min(1.0, getEvidence() / 3.0);
+            return Math.min(0.99, 0.5 + 0.5 * Math.abs(getPolarity()) * evidence);
+        }
+
+        public String getPrimaryEmotion() {
+            return emotions.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.smartwomen.agents;
 
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.logging.AgentPayloadLogger;
 import com.smartwomen.models.AgentRequest;
 import com.smartwomen.models.AgentResponse;
+import com.smartwomen.scheduling.BrownoutController;
+import com.smartwomen.scheduling.BrownoutLevel;
+import com.smartwomen.semantic.SemanticCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,12 +26,28 @@ public class PlannerAgent {
     
     @Autowired
     @Qualifier("openAIClient")
-    private OpenAIClient openAIClient;
+    private ObjectProvider<OpenAIClient> openAIClient;
     
     @Value("${azure.openai.gpt4-deployment}")
     private String gpt4Deployment;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private AgentPayloadLogger payloadLogger;
+    
+    @Autowired
+    private SemanticCache semanticCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BrownoutController brownout;
+    
+    @Autowired
+    private UsageAccountant usageAccountant;
+    
+    @Autowired
+    private TranslationAgent translationAgent;
     
     /**
      * Planifica la ejecución de agentes basada en el contexto
@@ -38,28 +60,41 @@ public class PlannerAgent {
             Map<String, Object> context = request.getContext();
             String contextSummary = extractContextSummary(context);
             
-            logger.info("🌍 PLAN INPUT: [{}]", inputText);
+            payloadLogger.logPayload(logger, "Planner", "🌍 PLAN INPUT", inputText);
             logger.info("📋 CONTEXT: {}", contextSummary);
             
-            // Prompt especializado para planificación
-            String systemPrompt = buildPlannerPrompt(contextSummary);
-            
-            var chatRequest = new com.azure.ai.openai.models.ChatCompletionsOptions(
-                List.of(
-                    new com.azure.ai.openai.models.ChatRequestSystemMessage(systemPrompt),
-                    new com.azure.ai.openai.models.ChatRequestUserMessage("Mensaje: " + inputText)
-                )
-            ).setModel(gpt4Deployment);
-            
-            var response = openAIClient.getChatCompletions(gpt4Deployment, chatRequest);
-            String aiPlan = response.getChoices().get(0).getMessage().getContent();
-            logger.info("🤖 GPT-4 PLAN: {}", aiPlan);
-            
-            // Parsear y estructurar resultado
-            Map<String, Object> planResult = parsePlanJson(aiPlan);
+            // Cache semántico: el resumen de contexto delimita qué planes son reutilizables
+            SemanticCache.Lookup<Map<String, Object>> cached = semanticCache.lookup("Planner", contextSummary, inputText);
+            Map<String, Object> planResult;
+            String planSource;
+            // Sin GPT-4 con brownout o si el cliente agotó su presupuesto diario
+            boolean overBudget = usageAccountant.overBudget();
+            boolean cachedOnly = overBudget || brownout.isAtLeast(BrownoutLevel.CACHED_PLAN);
+            if (cached.isHit()) {
+                planResult = cached.getValue();
+                planSource = "semantic-cache";
+                if (!cachedOnly) {
+                    semanticCache.audit(cached, () -> Objects.equals(
+                        generatePlan(inputText, contextSummary, context).get("executionOrder"),
+                        cached.getValue().get("executionOrder")));
+                }
+            } else if (cachedOnly) {
+                // Sin GPT-4 y sin guardar en cache (no es un plan real)
+                if (overBudget) usageAccountant.recordBudgetDowngrade("Planner");
+                planResult = createStaticPlan();
+                planSource = "static";
+                logger.info("🟠 STATIC PLAN (brownout {}, overBudget {})", brownout.current(), overBudget);
+            } else {
+                planSource = "gpt4";
+                planResult = generatePlan(inputText, contextSummary, context);
+                semanticCache.store(cached, Collections.unmodifiableMap(new HashMap<>(planResult)));
+            }
             
             // Metadata limpia
             Map<String, Object> metadata = buildMetadata(planResult);
+            metadata.put("semanticCache", cached.isHit() ? "hit" : "miss");
+            metadata.put("planSource", planSource);
+            if (overBudget) metadata.put("budgetExceeded", true);
             
             return AgentResponse.builder()
                 .agentType("Planner")
@@ -76,6 +111,34 @@ public class PlannerAgent {
         }
     }
     
+    /**
+     * Llamada GPT-4 de planificación (sin cache), con el mensaje normalizado al español
+     */
+    private Map<String, Object> generatePlan(String inputText, String contextSummary, Map<String, Object> context) {
+        // Prompt especializado para planificación
+        String systemPrompt = buildPlannerPrompt(contextSummary);
+        
+        var chatRequest = new com.azure.ai.openai.models.ChatCompletionsOptions(
+            List.of(
+                new com.azure.ai.openai.models.ChatRequestSystemMessage(systemPrompt),
+                new com.azure.ai.openai.models.ChatRequestUserMessage(
+                    "Mensaje: " + translationAgent.normalizeForAnalysis(inputText, context))
+            )
+        ).setModel(gpt4Deployment);
+        
+        long chatStart = System.nanoTime();
+        var response = openAIClient.getObject().getChatCompletions(gpt4Deployment, chatRequest);
+        if (response.getUsage() != null) {
+            usageAccountant.recordChat("Planner", gpt4Deployment, response.getUsage().getPromptTokens(),
+                response.getUsage().getCompletionTokens(), System.nanoTime() - chatStart);
+        }
+        String aiPlan = response.getChoices().get(0).getMessage().getContent();
+        payloadLogger.logPayload(logger, "Planner", "🤖 GPT-4 PLAN", aiPlan);
+        
+        // Parsear y estructurar resultado
+        return parsePlanJson(aiPlan);
+    }
+    
     private String buildPlannerPrompt(String contextSummary) {
         return """
             Eres el PlannerAgent - el cerebro orquestador de SmartWomen CRM.
@@ -142,6 +205,16 @@ public class PlannerAgent {
         return fallback;
     }
     
+    /**
+     * Plan estático para brownout / presupuesto agotado: la cadena mínima, sin paralelismo ni triggers
+     */
+    private Map<String, Object> createStaticPlan() {
+        Map<String, Object> plan = createFallbackPlan();
+        plan.put("reasoning", "Static plan: system under load (brownout)");
+        plan.put("complexity", "low");
+        return plan;
+    }
+    
     private Map<String, Object> buildMetadata(Map<String, Object> planResult) {
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("executionOrder", planResult.get("executionOrder"));
@@ -168,7 +241,17 @@ public class PlannerAgent {
         if (context.containsKey("requestType")) {
             summary.append("Type: ").append(context.get("requestType")).append(". ");
         }
-        return summary.toString();
+        // Estado incremental de la sesión en servidor (SessionStore)
+        if (context.containsKey("lastLanguage")) {
+            summary.append("Language: ").append(context.get("lastLanguage")).append(". ");
+        }
+        if (context.containsKey("lastSentiment")) {
+            summary.append("Last sentiment: ").append(context.get("lastSentiment")).append(". ");
+        }
+        if (Boolean.TRUE.equals(context.get("escalated"))) {
+            summary.append("Previously escalated. ");
+        }
+        return summary.length() == 0 ? "No context - new conversation" : summary.toString();
     }
     
     private AgentResponse buildErrorResponse(String error, long timestamp) {
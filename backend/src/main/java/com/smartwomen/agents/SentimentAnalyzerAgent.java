@@ -1,77 +1,122 @@
 package com.smartwomen.agents;
 
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.logging.AgentPayloadLogger;
 import com.smartwomen.models.AgentRequest;
 import com.smartwomen.models.AgentResponse;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
-import org.springframework.http.converter.StringHttpMessageConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.nio.charset.StandardCharsets;
 
 @Component
 public class SentimentAnalyzerAgent {
     
     private static final Logger logger = LoggerFactory.getLogger(SentimentAnalyzerAgent.class);
     
-    private final RestTemplate restTemplate = buildUtf8RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Value("${azure.text-analytics.endpoint}")
-    private String textAnalyticsEndpoint;
-
-    @Value("${azure.text-analytics.api-key}")
-    private String textAnalyticsApiKey;
-
-    private RestTemplate buildUtf8RestTemplate() {
-        RestTemplate template = new RestTemplate();
-        template.getMessageConverters()
-            .stream()
-            .filter(StringHttpMessageConverter.class::isInstance)
-            .forEach(converter -> 
-                ((StringHttpMessageConverter) converter).setDefaultCharset(StandardCharsets.UTF_8)
-            );
-        return template;
-    }
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TextSegmenter textSegmenter;
+
+    @Autowired
+    private TextAnalyticsBatchClient batchClient;
+
+    // Score a partir del cual un segmento cuenta como claramente positivo/negativo
+    @Value("${smartwomen.segmentation.strong-segment-score:0.6}")
+    private double strongSegmentScore;
+
+    @Autowired
+    private AgentPayloadLogger payloadLogger;
+
+    @Autowired
+    private LexiconSentimentScorer lexiconScorer;
+
+    @Autowired
+    private UsageAccountant usageAccountant;
+
+    @Value("${smartwomen.sentiment.local.enabled:true}")
+    private boolean localEnabled;
+
+    // Confianza mínima del léxico para responder sin llamar a Azure
+    @Value("${smartwomen.sentiment.local.min-confidence:0.75}")
+    private double localMinConfidence;
+
+    // Mensajes más cortos ("ok", "mal") van a Azure aunque peguen en el léxico
+    @Value("${smartwomen.sentiment.local.min-tokens:3}")
+    private int localMinTokens;
+
+    // Escalamiento en el camino local: algún término fuerte o masa negativa desde este valor
+    // ("muy molesta y decepcionada" ≈ 3.4 no escala; "pésimo", "estafa" sí)
+    @Value("${smartwomen.sentiment.local.escalation-negative:3.5}")
+    private double localEscalationNegative;
+
+    // Idiomas que cubre el léxico (declarados en el request o lastLanguage de la sesión)
+    @Value("#{'${smartwomen.sentiment.local.languages:es,pt}'.split(',')}")
+    private Set<String> localLanguages;
 
     public AgentResponse analyzeSentiment(AgentRequest request) {
         long startTime = System.currentTimeMillis();
         
         try {
             String inputText = request.getContent();
-            logger.info("🌍 INPUT: [{}]", inputText);
+            payloadLogger.logPayload(logger, "SentimentAnalyzer", "🌍 INPUT", inputText);
 
-            // Llamar a Azure Text Analytics (sentiment)
-            String azureResponse = callAzureTextAnalytics(inputText);
-            logger.info("📡 AZURE RESPONSE: {}", azureResponse);
-            
-            // Parsear respuesta
-            JsonNode root = objectMapper.readTree(azureResponse);
-            JsonNode documents = root.path("documents");
+            // Fast path local: mensajes cortos con polaridad clara no necesitan Azure.
+            // Con el presupuesto diario del cliente agotado se acepta siempre el léxico.
+            if (localEnabled) {
+                LexiconSentimentScorer.Score local = lexiconScorer.score(inputText);
+                String localSentiment = local.getSentiment();
+                if (usageAccountant.overBudget()) {
+                    usageAccountant.recordBudgetDowngrade("SentimentAnalyzer");
+                    AgentResponse response = buildLocalResponse(local, startTime);
+                    response.getMetadata().put("budgetExceeded", true);
+                    return response;
+                }
+                if (local.getConfidence() >= localMinConfidence
+                        && (localSentiment.equals("positive") || localSentiment.equals("negative"))
+                        && local.getTokens() >= localMinTokens
+                        && lexiconLanguage(request.getContext(), local)) {
+                    return buildLocalResponse(local, startTime);
+                }
+            }
+
+            // Azure Text Analytics: un documento por segmento en una sola llamada
+            List<TextSegmenter.Segment> segments = textSegmenter.segment(inputText);
+            List<JsonNode> documents = batchClient.analyze("sentiment",
+                segments.stream().map(TextSegmenter.Segment::getText).toList());
+            payloadLogger.logPayload(logger, "SentimentAnalyzer", "📡 AZURE RESPONSE", documents);
             
-            if (!documents.isArray() || documents.size() == 0) {
+            SegmentAggregate aggregate = aggregate(segments, documents);
+            if (aggregate.weight == 0) {
                 throw new RuntimeException("No documents in Azure response");
             }
             
-            JsonNode document = documents.get(0);
-            String sentiment = document.path("sentiment").asText("neutral");
-            JsonNode confidenceScores = document.path("confidenceScores");
+            String sentiment = aggregate.sentiment;
+            JsonNode confidenceScores = aggregate.scores;
+            double confidence = confidenceScores.path(sentiment).asDouble(0.0);
+            boolean requiresEscalation = aggregate.requiresEscalation();
             
             // Crear resultado estructurado
             Map<String, Object> sentimentResult = new HashMap<>();
             sentimentResult.put("sentiment", sentiment);
-            sentimentResult.put("confidence", confidenceScores.path(sentiment).asDouble(0.0));
+            sentimentResult.put("confidence", confidence);
             sentimentResult.put("primaryEmotion", mapSentimentToEmotion(sentiment));
-            sentimentResult.put("requiresEscalation", sentiment.equals("negative") && confidenceScores.path("negative").asDouble(0.0) > 0.7);
+            sentimentResult.put("requiresEscalation", requiresEscalation);
             
             // Enriquecer con contexto LATAM
             Map<String, Object> metadata = enrichLatamMetadata(sentiment, confidenceScores);
+            metadata.put("requiresEscalation", requiresEscalation);
+            metadata.put("sentimentPath", "azure");
+            metadata.put("segmentCount", segments.size());
+            metadata.put("segments", aggregate.perSegment);
             
             return AgentResponse.builder()
                 .agentType("SentimentAnalyzer")
@@ -79,7 +124,7 @@ public class SentimentAnalyzerAgent {
                 .metadata(metadata)
                 .success(true)
                 .processingTime(System.currentTimeMillis() - startTime)
-                .confidence(String.valueOf(confidenceScores.path(sentiment).asDouble(0.0)))
+                .confidence(String.valueOf(confidence))
                 .build();
                 
         } catch (Exception e) {
@@ -88,33 +133,119 @@ public class SentimentAnalyzerAgent {
         }
     }
     
-    private String callAzureTextAnalytics(String text) {
-        String url = textAnalyticsEndpoint + "/text/analytics/v3.1/sentiment";
-        
-        try {
-            String jsonBody = String.format(
-                "{\"documents\":[{\"id\":\"1\",\"text\":%s}]}",
-                objectMapper.writeValueAsString(text)
-            );
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(new MediaType("application", "json", StandardCharsets.UTF_8));
-            headers.set("Ocp-Apim-Subscription-Key", textAnalyticsApiKey);
+    /**
+     * Agrega los segmentos: scores promediados por largo del segmento. Si hay
+     * segmentos claramente positivos y negativos a la vez el global es "mixed".
+     */
+    private SegmentAggregate aggregate(List<TextSegmenter.Segment> segments, List<JsonNode> documents) {
+        SegmentAggregate aggregate = new SegmentAggregate();
+        double positive = 0, neutral = 0, negative = 0;
+        boolean strongPositive = false, strongNegative = false;
 
-            HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new RuntimeException("Azure HTTP " + response.getStatusCode());
-            }
-            
-            return response.getBody();
-            
-        } catch (Exception e) {
-            logger.error("❌ AZURE CALL FAILED: {}", e.getMessage());
-            throw new RuntimeException(e);
+        for (int i = 0; i < segments.size(); i++) {
+            JsonNode document = documents.get(i);
+            if (document == null) continue;
+            TextSegmenter.Segment segment = segments.get(i);
+            String segmentSentiment = document.path("sentiment").asText("neutral");
+            JsonNode scores = document.path("confidenceScores");
+            double weight = segment.getText().length();
+
+            positive += scores.path("positive").asDouble(0.0) * weight;
+            neutral += scores.path("neutral").asDouble(0.0) * weight;
+            negative += scores.path("negative").asDouble(0.0) * weight;
+            aggregate.weight += weight;
+            strongPositive |= scores.path("positive").asDouble(0.0) >= strongSegmentScore;
+            strongNegative |= scores.path("negative").asDouble(0.0) >= strongSegmentScore;
+            aggregate.maxSegmentNegative = Math.max(aggregate.maxSegmentNegative, scores.path("negative").asDouble(0.0));
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("index", segment.getIndex());
+            entry.put("offset", segment.getOffset());
+            entry.put("length", segment.getText().length());
+            entry.put("sentiment", segmentSentiment);
+            entry.put("confidenceScores", scores);
+            aggregate.perSegment.add(entry);
+        }
+
+        if (aggregate.weight == 0) {
+            return aggregate;
+        }
+        ObjectNode scores = objectMapper.createObjectNode();
+        scores.put("positive", positive / aggregate.weight);
+        scores.put("neutral", neutral / aggregate.weight);
+        scores.put("negative", negative / aggregate.weight);
+        aggregate.scores = scores;
+
+        if (aggregate.perSegment.size() == 1) {
+            aggregate.sentiment = (String) aggregate.perSegment.get(0).get("sentiment");
+        } else if (strongPositive && strongNegative) {
+            aggregate.sentiment = "mixed";
+            scores.put("mixed", Math.min(scores.path("positive").asDouble(), scores.path("negative").asDouble()) * 2);
+        } else {
+            aggregate.sentiment = positive >= neutral && positive >= negative ? "positive"
+                : negative >= neutral ? "negative" : "neutral";
+        }
+        return aggregate;
+    }
+    
+    /**
+     * El léxico solo decide sobre su idioma: el declarado (sourceLanguage,
+     * language, lastLanguage) o, si no hay, el que sugieren las palabras funcionales.
+     */
+    private boolean lexiconLanguage(Map<String, Object> context, LexiconSentimentScorer.Score local) {
+        String hint = TranslationAgent.languageHint(context);
+        if (hint != null) {
+            int dash = hint.indexOf('-');
+            return localLanguages.contains((dash > 0 ? hint.substring(0, dash) : hint).toLowerCase(Locale.ROOT));
         }
+        return local.isLexiconLanguage();
+    }
+
+    private static final class SegmentAggregate {
+        String sentiment = "neutral";
+        JsonNode scores;
+        double weight;
+        double maxSegmentNegative;
+        final List<Map<String, Object>> perSegment = new ArrayList<>();
+
+        // Una queja fuerte escondida en un mensaje largo también escala
+        boolean requiresEscalation() {
+            return (sentiment.equals("negative") && scores.path("negative").asDouble(0.0) > 0.7)
+                || maxSegmentNegative > 0.9;
+        }
+    }
+    
+    private AgentResponse buildLocalResponse(LexiconSentimentScorer.Score local, long startTime) throws Exception {
+        String sentiment = local.getSentiment();
+        double confidence = local.getConfidence();
+        String emotion = local.getPrimaryEmotion() != null ? local.getPrimaryEmotion() : mapSentimentToEmotion(sentiment);
+        // La confianza local siempre supera 0.7 (min-confidence): no sirve como señal de escalamiento
+        boolean requiresEscalation = sentiment.equals("negative")
+            && (local.getStrongNegatives() > 0 || local.getNegative() >= localEscalationNegative);
+
+        Map<String, Object> sentimentResult = new HashMap<>();
+        sentimentResult.put("sentiment", sentiment);
+        sentimentResult.put("confidence", confidence);
+        sentimentResult.put("primaryEmotion", emotion);
+        sentimentResult.put("requiresEscalation", requiresEscalation);
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("sentiment", sentiment);
+        metadata.put("sentimentPath", "local-lexicon");
+        metadata.put("lexiconPolarity", local.getPolarity());
+        metadata.put("culturalContext", "Análisis adaptado para contexto LATAM");
+        metadata.put("requiresEscalation", requiresEscalation);
+
+        logger.info("⚡ LOCAL SENTIMENT: {} ({})", sentiment, String.format("%.2f", confidence));
+
+        return AgentResponse.builder()
+            .agentType("SentimentAnalyzer")
+            .content(objectMapper.writeValueAsString(sentimentResult))
+            .metadata(metadata)
+            .success(true)
+            .processingTime(System.currentTimeMillis() - startTime)
+            .confidence(String.valueOf(confidence))
+            .build();
     }
     
     private String mapSentimentToEmotion(String sentiment) {
@@ -128,6 +259,7 @@ public class SentimentAnalyzerAgent {
     
     private Map<String, Object> enrichLatamMetadata(String sentiment, JsonNode confidenceScores) {
         Map<String, Object> metadata = new HashMap<>();
+        metadata.put("sentiment", sentiment);
         metadata.put("azureSentiment", sentiment);
         metadata.put("azureConfidence", confidenceScores);
         metadata.put("culturalContext", "Análisis adaptado para contexto LATAM");
@@ -0,0 +1,152 @@
+package com.smartwomen.agents;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.capture.CaptureContext;
+import com.smartwomen.config.AgentExecutors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Llamadas multi-documento a Azure Text Analytics (REST v3.1).
+ *
+ * Todos los segmentos de un mensaje van en una sola petición; si superan el
+ * límite de documentos por petición se reparten en lotes que se envían en
+ * paralelo, de modo que la latencia no crece con el largo del mensaje.
+ */
+@Component
+public class TextAnalyticsBatchClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextAnalyticsBatchClient.class);
+
+    @Autowired
+    @Qualifier("textAnalyticsRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsageAccountant usageAccountant;
+
+    @Autowired
+    private AgentExecutors agentExecutors;
+
+    @Value("${azure.text-analytics.endpoint}")
+    private String textAnalyticsEndpoint;
+
+    @Value("${azure.text-analytics.api-key}")
+    private String textAnalyticsApiKey;
+
+    // Límite de sentiment en v3.1 (languages admite más, usamos el menor)
+    @Value("${smartwomen.segmentation.max-documents-per-call:10}")
+    private int maxDocumentsPerCall;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = agentExecutors.newExecutor("text-analytics-batch", 8);
+    }
+
+    /**
+     * Analiza los textos con la operación dada ("languages", "sentiment") y
+     * devuelve un documento de respuesta por texto, en el mismo orden
+     * (null si Azure reportó error para ese documento).
+     */
+    public List<JsonNode> analyze(String operation, List<String> texts) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i += maxDocumentsPerCall) {
+            batches.add(texts.subList(i, Math.min(texts.size(), i + maxDocumentsPerCall)));
+        }
+
+        // Se contabiliza en el hilo llamante, que tiene el UsageContext del request
+        long start = System.nanoTime();
+        List<JsonNode> results = new ArrayList<>(texts.size());
+        if (batches.size() == 1) {
+            results.addAll(call(operation, batches.get(0)));
+            usageAccountant.recordTextAnalytics(operation, texts, 1, System.nanoTime() - start);
+            return results;
+        }
+
+        List<Future<List<JsonNode>>> futures = new ArrayList<>(batches.size());
+        for (List<String> batch : batches) {
+            futures.add(executor.submit(CaptureContext.wrap(() -> call(operation, batch))));
+        }
+        try {
+            for (Future<List<JsonNode>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        usageAccountant.recordTextAnalytics(operation, texts, batches.size(), System.nanoTime() - start);
+        logger.debug("📦 {} documents analyzed in {} parallel calls", texts.size(), batches.size());
+        return results;
+    }
+
+    private List<JsonNode> call(String operation, List<String> texts) {
+        String url = textAnalyticsEndpoint + "/text/analytics/v3.1/" + operation;
+        try {
+            ObjectNode body = objectMapper.createObjectNode();
+            ArrayNode documents = body.putArray("documents");
+            for (int i = 0; i < texts.size(); i++) {
+                documents.addObject().put("id", String.valueOf(i)).put("text", texts.get(i));
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(new MediaType("application", "json", StandardCharsets.UTF_8));
+            headers.set("Ocp-Apim-Subscription-Key", textAnalyticsApiKey);
+
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                url, new HttpEntity<>(objectMapper.writeValueAsString(body), headers), String.class);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new RuntimeException("Azure HTTP " + response.getStatusCode());
+            }
+
+            JsonNode root = objectMapper.readTree(response.getBody());
+            JsonNode[] ordered = new JsonNode[texts.size()];
+            for (JsonNode document : root.path("documents")) {
+                int id = document.path("id").asInt(-1);
+                if (id >= 0 && id < ordered.length) ordered[id] = document;
+            }
+            for (JsonNode error : root.path("errors")) {
+                logger.warn("⚠️ Text Analytics {} document {} failed: {}",
+                    operation, error.path("id").asText(), error.path("error").path("message").asText());
+            }
+            return Arrays.asList(ordered);
+        } catch (RuntimeException e) {
+            logger.error("❌ AZURE CALL FAILED: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("❌ AZURE CALL FAILED: {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
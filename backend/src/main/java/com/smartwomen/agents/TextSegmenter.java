@@ -0,0 +1,137 @@
+package com.smartwomen.agents;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Segmentación de mensajes en oraciones / chunks para análisis por segmento.
+ *
+ * Cada oración es un segmento (así un mensaje que mezcla inglés, español y
+ * portugués se analiza idioma por idioma). Oraciones más largas que el límite
+ * de documento de Text Analytics se cortan en espacios; si hay demasiadas
+ * oraciones se empaquetan en chunks contiguos para acotar el número de documentos.
+ *
+ * Cada segmento lleva su tramo [offset, end) en el texto original. En un
+ * chunk empaquetado el texto une las oraciones con un espacio, así que no
+ * coincide con el tramo: para recomponer hay que usar offset/end.
+ */
+@Component
+public class TextSegmenter {
+
+    // Límite de Text Analytics v3.1: 5.120 caracteres por documento
+    @Value("${smartwomen.segmentation.max-segment-chars:5000}")
+    private int maxSegmentChars;
+
+    @Value("${smartwomen.segmentation.max-segments:50}")
+    private int maxSegments;
+
+    // Oraciones más cortas se unen a la siguiente ("Hola." no basta para detectar idioma)
+    @Value("${smartwomen.segmentation.min-segment-chars:12}")
+    private int minSegmentChars;
+
+    public List<Segment> segment(String text) {
+        List<Segment> sentences = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return sentences;
+        }
+
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ROOT);
+        iterator.setText(text);
+        int start = iterator.first();
+        int pendingStart = -1;
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            int from = pendingStart >= 0 ? pendingStart : start;
+            if (text.substring(from, end).trim().length() < minSegmentChars && end < text.length()) {
+                pendingStart = from;
+                continue;
+            }
+            pendingStart = -1;
+            splitLong(text, from, end, sentences);
+        }
+        if (pendingStart >= 0) {
+            splitLong(text, pendingStart, text.length(), sentences);
+        }
+        return sentences.size() > maxSegments ? pack(sentences) : sentences;
+    }
+
+    private void splitLong(String text, int from, int to, List<Segment> out) {
+        while (to - from > maxSegmentChars) {
+            int cut = text.lastIndexOf(' ', from + maxSegmentChars);
+            if (cut <= from) cut = from + maxSegmentChars;
+            add(text, from, cut, out);
+            from = cut;
+        }
+        add(text, from, to, out);
+    }
+
+    private void add(String text, int from, int to, List<Segment> out) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        if (from < to) {
+            out.add(new Segment(out.size(), from, to, text.substring(from, to)));
+        }
+    }
+
+    // Une oraciones contiguas en a lo sumo maxSegments chunks de tamaño parecido: cada
+    // oración va al grupo que le toca por la posición de su centro en el total de
+    // caracteres (no decreciente, así que los grupos son contiguos). Solo se corta
+    // antes para no pasar maxSegmentChars, lo que excede maxSegments únicamente si
+    // el texto no entra en maxSegments documentos de ese tamaño
+    private List<Segment> pack(List<Segment> sentences) {
+        long totalChars = sentences.stream().mapToLong(s -> s.text.length()).sum();
+        int groups = Math.min(sentences.size(), maxSegments);
+        List<Segment> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int offset = 0;
+        int end = 0;
+        int currentGroup = -1;
+        long position = 0;
+        for (Segment sentence : sentences) {
+            int length = sentence.text.length();
+            int group = (int) Math.min(groups - 1, (position + length / 2) * groups / Math.max(1, totalChars));
+            position += length;
+            if (current.length() > 0
+                    && (group != currentGroup || current.length() + 1 + length > maxSegmentChars)) {
+                chunks.add(new Segment(chunks.size(), offset, end, current.toString()));
+                current.setLength(0);
+            }
+            if (current.length() == 0) {
+                offset = sentence.offset;
+            } else {
+                current.append(' ');
+            }
+            current.append(sentence.text);
+            end = sentence.end;
+            currentGroup = group;
+        }
+        if (current.length() > 0) {
+            chunks.add(new Segment(chunks.size(), offset, end, current.toString()));
+        }
+        return chunks;
+    }
+
+    public static final class Segment {
+        private final int index;
+        private final int offset;
+        private final int end;
+        private final String text;
+
+        Segment(int index, int offset, int end, String text) {
+            this.index = index;
+            this.offset = offset;
+            this.end = end;
+            this.text = text;
+        }
+
+        public int getIndex() { return index; }
+        public int getOffset() { return offset; }
+        /** Fin (exclusivo) del tramo en el texto original */
+        public int getEnd() { return end; }
+        public String getText() { return text; }
+    }
+}
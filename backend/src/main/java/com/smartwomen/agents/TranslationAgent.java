@@ -0,0 +1,263 @@
+package com.smartwomen.agents;
+
+import com.smartwomen.logging.AgentPayloadLogger;
+import com.smartwomen.models.AgentRequest;
+import com.smartwomen.models.AgentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Agente de traducción: normaliza mensajes en pt/en/fr al español antes del
+ * análisis con GPT-4 y localiza respuestas al idioma del cliente.
+ *
+ * El mensaje se traduce por segmentos (oraciones), que se reutilizan desde la
+ * cache de {@link TranslationBatchClient}. Si el idioma conocido (campo
+ * sourceLanguage, "language" o lastLanguage de la sesión) ya es el destino
+ * no se llama a Translator; si es desconocido, Translator lo detecta y los
+ * segmentos que ya estaban en el destino se devuelven sin cambios.
+ */
+@Component
+public class TranslationAgent {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationAgent.class);
+
+    // LanguageDetector (y por lo tanto lastLanguage) usa nombres en inglés: "Portuguese" → "pt"
+    private static final Map<String, String> NAME_TO_ISO = new HashMap<>();
+
+    static {
+        for (String iso : Locale.getISOLanguages()) {
+            NAME_TO_ISO.putIfAbsent(new Locale(iso).getDisplayLanguage(Locale.ENGLISH).toLowerCase(Locale.ROOT), iso);
+        }
+    }
+
+    @Autowired
+    private TranslationBatchClient batchClient;
+
+    @Autowired
+    private TextSegmenter textSegmenter;
+
+    @Autowired
+    private AgentPayloadLogger payloadLogger;
+
+    @Value("${azure.translator.api-key:}")
+    private String translatorKey;
+
+    @Value("${smartwomen.translation.enabled:true}")
+    private boolean enabled;
+
+    // Idioma de trabajo de los prompts de GPT-4
+    @Value("${smartwomen.translation.analysis-language:es}")
+    private String analysisLanguage;
+
+    // Normalizar al idioma de análisis antes de GPT-4 (BiasGuard, Planner)
+    @Value("${smartwomen.translation.normalize-for-analysis:true}")
+    private boolean normalizeForAnalysis;
+
+    // Idiomas conocidos que se normalizan; uno desconocido se detecta en Translator
+    @Value("#{'${smartwomen.translation.normalize-languages:pt,en,fr}'.split(',')}")
+    private Set<String> normalizeLanguages;
+
+    /**
+     * POST /agents/translate: {content, targetLanguage?, sourceLanguage?}
+     */
+    public AgentResponse translate(AgentRequest request) {
+        long startTime = System.currentTimeMillis();
+        try {
+            String inputText = request.getContent();
+            payloadLogger.logPayload(logger, "Translator", "🌍 INPUT", inputText);
+            if (inputText == null || inputText.trim().isEmpty()) {
+                throw new IllegalArgumentException("Input text is empty");
+            }
+            if (!isAvailable()) {
+                throw new IllegalStateException("Translator not configured (azure.translator.api-key)");
+            }
+
+            Map<String, Object> context = request.getContext();
+            Object requested = context == null ? null : context.get("targetLanguage");
+            String target = requested == null || requested.toString().isBlank()
+                ? analysisLanguage : requested.toString().trim();
+            Translation translation = translate(inputText, languageHint(context), target);
+
+            Map<String, Object> metadata = translation.toMetadata();
+            return AgentResponse.builder()
+                .agentType("Translator")
+                .content(translation.getText())
+                .metadata(metadata)
+                .success(true)
+                .processingTime(System.currentTimeMillis() - startTime)
+                .confidence("1.0")
+                .build();
+        } catch (Exception e) {
+            logger.error("❌ TRANSLATION FAILED: {}", e.getMessage(), e);
+            return AgentResponse.builder()
+                .agentType("Translator")
+                .content("Translation failed")
+                .error(e.getMessage())
+                .success(false)
+                .processingTime(System.currentTimeMillis() - startTime)
+                .confidence("0.0")
+                .build();
+        }
+    }
+
+    /**
+     * Texto a usar en el prompt de GPT-4: traducido al idioma de análisis, o el
+     * original si no hace falta, si Translator no está configurado o si falla
+     * (la normalización nunca hace fallar al agente que la pide).
+     */
+    public String normalizeForAnalysis(String text, Map<String, Object> context) {
+        if (!normalizeForAnalysis || !isAvailable() || text == null || text.isBlank()) {
+            return text;
+        }
+        String hint = languageHint(context);
+        if (hint != null && !normalizeLanguages.contains(primary(hint))) {
+            return text;
+        }
+        try {
+            Translation translation = translate(text, hint, analysisLanguage);
+            if (translation.isChanged()) {
+                logger.info("🌐 Normalized {} → {} for analysis ({} segments, {} cached)",
+                    translation.getDetectedLanguage(), analysisLanguage,
+                    translation.getSegments(), translation.getCacheHits());
+            }
+            return translation.getText();
+        } catch (Exception e) {
+            logger.warn("⚠️ Normalization skipped, using original text: {}", e.getMessage());
+            return text;
+        }
+    }
+
+    /**
+     * Traduce por segmentos. sourceHint null = desconocido (Translator detecta).
+     */
+    public Translation translate(String text, String sourceHint, String target) {
+        if (sourceHint != null && TranslationBatchClient.sameLanguage(sourceHint, target)) {
+            return Translation.skipped(text, sourceHint, target);
+        }
+        List<TextSegmenter.Segment> segments = textSegmenter.segment(text);
+        if (segments.isEmpty()) {
+            return Translation.skipped(text, sourceHint, target);
+        }
+        TranslationBatchClient.Result result = batchClient.translate(
+            segments.stream().map(TextSegmenter.Segment::getText).toList(), sourceHint, target);
+        payloadLogger.logPayload(logger, "Translator", "📡 AZURE",
+            result.getItems().stream().map(TranslationBatchClient.Translated::getText).toList());
+
+        // Se recompone por tramos [offset, end): los separadores entre segmentos
+        // (saltos de línea, espacios) se copian del original
+        StringBuilder out = new StringBuilder(text.length());
+        Map<String, Integer> languageChars = new HashMap<>();
+        int cursor = 0;
+        boolean changed = false;
+        for (int i = 0; i < segments.size(); i++) {
+            TextSegmenter.Segment segment = segments.get(i);
+            TranslationBatchClient.Translated item = result.getItems().get(i);
+            out.append(text, cursor, segment.getOffset());
+            // Sin cambios se copia el tramo original (un chunk empaquetado no lo conserva en getText)
+            out.append(item.isChanged() ? item.getText() : text.substring(segment.getOffset(), segment.getEnd()));
+            cursor = segment.getEnd();
+            changed |= item.isChanged();
+            if (item.getDetectedLanguage() != null) {
+                languageChars.merge(item.getDetectedLanguage(), segment.getText().length(), Integer::sum);
+            }
+        }
+        out.append(text, cursor, text.length());
+        String detected = languageChars.entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse(sourceHint);
+        return new Translation(changed ? out.toString() : text, detected, target, changed, false,
+            segments.size(), result.getCacheHits(), result.getCharsSent());
+    }
+
+    public boolean isAvailable() {
+        return enabled && !translatorKey.isBlank();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("available", isAvailable());
+        stats.put("analysisLanguage", analysisLanguage);
+        stats.put("normalizeForAnalysis", normalizeForAnalysis);
+        stats.put("normalizeLanguages", normalizeLanguages);
+        stats.putAll(batchClient.getStats());
+        return stats;
+    }
+
+    /**
+     * Idioma conocido del mensaje (código ISO): sourceLanguage / language del
+     * request, luego lastLanguage de la sesión. null si no se conoce.
+     */
+    static String languageHint(Map<String, Object> context) {
+        if (context == null) return null;
+        for (String key : List.of("sourceLanguage", "language", "lastLanguage")) {
+            Object value = context.get(key);
+            if (value != null && !value.toString().isBlank()) {
+                String language = value.toString().trim();
+                if (language.length() <= 3 || language.contains("-")) {
+                    return language;
+                }
+                return NAME_TO_ISO.get(language.toLowerCase(Locale.ROOT));
+            }
+        }
+        return null;
+    }
+
+    private static String primary(String language) {
+        int dash = language.indexOf('-');
+        return (dash > 0 ? language.substring(0, dash) : language).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resultado de traducir un mensaje completo
+     */
+    public static final class Translation {
+        private final String text;
+        private final String detectedLanguage;
+        private final String targetLanguage;
+        private final boolean changed;
+        private final boolean skipped;
+        private final int segments;
+        private final int cacheHits;
+        private final long charsSent;
+
+        Translation(String text, String detectedLanguage, String targetLanguage, boolean changed,
+                    boolean skipped, int segments, int cacheHits, long charsSent) {
+            this.text = text;
+            this.detectedLanguage = detectedLanguage;
+            this.targetLanguage = targetLanguage;
+            this.changed = changed;
+            this.skipped = skipped;
+            this.segments = segments;
+            this.cacheHits = cacheHits;
+            this.charsSent = charsSent;
+        }
+
+        static Translation skipped(String text, String language, String target) {
+            return new Translation(text, language, target, false, true, 0, 0, 0);
+        }
+
+        public String getText() { return text; }
+        public String getDetectedLanguage() { return detectedLanguage; }
+        public boolean isChanged() { return changed; }
+        public int getSegments() { return segments; }
+        public int getCacheHits() { return cacheHits; }
+
+        Map<String, Object> toMetadata() {
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("detectedLanguage", detectedLanguage);
+            metadata.put("targetLanguage", targetLanguage);
+            metadata.put("translated", changed);
+            metadata.put("skipped", skipped);
+            metadata.put("segments", segments);
+            metadata.put("cacheHits", cacheHits);
+            metadata.put("charsSent", charsSent);
+            return metadata;
+        }
+    }
+}
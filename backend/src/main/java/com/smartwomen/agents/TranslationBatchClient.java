@@ -0,0 +1,325 @@
+package com.smartwomen.agents;
+
+import com.azure.ai.translation.text.TextTranslationClient;
+import com.azure.ai.translation.text.models.TranslateOptions;
+import com.azure.ai.translation.text.models.TranslatedTextItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.config.AgentExecutors;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Llamadas multi-texto a Azure AI Translator con micro-batching entre requests.
+ *
+ * Los segmentos que no están en cache se encolan; un hilo despachador junta
+ * lo que llega durante batch-window-ms (o hasta max-batch-texts /
+ * max-batch-chars) y envía una sola petición por par origen→destino, así
+ * muchos requests concurrentes comparten llamadas en lugar de hacer una cada uno.
+ * Los segmentos traducidos quedan en una cache acotada por caracteres.
+ */
+@Component
+public class TranslationBatchClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationBatchClient.class);
+    private static final String AUTO = "auto";
+
+    @Autowired
+    @Qualifier("textTranslationClient")
+    private ObjectProvider<TextTranslationClient> translationClient;
+
+    @Autowired
+    private UsageAccountant usageAccountant;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AgentExecutors agentExecutors;
+
+    // Espera máxima para juntar segmentos de otros requests en la misma llamada
+    @Value("${smartwomen.translation.batch-window-ms:10}")
+    private long batchWindowMs;
+
+    // Límites del servicio por petición: 1000 textos y 50.000 caracteres
+    @Value("${smartwomen.translation.max-batch-texts:100}")
+    private int maxBatchTexts;
+
+    @Value("${smartwomen.translation.max-batch-chars:40000}")
+    private int maxBatchChars;
+
+    @Value("${smartwomen.translation.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${smartwomen.translation.cache-max-chars:5000000}")
+    private long cacheMaxChars;
+
+    @Value("${smartwomen.translation.cache-ttl-hours:24}")
+    private long cacheTtlHours;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private ExecutorService executor;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder textsSent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private Cache<String, Translated> cache;
+    private DistributionSummary batchSize;
+    private Thread dispatcher;
+
+    @PostConstruct
+    void init() {
+        executor = agentExecutors.newExecutor("translator-batch", 4);
+        cache = Caffeine.newBuilder()
+            .maximumWeight(cacheMaxChars)
+            .weigher((String key, Translated value) -> key.length() + value.text.length())
+            .expireAfterWrite(Duration.ofHours(cacheTtlHours))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "translation");
+        batchSize = DistributionSummary.builder("translation.batch.texts").register(meterRegistry);
+        dispatcher = new Thread(this::dispatchLoop, "translator-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Traduce los textos al idioma destino y devuelve un resultado por texto,
+     * en el mismo orden. source null = detección automática del origen.
+     * Lanza si Translator falla o no responde dentro de timeout-ms.
+     */
+    public Result translate(List<String> texts, String source, String target) {
+        long start = System.nanoTime();
+        Translated[] items = new Translated[texts.size()];
+        Map<String, CompletableFuture<Translated>> misses = new LinkedHashMap<>();
+        int cacheHits = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            Translated cached = cache.getIfPresent(cacheKey(texts.get(i), source, target));
+            if (cached != null) {
+                items[i] = cached;
+                cacheHits++;
+            } else {
+                misses.computeIfAbsent(texts.get(i), text -> {
+                    Pending pending = new Pending(text, source, target);
+                    queue.add(pending);
+                    return pending.future;
+                });
+            }
+        }
+
+        long chars = 0;
+        if (!misses.isEmpty()) {
+            try {
+                CompletableFuture.allOf(misses.values().toArray(new CompletableFuture[0]))
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new RuntimeException("Translator timeout after " + timeoutMs + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                if (items[i] == null) items[i] = misses.get(texts.get(i)).join();
+            }
+            chars = misses.keySet().stream().mapToLong(String::length).sum();
+            // Se contabiliza en el hilo llamante, que tiene el UsageContext del request
+            usageAccountant.recordTranslation(chars, System.nanoTime() - start);
+        }
+        return new Result(Arrays.asList(items), cacheHits, chars);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long callCount = calls.sum();
+        stats.put("calls", callCount);
+        stats.put("textsSent", textsSent.sum());
+        stats.put("meanTextsPerCall", callCount == 0 ? 0.0 : (double) textsSent.sum() / callCount);
+        stats.put("coalescedDuplicates", coalesced.sum());
+        stats.put("queued", queue.size());
+        stats.put("cacheEntries", cache.estimatedSize());
+        stats.put("cacheHitRate", cache.stats().hitRate());
+        stats.put("batchWindowMs", batchWindowMs);
+        return stats;
+    }
+
+    // Junta lo que llega en la ventana y reparte una llamada por par origen→destino
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Pending> batch = new ArrayList<>();
+                Pending first = queue.take();
+                batch.add(first);
+                int chars = first.text.length();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < maxBatchTexts && chars < maxBatchChars) {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                    chars += next.text.length();
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("❌ Translator dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        // Par origen→destino → texto → requests que esperan ese texto
+        Map<String, Map<String, List<Pending>>> groups = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            String pair = (pending.source == null ? AUTO : pending.source) + ">" + pending.target;
+            List<Pending> waiting = groups.computeIfAbsent(pair, k -> new LinkedHashMap<>())
+                .computeIfAbsent(pending.text, k -> new ArrayList<>());
+            if (!waiting.isEmpty()) coalesced.increment();
+            waiting.add(pending);
+        }
+        for (Map<String, List<Pending>> group : groups.values()) {
+            List<List<Pending>> chunk = new ArrayList<>();
+            int chars = 0;
+            for (List<Pending> waiting : group.values()) {
+                int length = waiting.get(0).text.length();
+                if (!chunk.isEmpty() && (chunk.size() >= maxBatchTexts || chars + length > maxBatchChars)) {
+                    submit(chunk);
+                    chunk = new ArrayList<>();
+                    chars = 0;
+                }
+                chunk.add(waiting);
+                chars += length;
+            }
+            submit(chunk);
+        }
+    }
+
+    private void submit(List<List<Pending>> chunk) {
+        executor.execute(() -> call(chunk));
+    }
+
+    private void call(List<List<Pending>> chunk) {
+        Pending head = chunk.get(0).get(0);
+        List<String> texts = chunk.stream().map(waiting -> waiting.get(0).text).toList();
+        try {
+            TranslateOptions options = new TranslateOptions().addTargetLanguage(head.target);
+            if (head.source != null) {
+                options.setSourceLanguage(head.source);
+            }
+            List<TranslatedTextItem> items = translationClient.getObject().translate(texts, options);
+            calls.increment();
+            textsSent.add(texts.size());
+            batchSize.record(texts.size());
+
+            for (int i = 0; i < chunk.size(); i++) {
+                TranslatedTextItem item = i < items.size() ? items.get(i) : null;
+                if (item == null || item.getTranslations() == null || item.getTranslations().isEmpty()) {
+                    chunk.get(i).forEach(p -> p.future.completeExceptionally(
+                        new IllegalStateException("Translator returned no translation")));
+                    continue;
+                }
+                String detected = item.getDetectedLanguage() != null
+                    ? item.getDetectedLanguage().getLanguage() : head.source;
+                // Ya estaba en el idioma destino: se conserva el original
+                Translated translated = sameLanguage(detected, head.target)
+                    ? new Translated(texts.get(i), detected, false)
+                    : new Translated(item.getTranslations().get(0).getText(), detected, true);
+                cache.put(cacheKey(texts.get(i), head.source, head.target), translated);
+                chunk.get(i).forEach(p -> p.future.complete(translated));
+            }
+            logger.debug("🌐 {} texts translated to {} in one call", texts.size(), head.target);
+        } catch (Exception e) {
+            logger.error("❌ AZURE CALL FAILED: {}", e.getMessage());
+            chunk.forEach(waiting -> waiting.forEach(p -> p.future.completeExceptionally(e)));
+        }
+    }
+
+    /**
+     * Compara por subetiqueta primaria ("pt-PT" y "pt" son el mismo idioma)
+     */
+    static boolean sameLanguage(String a, String b) {
+        if (a == null || b == null) return false;
+        return primary(a).equals(primary(b));
+    }
+
+    private static String primary(String language) {
+        int dash = language.indexOf('-');
+        return (dash > 0 ? language.substring(0, dash) : language).toLowerCase(Locale.ROOT);
+    }
+
+    // El origen declarado cambia la traducción (un homógrafo pt/es): es parte de la clave
+    private static String cacheKey(String text, String source, String target) {
+        return (source == null ? AUTO : primary(source)) + '>' + primary(target) + '\u0001' + text;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.interrupt();
+        executor.shutdownNow();
+    }
+
+    private static final class Pending {
+        final String text;
+        final String source;
+        final String target;
+        final CompletableFuture<Translated> future = new CompletableFuture<>();
+
+        Pending(String text, String source, String target) {
+            this.text = text;
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Segmento traducido; changed=false si ya estaba en el idioma destino
+     */
+    public static final class Translated {
+        private final String text;
+        private final String detectedLanguage;
+        private final boolean changed;
+
+        Translated(String text, String detectedLanguage, boolean changed) {
+            this.text = text;
+            this.detectedLanguage = detectedLanguage;
+            this.changed = changed;
+        }
+
+        public String getText() { return text; }
+        public String getDetectedLanguage() { return detectedLanguage; }
+        public boolean isChanged() { return changed; }
+    }
+
+    public static final class Result {
+        private final List<Translated> items;
+        private final int cacheHits;
+        private final long charsSent;
+
+        Result(List<Translated> items, int cacheHits, long charsSent) {
+            this.items = items;
+            this.cacheHits = cacheHits;
+            this.charsSent = charsSent;
+        }
+
+        public List<Translated> getItems() { return items; }
+        public int getCacheHits() { return cacheHits; }
+        public long getCharsSent() { return charsSent; }
+    }
+}
@@ -1,17 +1,42 @@
 package com.smartwomen.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.accounting.UsageContext;
+import com.smartwomen.capture.AzurePlayback;
+import com.smartwomen.capture.TrafficRecorder;
 import com.smartwomen.models.AgentRequest;
 import com.smartwomen.models.AgentResponse;
+import com.smartwomen.agents.AgentOrchestrator;
 import com.smartwomen.agents.LanguageDetectorAgent;
 import com.smartwomen.agents.SentimentAnalyzerAgent;
 import com.smartwomen.agents.BiasGuardAgent;
 import com.smartwomen.agents.PlannerAgent;
+import com.smartwomen.agents.TranslationAgent;
+import com.smartwomen.scheduling.AgentRejectedException;
+import com.smartwomen.scheduling.AgentScheduler;
+import com.smartwomen.scheduling.BrownoutController;
+import com.smartwomen.scheduling.BrownoutLevel;
+import com.smartwomen.scheduling.PriorityClass;
+import com.smartwomen.semantic.SemanticCache;
+import com.smartwomen.session.SessionStore;
+import com.smartwomen.startup.StartupMetrics;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Locale;
+import java.util.function.Function;
 
 /**
  * REST API para testing de agentes individuales
@@ -21,6 +46,7 @@ import java.util.HashMap;
 public class AgentController {
     
     private static final Logger logger = LoggerFactory.getLogger(AgentController.class);
+    private static final String BROWNOUT_HEADER = "X-Brownout-Level";
     
     @Autowired
     private LanguageDetectorAgent languageDetectorAgent;
@@ -34,34 +60,51 @@ public class AgentController {
     @Autowired
     private PlannerAgent plannerAgent;
     
+    @Autowired
+    private TranslationAgent translationAgent;
+    
+    @Autowired
+    private AgentOrchestrator agentOrchestrator;
+    
+    @Autowired
+    private SemanticCache semanticCache;
+    
+    @Autowired
+    private StartupMetrics startupMetrics;
+    
+    @Autowired
+    private AgentScheduler agentScheduler;
+    
+    @Autowired
+    private BrownoutController brownout;
+    
+    @Autowired
+    private UsageAccountant usageAccountant;
+    
+    @Autowired
+    private SessionStore sessionStore;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+    
+    @Autowired
+    private AzurePlayback azurePlayback;
+    
+    // Forzar el brownout cambia el servicio para todos: apagado salvo que se habilite
+    @Value("${smartwomen.brownout.admin-enabled:false}")
+    private boolean brownoutAdminEnabled;
+    
     /**
      * POST /api/v1/agents/language-detect
      */
     @PostMapping("/language-detect")
     @CrossOrigin(origins = "http://localhost:3000")
-    public AgentResponse detectLanguage(@RequestBody Map<String, Object> request) {
-        try {
-            String content = (String) request.get("content");
-            
-            //log de prueba para el backend
-            System.out.println("🟢 [LanguageDetector] request recibido: " + content); // LOG
-            
-            AgentRequest agentRequest = AgentRequest.builder()
-                .agentType("LanguageDetector")
-                .content(content)
-                .context(request)
-                .build();
-            
-            return languageDetectorAgent.detectLanguage(agentRequest);
-            
-        } catch (Exception e) {
-            logger.error("Error in language detection endpoint", e);
-            return AgentResponse.builder()
-                .agentType("LanguageDetector")
-                .error("Internal server error: " + e.getMessage())
-                .success(false)
-                .build();
-        }
+    public ResponseEntity<AgentResponse> detectLanguage(@RequestBody Map<String, Object> request,
+                                                        HttpServletRequest httpRequest) {
+        return schedule("LanguageDetector", request, httpRequest, languageDetectorAgent::detectLanguage);
     }
     
     /**
@@ -69,26 +112,9 @@ public class AgentController {
      */
     @PostMapping("/sentiment-analyze")
     @CrossOrigin(origins = "http://localhost:3000")
-    public AgentResponse analyzeSentiment(@RequestBody Map<String, Object> request) {
-        try {
-            String content = (String) request.get("content");
-            
-            AgentRequest agentRequest = AgentRequest.builder()
-                .agentType("SentimentAnalyzer")
-                .content(content)
-                .context(request)
-                .build();
-            
-            return sentimentAnalyzerAgent.analyzeSentiment(agentRequest);
-            
-        } catch (Exception e) {
-            logger.error("Error in sentiment analysis endpoint", e);
-            return AgentResponse.builder()
-                .agentType("SentimentAnalyzer")
-                .error("Internal server error: " + e.getMessage())
-                .success(false)
-                .build();
-        }
+    public ResponseEntity<AgentResponse> analyzeSentiment(@RequestBody Map<String, Object> request,
+                                                          HttpServletRequest httpRequest) {
+        return schedule("SentimentAnalyzer", request, httpRequest, sentimentAnalyzerAgent::analyzeSentiment);
     }
     
     /**
@@ -96,26 +122,9 @@ public class AgentController {
      */
     @PostMapping("/bias-detect")
     @CrossOrigin(origins = "http://localhost:3000")
-    public AgentResponse detectBias(@RequestBody Map<String, Object> request) {
-        try {
-            String content = (String) request.get("content");
-            
-            AgentRequest agentRequest = AgentRequest.builder()
-                .agentType("BiasGuard")
-                .content(content)
-                .context(request)
-                .build();
-            
-            return biasGuardAgent.detectBias(agentRequest);
-            
-        } catch (Exception e) {
-            logger.error("Error in bias detection endpoint", e);
-            return AgentResponse.builder()
-                .agentType("BiasGuard")
-                .error("Internal server error: " + e.getMessage())
-                .success(false)
-                .build();
-        }
+    public ResponseEntity<AgentResponse> detectBias(@RequestBody Map<String, Object> request,
+                                                    HttpServletRequest httpRequest) {
+        return schedule("BiasGuard", request, httpRequest, biasGuardAgent::detectBias);
     }
     
     /**
@@ -123,26 +132,259 @@ public class AgentController {
      */
     @PostMapping("/create-plan")
     @CrossOrigin(origins = "http://localhost:3000")
-    public AgentResponse createExecutionPlan(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<AgentResponse> createExecutionPlan(@RequestBody Map<String, Object> request,
+                                                             HttpServletRequest httpRequest) {
+        return schedule("Planner", request, httpRequest, plannerAgent::createExecutionPlan);
+    }
+    
+    /**
+     * POST /api/v1/agents/orchestrate {content, speculate?}
+     * Plan + agentes planificados en una sola llamada (resultados en "result");
+     * con speculate los agentes baratos corren en paralelo con el planner.
+     */
+    @PostMapping("/orchestrate")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public ResponseEntity<AgentResponse> orchestrate(@RequestBody Map<String, Object> request,
+                                                     HttpServletRequest httpRequest) {
+        return schedule("Orchestrator", request, httpRequest, agentOrchestrator::orchestrate);
+    }
+    
+    /**
+     * GET /api/v1/agents/speculation/stats
+     */
+    @GetMapping("/speculation/stats")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> speculationStats() {
+        return agentOrchestrator.getStats();
+    }
+    
+    /**
+     * POST /api/v1/agents/translate {content, targetLanguage (por defecto es), sourceLanguage?}
+     */
+    @PostMapping("/translate")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public ResponseEntity<AgentResponse> translate(@RequestBody Map<String, Object> request,
+                                                   HttpServletRequest httpRequest) {
+        return schedule("Translator", request, httpRequest, translationAgent::translate);
+    }
+    
+    /**
+     * GET /api/v1/agents/translate/stats
+     */
+    @GetMapping("/translate/stats")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> translationStats() {
+        return translationAgent.getStats();
+    }
+    
+    /**
+     * GET /api/v1/agents/scheduler/stats
+     */
+    @GetMapping("/scheduler/stats")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> schedulerStats() {
+        return agentScheduler.getStats();
+    }
+    
+    /**
+     * GET /api/v1/agents/brownout
+     */
+    @GetMapping("/brownout")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> brownoutStats() {
+        return brownout.getStats();
+    }
+    
+    /**
+     * POST /api/v1/agents/brownout?level=SAFETY_ONLY (level=AUTO vuelve al modo automático)
+     * Requiere smartwomen.brownout.admin-enabled=true; un nivel desconocido responde 400.
+     */
+    @PostMapping("/brownout")
+    public ResponseEntity<Map<String, Object>> forceBrownout(@RequestParam String level) {
+        if (!brownoutAdminEnabled) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Brownout override disabled (smartwomen.brownout.admin-enabled)"));
+        }
+        String normalized = level.trim().toUpperCase(Locale.ROOT);
+        BrownoutLevel target = null;
+        if (!"AUTO".equals(normalized)) {
+            try {
+                target = BrownoutLevel.valueOf(normalized);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Unknown brownout level: " + level);
+                error.put("validLevels", validBrownoutLevels());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+        logger.warn("🚦 Brownout override: {}", normalized);
+        brownout.force(target);
+        return ResponseEntity.ok(brownout.getStats());
+    }
+    
+    private static List<String> validBrownoutLevels() {
+        List<String> levels = new ArrayList<>();
+        Arrays.stream(BrownoutLevel.values()).map(Enum::name).forEach(levels::add);
+        levels.add("AUTO");
+        return levels;
+    }
+    
+    /**
+     * Ejecuta el agente a través del scheduler. Prioridad por header X-Priority
+     * (o campo "priority"); cliente por header X-Customer-Id (o campo "customerId");
+     * el id no se verifica, así que el rate limit por cliente solo vale si un
+     * gateway autenticado fija ese header (ver AgentScheduler).
+     * sesión por header X-Session-Id (o campo "sessionId"). Con X-Response-Mode: compact
+     * (o ?compact=true) se devuelve sin el payload duplicado.
+     * Si el scheduler rechaza la ejecución, o el brownout descarta la prioridad,
+     * responde 429 con Retry-After. Toda respuesta lleva el nivel de brownout
+     * (campo brownoutLevel y header X-Brownout-Level).
+     */
+    private ResponseEntity<AgentResponse> schedule(String agentType, Map<String, Object> request,
+                                                   HttpServletRequest httpRequest,
+                                                   Function<AgentRequest, AgentResponse> agent) {
+        PriorityClass priority = PriorityClass.resolve(httpRequest.getHeader(PriorityClass.HEADER), request);
+        BrownoutLevel level = brownout.current();
         try {
+            if (brownout.shouldShed(priority)) {
+                throw new AgentRejectedException("Brownout " + level + ": shedding " + priority, priority, 5000);
+            }
+            
             String content = (String) request.get("content");
+            String customerId = requestValue(request, httpRequest, "X-Customer-Id", "customerId");
             
             AgentRequest agentRequest = AgentRequest.builder()
-                .agentType("Planner")
+                .agentType(agentType)
                 .content(content)
                 .context(request)
+                .sessionId(requestValue(request, httpRequest, "X-Session-Id", "sessionId"))
                 .build();
             
-            return plannerAgent.createExecutionPlan(agentRequest);
+            // Contexto de la sesión en servidor (turnos, último idioma/sentimiento...)
+            sessionStore.attach(agentRequest, customerId);
+            
+            // UsageContext atribuye tokens y registros de Azure al cliente y al agente
+            AgentResponse response = agentScheduler.execute(priority,
+                customerId != null ? customerId : "ip:" + httpRequest.getRemoteAddr(),
+                () -> {
+                    UsageContext.set(customerId, agentType);
+                    try {
+                        return agent.apply(agentRequest);
+                    } finally {
+                        UsageContext.clear();
+                    }
+                });
+            sessionStore.record(agentRequest, response);
+            AgentResponse body = ResponseModes.isCompact(httpRequest)
+                ? ResponseModes.compact(response, objectMapper) : response;
+            // Nivel vigente al terminar: el que vieron los agentes tras la espera en cola
+            String served = brownout.current().name();
+            body.setBrownoutLevel(served);
+            return ResponseEntity.ok()
+                .header(BROWNOUT_HEADER, served)
+                .body(body);
             
+        } catch (AgentRejectedException e) {
+            logger.warn("🚦 {} {} rejected: {}", agentType, priority, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (e.getRetryAfterMs() + 999) / 1000)))
+                .header(BROWNOUT_HEADER, level.name())
+                .body(AgentResponse.builder()
+                    .agentType(agentType)
+                    .error(e.getMessage())
+                    .success(false)
+                    .brownoutLevel(level.name())
+                    .build());
         } catch (Exception e) {
-            logger.error("Error in planning endpoint", e);
-            return AgentResponse.builder()
-                .agentType("Planner")
+            logger.error("Error in {} endpoint", agentType, e);
+            return ResponseEntity.ok(AgentResponse.builder()
+                .agentType(agentType)
                 .error("Internal server error: " + e.getMessage())
                 .success(false)
-                .build();
+                .brownoutLevel(level.name())
+                .build());
+        }
+    }
+    
+    // Header primero, luego el campo del body
+    private String requestValue(Map<String, Object> request, HttpServletRequest httpRequest,
+                                String header, String field) {
+        String value = httpRequest.getHeader(header);
+        if ((value == null || value.isBlank()) && request.get(field) != null) {
+            value = request.get(field).toString();
         }
+        return value == null || value.isBlank() ? null : value;
+    }
+    
+    /**
+     * GET /api/v1/agents/semantic-cache/stats
+     */
+    @GetMapping("/semantic-cache/stats")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> semanticCacheStats() {
+        return semanticCache.getStats();
+    }
+    
+    /**
+     * GET /api/v1/agents/usage?top=20
+     * Tokens, registros de Text Analytics / Content Safety y costo estimado
+     * por agente, deployment y los clientes de mayor consumo.
+     */
+    @GetMapping("/usage")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> usageStats(@RequestParam(defaultValue = "20") int top) {
+        return usageAccountant.getStats(Math.max(0, Math.min(top, 500)));
+    }
+    
+    /**
+     * GET /api/v1/agents/usage/customers/{customerId}
+     */
+    @GetMapping("/usage/customers/{customerId}")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public ResponseEntity<Map<String, Object>> customerUsage(@PathVariable String customerId) {
+        return usageAccountant.getCustomer(customerId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * GET /api/v1/agents/sessions/stats
+     */
+    @GetMapping("/sessions/stats")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> sessionStats() {
+        return sessionStore.getStats();
+    }
+    
+    /**
+     * GET /api/v1/agents/sessions/{sessionId}
+     */
+    @GetMapping("/sessions/{sessionId}")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public ResponseEntity<Map<String, Object>> sessionContext(@PathVariable String sessionId) {
+        return sessionStore.get(sessionId)
+            .map(state -> ResponseEntity.ok(state.toContext()))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * GET /api/v1/agents/capture/stats
+     */
+    @GetMapping("/capture/stats")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> captureStats() {
+        Map<String, Object> stats = new HashMap<>(trafficRecorder.getStats());
+        stats.put("playback", azurePlayback.getStats());
+        return stats;
+    }
+    
+    /**
+     * GET /api/v1/agents/startup
+     */
+    @GetMapping("/startup")
+    @CrossOrigin(origins = "http://localhost:3000")
+    public Map<String, Object> startupStats() {
+        return startupMetrics.getStats();
     }
     
     /**
@@ -154,7 +396,7 @@ public class AgentController {
         Map<String, Object> response = new HashMap<>();
         response.put("status", "healthy");
         response.put("timestamp", System.currentTimeMillis());
-        response.put("agents", "4 agents initialized");
+        response.put("agents", "5 agents initialized");
         response.put("project", "SmartWomen CRM - Day 1 Core Backend");
         return response;
     }
@@ -1,11 +1,30 @@
 package com.smartwomen.api;
 
 import com.smartwomen.models.Customer;
+import com.smartwomen.models.ImportProgress;
+import com.smartwomen.search.CustomerSearchIndex;
+import com.smartwomen.service.CustomerBulkImportService;
+import com.smartwomen.service.CustomerConflictException;
+import com.smartwomen.service.CustomerExportService;
 import com.smartwomen.service.CustomerService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,30 +37,183 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
     
+    @Autowired
+    private CustomerBulkImportService bulkImportService;
+    
+    @Autowired
+    private CustomerExportService exportService;
+    
+    /**
+     * GET /api/v1/customers (?compact=true: lastAgentResults resumido)
+     */
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
+    public ResponseEntity<List<Customer>> getAllCustomers(HttpServletRequest request) {
         List<Customer> customers = customerService.getAllCustomers();
+        if (ResponseModes.isCompact(request)) {
+            customers = customers.stream().map(Customer::toCompact).toList();
+        }
         return ResponseEntity.ok(customers);
     }
     
+    /**
+     * GET /api/v1/customers/page?page=0&size=50 (?compact=true: lastAgentResults resumido)
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Page<Customer>> getCustomersPage(@RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "50") int size,
+                                                           HttpServletRequest request) {
+        Page<Customer> customers = customerService.getCustomersPage(
+            PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 500))));
+        if (ResponseModes.isCompact(request)) {
+            customers = customers.map(Customer::toCompact);
+        }
+        return ResponseEntity.ok(customers);
+    }
+    
+    /**
+     * GET /api/v1/customers/search?q=maria gom&country=México&industry=&page=0&size=20
+     * Búsqueda sin acentos ni mayúsculas en nombre, email, industria, país y
+     * último mensaje; la última palabra se completa como prefijo.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CustomerSearchIndex.SearchResult> searchCustomers(@RequestParam(defaultValue = "") String q,
+                                                                           @RequestParam(required = false) String country,
+                                                                           @RequestParam(required = false) String industry,
+                                                                           @RequestParam(defaultValue = "0") int page,
+                                                                           @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(customerService.searchCustomers(q, country, industry,
+            Math.max(0, page), Math.max(1, Math.min(size, 100))));
+    }
+    
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        return ResponseEntity.ok(customerService.getSearchStats());
+    }
+    
+    /**
+     * GET /api/v1/customers/{customerId}
+     * El header ETag es la versión a enviar como If-Match en el PUT
+     */
     @GetMapping("/{customerId}")
     public ResponseEntity<Customer> getCustomerById(@PathVariable String customerId) {
         return customerService.getCustomerById(customerId)
-                .map(ResponseEntity::ok)
+                .map(this::withEtag)
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * GET /api/v1/customers/{customerId}/similar?k=10
+     */
+    @GetMapping("/{customerId}/similar")
+    public ResponseEntity<List<Map<String, Object>>> getSimilarCustomers(@PathVariable String customerId,
+                                                                        @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(customerService.getSimilarCustomers(customerId, Math.max(1, Math.min(k, 100))));
+    }
+    
     @PostMapping
     public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
-        Customer savedCustomer = customerService.saveCustomer(customer);
-        return ResponseEntity.status(201).body(savedCustomer);
+        try {
+            Customer savedCustomer = customerService.saveCustomer(customer);
+            return ResponseEntity.status(201).body(savedCustomer);
+        } catch (CustomerConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
     
+    /**
+     * PUT /api/v1/customers/{customerId}
+     * Solo se escriben los campos presentes en el body, sobre la versión actual.
+     * Con If-Match: 412 si el cliente cambió desde esa versión. Sin If-Match los
+     * conflictos se reintentan en el servidor; 409 si no se logra escribir.
+     */
     @PutMapping("/{customerId}")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable String customerId, @RequestBody Customer customer) {
-        customer.setCustomerId(customerId);
-        Customer updatedCustomer = customerService.saveCustomer(customer);
-        return ResponseEntity.ok(updatedCustomer);
+    public ResponseEntity<Customer> updateCustomer(@PathVariable String customerId, @RequestBody Customer customer,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            return withEtag(customerService.updateCustomer(customerId, customer, ifMatch));
+        } catch (CustomerConflictException e) {
+            ResponseEntity.BodyBuilder conflict = ResponseEntity.status(
+                e.isPreconditionFailed() ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+            if (e.getCurrentEtag() != null) {
+                conflict.eTag(e.getCurrentEtag());
+            }
+            return conflict.build();
+        }
+    }
+    
+    @GetMapping("/writes/stats")
+    public ResponseEntity<Map<String, Object>> getWriteStats() {
+        return ResponseEntity.ok(customerService.getWriteStats());
+    }
+    
+    private ResponseEntity<Customer> withEtag(Customer customer) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (customer.get_etag() != null) {
+            ok.eTag(customer.get_etag());
+        }
+        return ok.body(customer);
+    }
+    
+    /**
+     * POST /api/v1/customers/import
+     * Body: CSV con cabecera (text/csv) o un cliente JSON por línea (application/x-ndjson)
+     * 202 con el jobId: el progreso se consulta en GET /import/{jobId}
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportProgress> importCustomers(@RequestHeader(value = "Content-Type") String contentType,
+                                                          InputStream body) throws IOException {
+        boolean ndjson = contentType.startsWith("application/x-ndjson");
+        ImportProgress progress = bulkImportService.importCustomers(body, ndjson);
+        // Archivo rechazado antes de leer filas (p. ej. cabecera CSV no reconocida)
+        if (progress.getStatus() == ImportProgress.Status.FAILED && progress.getRead() == 0) {
+            return ResponseEntity.badRequest().body(progress);
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+            .path("/{jobId}").buildAndExpand(progress.getJobId()).toUri();
+        return ResponseEntity.accepted().location(location).body(progress);
+    }
+    
+    @GetMapping("/import")
+    public ResponseEntity<Collection<ImportProgress>> getImportJobs() {
+        return ResponseEntity.ok(bulkImportService.getAllProgress());
+    }
+    
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportProgress> getImportProgress(@PathVariable String jobId) {
+        return bulkImportService.getProgress(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * GET /api/v1/customers/export?format=parquet|csv&since=2025-01-01T00:00:00&until=...
+     * Exportación en streaming para BI con los campos de agentes aplanados.
+     * El rango es [since, until): X-Export-Until devuelve el límite usado y sirve
+     * como since del siguiente export incremental sin repetir filas.
+     */
+    @GetMapping("/export")
+    public void exportCustomers(@RequestParam(defaultValue = "parquet") String format,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+                                HttpServletResponse response) throws IOException {
+        CustomerExportService.Format exportFormat;
+        try {
+            exportFormat = CustomerExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+        LocalDateTime upperBound = until != null ? until : LocalDateTime.now();
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"customers." + exportFormat.getExtension() + "\"");
+        response.setHeader("X-Export-Until", upperBound.toString());
+        exportService.export(response.getOutputStream(), exportFormat, since, upperBound);
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(customerService.getCacheStats());
     }
     
     @GetMapping("/stats")
@@ -0,0 +1,63 @@
+package com.smartwomen.api;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smartwomen.service.CustomerViewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Vistas materializadas de clientes (mantenidas por el change feed)
+ */
+@RestController
+@Profile("!local")
+@RequestMapping("/customers/views")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CustomerViewController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private CustomerViewService customerViewService;
+
+    /**
+     * GET /api/v1/customers/views/escalations?limit=20
+     */
+    @GetMapping("/escalations")
+    public ResponseEntity<List<ObjectNode>> getEscalations(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(customerViewService.getEscalationQueue(clamp(limit)));
+    }
+
+    /**
+     * GET /api/v1/customers/views/negative?limit=20
+     */
+    @GetMapping("/negative")
+    public ResponseEntity<List<ObjectNode>> getRecentNegative(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(customerViewService.getRecentNegative(clamp(limit)));
+    }
+
+    /**
+     * GET /api/v1/customers/views/segments/{dimension}  (dimension: country | industry)
+     */
+    @GetMapping("/segments/{dimension}")
+    public ResponseEntity<List<ObjectNode>> getSegments(@PathVariable String dimension) {
+        return ResponseEntity.ok(customerViewService.getSegments(dimension));
+    }
+
+    /**
+     * GET /api/v1/customers/views/segments/{dimension}/{value}
+     */
+    @GetMapping("/segments/{dimension}/{value}")
+    public ResponseEntity<ObjectNode> getSegment(@PathVariable String dimension, @PathVariable String value) {
+        return customerViewService.getSegment(dimension, value)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartwomen.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartwomen.models.AgentResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Modo de respuesta compacto: header X-Response-Mode: compact o ?compact=true
+ */
+public final class ResponseModes {
+
+    public static final String HEADER = "X-Response-Mode";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private ResponseModes() {
+    }
+
+    public static boolean isCompact(HttpServletRequest request) {
+        return "compact".equalsIgnoreCase(request.getHeader(HEADER))
+            || "true".equalsIgnoreCase(request.getParameter("compact"));
+    }
+
+    /**
+     * Quita el payload duplicado: el JSON de content pasa a result y de
+     * metadata se eliminan las entradas idénticas a las de result. Si la
+     * respuesta ya trae result (Orchestrator: resultados por agente) se
+     * devuelve tal cual para no pisarlo.
+     */
+    public static AgentResponse compact(AgentResponse response, ObjectMapper objectMapper) {
+        String content = response.getContent();
+        if (response.getResult() != null || content == null || !content.trim().startsWith("{")) {
+            return response;
+        }
+        Map<String, Object> result;
+        try {
+            result = objectMapper.readValue(content, MAP_TYPE);
+        } catch (Exception e) {
+            return response;
+        }
+        Map<String, Object> metadata = null;
+        if (response.getMetadata() != null) {
+            metadata = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : response.getMetadata().entrySet()) {
+                if (!Objects.equals(result.get(entry.getKey()), entry.getValue())) {
+                    metadata.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return AgentResponse.builder()
+            .agentType(response.getAgentType())
+            .result(result)
+            .metadata(metadata == null || metadata.isEmpty() ? null : metadata)
+            .error(response.getError())
+            .success(response.isSuccess())
+            .processingTime(response.getProcessingTime())
+            .confidence(response.getConfidence())
+            .suggestions(response.getSuggestions())
+            .analytics(response.getAnalytics())
+            .build();
+    }
+}
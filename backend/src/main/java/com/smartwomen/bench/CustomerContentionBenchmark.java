@@ -0,0 +1,168 @@
+package com.smartwomen.bench;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import com.smartwomen.service.CustomerConflictException;
+import com.smartwomen.service.CustomerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escrituras concurrentes sobre pocos clientes "calientes": throughput y tasa
+ * de conflictos bajo contención. La garantía de 0 updates perdidos la verifica
+ * CustomerServiceConcurrencyTest (mvn test); aquí solo se reporta.
+ *
+ * Cada escritura agrega una clave única a lastAgentResults; al final se
+ * cuentan las que faltan. "blind" es el read-modify-write sin ETag de antes
+ * (pierde updates); "etag" usa CustomerService.updateCustomerInteraction
+ * (escritura condicional + reintento + merge) y debe terminar con 0 perdidos.
+ *
+ *   --spring.profiles.active=local --smartwomen.bench.scenario=customer-contention
+ *   --smartwomen.bench.threads=16 --smartwomen.bench.operations=200 --smartwomen.bench.hot-customers=1,4,16
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "customer-contention")
+public class CustomerContentionBenchmark implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerContentionBenchmark.class);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    // Escrituras por hilo
+    @Value("${smartwomen.bench.operations:200}")
+    private int operations;
+
+    @Value("${smartwomen.bench.threads:16}")
+    private int threads;
+
+    // Niveles de contención: cantidad de clientes entre los que se reparten las escrituras
+    @Value("${smartwomen.bench.hot-customers:1,4,16}")
+    private List<Integer> hotCustomers;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> lines = new ArrayList<>();
+        boolean lostWithEtag = false;
+        for (int hot : hotCustomers) {
+            for (String mode : List.of("blind", "etag")) {
+                Result result = runLevel(mode, hot);
+                lines.add(result.toString());
+                lostWithEtag |= "etag".equals(mode) && result.lost > 0;
+            }
+        }
+        logger.info("📊 CUSTOMER CONTENTION BENCHMARK threads={} operations/thread={}", threads, operations);
+        lines.forEach(line -> logger.info("📊 {}", line));
+        logger.info("📊 write stats: {}", customerService.getWriteStats());
+        if (lostWithEtag) {
+            logger.error("❌ Lost updates with ETag writes");
+        }
+    }
+
+    private Result runLevel(String mode, int hot) throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        List<String> ids = new ArrayList<>(hot);
+        for (int i = 0; i < hot; i++) {
+            Customer customer = new Customer();
+            customer.setCustomerId("contention-" + runId + "-" + i);
+            customer.setId(customer.getCustomerId());
+            customer.setName("Contention " + i);
+            customer.setLastAgentResults(new LinkedHashMap<>());
+            customerService.saveCustomer(customer);
+            ids.add(customer.getCustomerId());
+        }
+
+        Map<String, Object> before = customerService.getWriteStats();
+        LatencyRecorder latency = new LatencyRecorder(mode + " hot=" + hot);
+        LongAdder failed = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long began = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < operations; i++) {
+                    String customerId = ids.get((thread + i) % ids.size());
+                    String key = "w" + thread + "-" + i;
+                    int op = i;
+                    try {
+                        latency.time(() -> "blind".equals(mode)
+                            ? blindWrite(customerId, key)
+                            : customerService.updateCustomerInteraction(customerId, key, Map.of(key, op)));
+                    } catch (CustomerConflictException | OptimisticLockingFailureException e) {
+                        // Fallo visible (reintentos agotados / conflicto de H2), no un update perdido
+                        failed.increment();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        long present = 0;
+        for (String id : ids) {
+            present += customerRepository.findByCustomerId(id)
+                .map(c -> c.getLastAgentResults() == null ? 0 : c.getLastAgentResults().size())
+                .orElse(0);
+        }
+        long expected = (long) threads * operations;
+        Map<String, Object> after = customerService.getWriteStats();
+        return new Result(latency, expected / seconds,
+            expected - failed.sum() - present, failed.sum(),
+            (Long) after.get("conflicts") - (Long) before.get("conflicts"));
+    }
+
+    // El patrón anterior: lectura, cambio y escritura sin condición
+    private Customer blindWrite(String customerId, String key) {
+        Customer customer = customerRepository.findByCustomerId(customerId).orElseThrow();
+        Map<String, Object> results = new LinkedHashMap<>(customer.getLastAgentResults());
+        results.put(key, key);
+        customer.setLastAgentResults(results);
+        customer.set_etag(null);
+        return customerRepository.save(customer);
+    }
+
+    private static final class Result {
+        final LatencyRecorder latency;
+        final double opsPerSecond;
+        final long lost;
+        final long failed;
+        final long conflicts;
+
+        Result(LatencyRecorder latency, double opsPerSecond, long lost, long failed, long conflicts) {
+            this.latency = latency;
+            this.opsPerSecond = opsPerSecond;
+            this.lost = lost;
+            this.failed = failed;
+            this.conflicts = conflicts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s ops/s=%.0f conflicts=%d failed=%d lostUpdates=%d",
+                latency, opsPerSecond, conflicts, failed, lost);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.smartwomen.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartwomen.accounting.UsageAccountant;
+import com.smartwomen.accounting.UsageContext;
+import com.smartwomen.agents.BiasGuardAgent;
+import com.smartwomen.agents.LanguageDetectorAgent;
+import com.smartwomen.agents.PlannerAgent;
+import com.smartwomen.agents.SentimentAnalyzerAgent;
+import com.smartwomen.capture.AzurePlayback;
+import com.smartwomen.models.AgentRequest;
+import com.smartwomen.models.AgentResponse;
+import com.smartwomen.scheduling.BrownoutController;
+import com.smartwomen.semantic.SemanticCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Corpus etiquetado (resources/golden/corpus-vN.json) contra una configuración
+ * de agentes: exactitud, p50/p99 y llamadas a Azure por agente.
+ *
+ * Cada corrida mide una configuración (label) y escribe su reporte; al final
+ * loguea la tabla con el último reporte de cada label para la misma versión
+ * del corpus. Configuraciones de referencia:
+ *   remote:  --smartwomen.sentiment.local.enabled=false --smartwomen.semantic-cache.enabled=false
+ *   local:   --smartwomen.sentiment.local.min-confidence=0 --smartwomen.brownout.forced-level=SAFETY_ONLY
+ *            --smartwomen.semantic-cache.enabled=false
+ *   cached:  --smartwomen.sentiment.local.enabled=false (cache semántico activo; warmup-passes=1 mide reuso exacto)
+ *   tiered:  valores por defecto (léxico + Azure + cache semántico)
+ *
+ * Todas con --smartwomen.embeddings.provider=local: remote apaga el cache y no
+ * genera embeddings, así que una grabación suya no tendría qué servirle al cache
+ * de cached/tiered en un replay; con embeddings locales (deterministas) el cache
+ * no llama a Azure y las demás llamadas son un subconjunto de las de remote.
+ *
+ * Sin Azure: grabar una vez la configuración remote con smartwomen.capture.mode=record
+ * y correr las demás con smartwomen.capture.mode=replay (mismo body → misma respuesta).
+ * Si el replay sirve alguna respuesta que no es del mismo body (match capture/service)
+ * o no encuentra ninguna (miss), el reporte queda valid=false.
+ *   --spring.profiles.active=local --smartwomen.bench.scenario=golden --smartwomen.golden.label=tiered
+ *   --smartwomen.embeddings.provider=local
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "golden")
+public class GoldenCorpusRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoldenCorpusRunner.class);
+    // Campos de metadata que dicen qué camino respondió
+    private static final List<String> PATH_FIELDS = List.of("sentimentPath", "biasPath", "planSource", "semanticCache");
+    // Niveles de playback que devuelven la respuesta grabada para el mismo body
+    private static final Set<String> RELIABLE_MATCHES = Set.of("match.exact", "match.body");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LanguageDetectorAgent languageDetectorAgent;
+
+    @Autowired
+    private SentimentAnalyzerAgent sentimentAnalyzerAgent;
+
+    @Autowired
+    private BiasGuardAgent biasGuardAgent;
+
+    @Autowired
+    private PlannerAgent plannerAgent;
+
+    @Autowired
+    private UsageAccountant usageAccountant;
+
+    @Autowired
+    private SemanticCache semanticCache;
+
+    @Autowired
+    private BrownoutController brownout;
+
+    @Autowired
+    private AzurePlayback azurePlayback;
+
+    @Value("${smartwomen.golden.corpus:classpath:golden/corpus-v2.json}")
+    private Resource corpus;
+
+    @Value("${smartwomen.golden.label:tiered}")
+    private String label;
+
+    // Pasadas previas sin medir (calientan el cache semántico)
+    @Value("${smartwomen.golden.warmup-passes:0}")
+    private int warmupPasses;
+
+    @Value("${smartwomen.golden.report-dir:./data/golden-reports}")
+    private String reportDir;
+
+    @Value("${smartwomen.embeddings.provider:azure}")
+    private String embeddingsProvider;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        JsonNode root;
+        try (InputStream in = corpus.getInputStream()) {
+            root = objectMapper.readTree(in);
+        }
+        String version = root.path("version").asText("unversioned");
+        // v1 publicó "includes" (lista incluida); desde v2 el conjunto debe ser el mismo
+        boolean exactLists = !"includes".equals(root.path("listMatch").asText("exact"));
+        List<JsonNode> cases = new ArrayList<>();
+        root.path("cases").forEach(cases::add);
+        logger.info("🥇 GOLDEN CORPUS {} ({} cases) as '{}', brownout {}, replay {}, embeddings {}",
+            version, cases.size(), label, brownout.current(), azurePlayback.isActive(), embeddingsProvider);
+
+        for (int pass = 0; pass < warmupPasses; pass++) {
+            cases.forEach(this::execute);
+        }
+
+        Map<String, AgentScore> scores = new TreeMap<>();
+        AgentScore overall = new AgentScore("overall");
+        List<Map<String, Object>> failures = new ArrayList<>();
+        for (JsonNode testCase : cases) {
+            String agent = testCase.path("agent").asText();
+            long callsBefore = upstreamCalls();
+            long start = System.nanoTime();
+            AgentResponse response = execute(testCase);
+            long nanos = System.nanoTime() - start;
+            long calls = upstreamCalls() - callsBefore;
+
+            Map<String, Object> observed = observed(response);
+            List<String> mismatches = mismatches(testCase.path("expected"), testCase.path("optional"),
+                exactLists, observed, response);
+            AgentScore score = scores.computeIfAbsent(agent, AgentScore::new);
+            for (AgentScore s : List.of(score, overall)) {
+                s.record(mismatches.isEmpty(), nanos, calls);
+            }
+            PATH_FIELDS.stream().filter(observed::containsKey)
+                .forEach(field -> score.paths.merge(field + "=" + observed.get(field), 1, Integer::sum));
+            if (!mismatches.isEmpty()) {
+                Map<String, Object> failure = new LinkedHashMap<>();
+                failure.put("id", testCase.path("id").asText());
+                failure.put("mismatches", mismatches);
+                failures.add(failure);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("corpusVersion", version);
+        report.put("cases", cases.size());
+        report.put("warmupPasses", warmupPasses);
+        report.put("brownout", brownout.current().name());
+        report.put("embeddingsProvider", embeddingsProvider);
+        List<String> invalid = invalidPlayback();
+        report.put("valid", invalid.isEmpty());
+        if (!invalid.isEmpty()) {
+            report.put("invalidReason", invalid);
+        }
+        report.put("overall", overall.toMap());
+        Map<String, Object> agents = new LinkedHashMap<>();
+        scores.forEach((agent, score) -> agents.put(agent, score.toMap()));
+        report.put("agents", agents);
+        report.put("failures", failures);
+        report.put("semanticCache", semanticCache.getStats());
+        if (azurePlayback.isActive()) {
+            report.put("playback", azurePlayback.getStats());
+        }
+
+        Path dir = Files.createDirectories(Path.of(reportDir));
+        Path reportFile = dir.resolve(String.format("golden-%s-%s-%s.json", version, label,
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))));
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+
+        logger.info("📊 GOLDEN {} '{}' report {}", version, label, reportFile);
+        scores.values().forEach(score -> logger.info("📊 {}", score));
+        logger.info("📊 {}", overall);
+        failures.forEach(failure -> logger.info("📊 ✗ {} {}", failure.get("id"), failure.get("mismatches")));
+        if (!invalid.isEmpty()) {
+            logger.warn("⚠️ GOLDEN '{}' report is INVALID, playback did not match the recorded bodies: {}",
+                label, invalid);
+        }
+        compare(dir, version);
+    }
+
+    /**
+     * Con replay, cada llamada a Azure debe encontrar la respuesta grabada para
+     * su mismo body. capture/service sirven la de otro caso (aquí no hay request
+     * entrante, todas comparten captureId vacío) y miss no sirve ninguna: la
+     * exactitud y las llamadas medidas dejan de corresponder a la configuración.
+     */
+    private List<String> invalidPlayback() {
+        if (!azurePlayback.isActive()) {
+            return List.of();
+        }
+        List<String> invalid = new ArrayList<>();
+        azurePlayback.getStats().forEach((key, value) -> {
+            if (key.startsWith("match.") && !RELIABLE_MATCHES.contains(key) && ((Number) value).longValue() > 0) {
+                invalid.add(key + "=" + value);
+            }
+        });
+        return invalid;
+    }
+
+    @SuppressWarnings("unchecked")
+    private AgentResponse execute(JsonNode testCase) {
+        String agent = testCase.path("agent").asText();
+        Function<AgentRequest, AgentResponse> runner = runner(agent);
+        if (runner == null) {
+            throw new IllegalArgumentException("Unknown agent in corpus: " + agent);
+        }
+        Map<String, Object> context = testCase.has("context")
+            ? objectMapper.convertValue(testCase.get("context"), Map.class) : new HashMap<>();
+        AgentRequest request = AgentRequest.builder()
+            .agentType(agent)
+            .content(testCase.path("content").asText())
+            .context(context)
+            .requestId("golden-" + testCase.path("id").asText())
+            .build();
+        UsageContext.set("golden-" + label, agent);
+        try {
+            return runner.apply(request);
+        } finally {
+            UsageContext.clear();
+        }
+    }
+
+    private Function<AgentRequest, AgentResponse> runner(String agent) {
+        switch (agent) {
+            case "LanguageDetector": return languageDetectorAgent::detectLanguage;
+            case "SentimentAnalyzer": return sentimentAnalyzerAgent::analyzeSentiment;
+            case "BiasGuard": return biasGuardAgent::detectBias;
+            case "Planner": return plannerAgent::createExecutionPlan;
+            default: return null;
+        }
+    }
+
+    // Metadata + content (si es un objeto JSON) en un solo mapa
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> observed(AgentResponse response) {
+        Map<String, Object> observed = new HashMap<>();
+        if (response.getMetadata() != null) {
+            observed.putAll(response.getMetadata());
+        }
+        String content = response.getContent();
+        if (content != null && content.trim().startsWith("{")) {
+            try {
+                observed.putAll(objectMapper.readValue(content, Map.class));
+            } catch (IOException e) {
+                logger.debug("Content is not JSON: {}", e.getMessage());
+            }
+        }
+        return observed;
+    }
+
+    /**
+     * Valor esperado: escalar = igual; lista contra escalar = uno de los
+     * aceptables; lista contra lista = el mismo conjunto (p. ej. executionOrder:
+     * un agente de más también falla), salvo los de optional; con exactLists
+     * false solo se exige que estén incluidos.
+     */
+    private List<String> mismatches(JsonNode expected, JsonNode optional, boolean exactLists,
+                                    Map<String, Object> observed, AgentResponse response) {
+        List<String> mismatches = new ArrayList<>();
+        if (!response.isSuccess()) {
+            mismatches.add("error=" + response.getError());
+            return mismatches;
+        }
+        expected.fields().forEachRemaining(entry -> {
+            Object actual = observed.get(entry.getKey());
+            JsonNode want = entry.getValue();
+            if (want.isArray() && actual instanceof Collection<?> values) {
+                mismatches.addAll(setMismatches(entry.getKey(), want, optional.path(entry.getKey()), values, exactLists));
+                return;
+            }
+            boolean ok = want.isArray()
+                ? stream(want).anyMatch(value -> normalize(value.asText()).equals(normalize(actual)))
+                : normalize(want.asText()).equals(normalize(actual));
+            if (!ok) {
+                mismatches.add(entry.getKey() + ": expected " + want + ", got " + actual);
+            }
+        });
+        return mismatches;
+    }
+
+    // Faltantes siempre; sobrantes (fuera de optional) solo con exactLists
+    private static List<String> setMismatches(String field, JsonNode want, JsonNode optional,
+                                              Collection<?> actual, boolean exactLists) {
+        Set<String> missing = new TreeSet<>();
+        stream(want).forEach(value -> missing.add(normalize(value.asText())));
+        Set<String> extra = new TreeSet<>();
+        actual.forEach(value -> extra.add(normalize(value)));
+        Set<String> wanted = new HashSet<>(missing);
+        missing.removeAll(extra);
+        extra.removeAll(wanted);
+        stream(optional).forEach(value -> extra.remove(normalize(value.asText())));
+
+        List<String> mismatches = new ArrayList<>();
+        if (!missing.isEmpty()) mismatches.add(field + ": missing " + missing + ", got " + actual);
+        if (exactLists && !extra.isEmpty()) mismatches.add(field + ": extra " + extra + ", got " + actual);
+        return mismatches;
+    }
+
+    private static Stream<JsonNode> stream(JsonNode array) {
+        List<JsonNode> values = new ArrayList<>();
+        array.forEach(values::add);
+        return values.stream();
+    }
+
+    private static String normalize(Object value) {
+        return value == null ? "" : value.toString().trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Llamadas a Azure registradas (OpenAI, embeddings, Text Analytics, Content Safety, Translator)
+    @SuppressWarnings("unchecked")
+    private long upstreamCalls() {
+        Map<String, Object> totals = (Map<String, Object>) usageAccountant.getStats(0).get("totals");
+        return ((Number) totals.get("calls")).longValue();
+    }
+
+    // Último reporte de cada label para esta versión del corpus
+    private void compare(Path dir, String version) throws IOException {
+        Map<String, JsonNode> latest = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> reports = files
+                .filter(p -> p.getFileName().toString().startsWith("golden-" + version + "-"))
+                .sorted(Comparator.comparing(p -> p.getFileName().toString().substring(p.getFileName().toString().length() - 20)))
+                .toList();
+            for (Path report : reports) {
+                JsonNode node = objectMapper.readTree(report.toFile());
+                latest.put(node.path("label").asText(), node);
+            }
+        }
+        logger.info("📊 GOLDEN {} COMPARISON ({} configurations)", version, latest.size());
+        latest.forEach((name, report) -> {
+            JsonNode overall = report.path("overall");
+            logger.info("📊 {} accuracy={} p50={}ms p99={}ms upstreamCalls={}{}",
+                String.format("%-12s", name), String.format("%.3f", overall.path("accuracy").asDouble()),
+                String.format("%8.1f", overall.path("p50Ms").asDouble()),
+                String.format("%8.1f", overall.path("p99Ms").asDouble()), overall.path("upstreamCalls").asLong(),
+                report.path("valid").asBoolean(true) ? "" : " INVALID " + report.path("invalidReason"));
+        });
+    }
+
+    private static final class AgentScore {
+        final String agent;
+        final LatencyRecorder latency;
+        final Map<String, Integer> paths = new TreeMap<>();
+        int cases;
+        int correct;
+        long upstreamCalls;
+
+        AgentScore(String agent) {
+            this.agent = agent;
+            this.latency = new LatencyRecorder(agent);
+        }
+
+        void record(boolean ok, long nanos, long calls) {
+            cases++;
+            if (ok) correct++;
+            upstreamCalls += calls;
+            latency.record(nanos);
+        }
+
+        double accuracy() {
+            return cases == 0 ? 0.0 : (double) correct / cases;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> summary = latency.summary();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("cases", cases);
+            map.put("correct", correct);
+            map.put("accuracy", accuracy());
+            map.put("p50Ms", summary.get("p50Ms"));
+            map.put("p99Ms", summary.get("p99Ms"));
+            map.put("upstreamCalls", upstreamCalls);
+            map.put("upstreamCallsPerCase", cases == 0 ? 0.0 : (double) upstreamCalls / cases);
+            if (!paths.isEmpty()) map.put("paths", paths);
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s accuracy=%.3f (%d/%d) upstreamCalls=%d",
+                latency, accuracy(), correct, cases, upstreamCalls);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.smartwomen.bench;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro de latencias (nanosegundos) para los benchmarks
+ */
+public class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public <T> T time(java.util.function.Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public synchronized Map<String, Object> summary() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("operation", name);
+        summary.put("count", count);
+        summary.put("p50Ms", percentileMs(sorted, 0.50));
+        summary.put("p99Ms", percentileMs(sorted, 0.99));
+        summary.put("maxMs", count == 0 ? 0.0 : sorted[count - 1] / 1_000_000.0);
+        summary.put("meanMs", count == 0 ? 0.0 : Arrays.stream(sorted).average().orElse(0) / 1_000_000.0);
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Object> s = summary();
+        return String.format("%-28s n=%-7d p50=%8.3fms p99=%8.3fms max=%8.3fms",
+            name, (Integer) s.get("count"), (Double) s.get("p50Ms"), (Double) s.get("p99Ms"), (Double) s.get("maxMs"));
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.smartwomen.bench;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Latencia por operación del CustomerRepository activo.
+ *
+ * Embebido:   --spring.profiles.active=local --smartwomen.bench.scenario=repository
+ * Emulador:   --smartwomen.bench.scenario=repository
+ *             --spring.cloud.azure.cosmos.endpoint=https://localhost:8081/
+ *             --spring.cloud.azure.cosmos.key=&lt;emulator key&gt;
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "repository")
+public class RepositoryBenchmark implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryBenchmark.class);
+    private static final List<String> COUNTRIES = List.of("Mexico", "Colombia", "Argentina", "Brasil", "Chile");
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${smartwomen.bench.operations:2000}")
+    private int operations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String backend = Arrays.asList(environment.getActiveProfiles()).contains("local") ? "embedded-h2" : "cosmos";
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+
+        LatencyRecorder save = new LatencyRecorder("save");
+        LatencyRecorder findById = new LatencyRecorder("findByCustomerId");
+        LatencyRecorder findByEmail = new LatencyRecorder("findByEmail");
+        LatencyRecorder countByCountry = new LatencyRecorder("countByCountry");
+        LatencyRecorder page = new LatencyRecorder("findAll(page=50)");
+
+        List<String> ids = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            Customer customer = new Customer();
+            customer.setCustomerId("bench-" + runId + "-" + i);
+            customer.setId(customer.getCustomerId());
+            customer.setName("Bench " + i);
+            customer.setEmail("bench" + i + "-" + runId + "@smartwomen.local");
+            customer.setCountry(COUNTRIES.get(i % COUNTRIES.size()));
+            customer.setIndustry("Retail");
+            customer.setBusinessSize("small");
+            save.time(() -> customerRepository.save(customer));
+            ids.add(customer.getCustomerId());
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < operations; i++) {
+            int n = random.nextInt(ids.size());
+            findById.time(() -> customerRepository.findByCustomerId(ids.get(n)));
+            findByEmail.time(() -> customerRepository.findByEmail("bench" + n + "-" + runId + "@smartwomen.local"));
+        }
+        for (int i = 0; i < Math.max(10, operations / 20); i++) {
+            String country = COUNTRIES.get(i % COUNTRIES.size());
+            countByCountry.time(() -> customerRepository.countByCountry(country));
+            int pageNumber = i % 10;
+            page.time(() -> customerRepository.findAll(PageRequest.of(pageNumber, 50)));
+        }
+
+        logger.info("📊 REPOSITORY BENCHMARK backend={} operations={}", backend, operations);
+        for (LatencyRecorder recorder : List.of(save, findById, findByEmail, countByCountry, page)) {
+            logger.info("📊 {}", recorder);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.smartwomen.bench;
+
+import com.smartwomen.scheduling.AgentRejectedException;
+import com.smartwomen.scheduling.AgentScheduler;
+import com.smartwomen.scheduling.PriorityClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencia interactiva con y sin una inundación de trabajo BULK.
+ *
+ * Las tareas simulan una llamada a Azure (sleep de task-ms); sin Azure real.
+ *   --smartwomen.bench.scenario=scheduler
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "scheduler")
+public class SchedulerBenchmark implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerBenchmark.class);
+
+    @Autowired
+    private AgentScheduler agentScheduler;
+
+    @Value("${smartwomen.bench.operations:2000}")
+    private int operations;
+
+    @Value("${smartwomen.bench.task-ms:40}")
+    private long taskMs;
+
+    @Value("${smartwomen.bench.bulk-threads:64}")
+    private int bulkThreads;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        LatencyRecorder idle = interactiveRun("interactive (idle)", false);
+        LatencyRecorder loaded = interactiveRun("interactive (bulk flood)", true);
+
+        logger.info("📊 SCHEDULER BENCHMARK operations={} taskMs={} bulkThreads={}", operations, taskMs, bulkThreads);
+        logger.info("📊 {}", idle);
+        logger.info("📊 {}", loaded);
+        logger.info("📊 scheduler stats: {}", agentScheduler.getStats());
+    }
+
+    private LatencyRecorder interactiveRun(String name, boolean flood) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(name);
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder bulkDone = new LongAdder();
+        ExecutorService bulk = Executors.newFixedThreadPool(bulkThreads);
+        if (flood) {
+            for (int t = 0; t < bulkThreads; t++) {
+                int worker = t;
+                bulk.execute(() -> {
+                    while (!stop.get()) {
+                        try {
+                            agentScheduler.execute(PriorityClass.BULK, "bench-bulk-" + worker, this::simulatedCall);
+                            bulkDone.increment();
+                        } catch (AgentRejectedException e) {
+                            sleep(Math.min(e.getRetryAfterMs(), 100));
+                        }
+                    }
+                });
+            }
+            Thread.sleep(500);
+        }
+
+        // Clientes interactivos distintos: no los frena su propio token bucket
+        ExecutorService interactive = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(operations);
+        for (int i = 0; i < operations; i++) {
+            String customer = "bench-chat-" + i;
+            interactive.execute(() -> {
+                try {
+                    recorder.time(() -> agentScheduler.execute(PriorityClass.INTERACTIVE, customer, this::simulatedCall));
+                } catch (AgentRejectedException e) {
+                    logger.debug("Interactive rejected: {}", e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        stop.set(true);
+        interactive.shutdown();
+        bulk.shutdown();
+        bulk.awaitTermination(10, TimeUnit.SECONDS);
+        if (flood) {
+            logger.info("📊 bulk tasks completed during run: {}", bulkDone.sum());
+        }
+        return recorder;
+    }
+
+    private Object simulatedCall() {
+        sleep(taskMs);
+        return Boolean.TRUE;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.smartwomen.bench;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.search.CustomerSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Latencia de GET /customers/search sobre el índice invertido con clientes
+ * sintéticos (solo en memoria: no se escribe en el repositorio).
+ *
+ *   --spring.profiles.active=local --smartwomen.bench.scenario=search --smartwomen.bench.customers=100000
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "search")
+public class SearchBenchmark implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchBenchmark.class);
+
+    private static final List<String> FIRST = List.of("María", "José", "Ana", "João", "Lucía", "Fernanda",
+        "Camila", "Valentina", "Conceição", "Sofía", "Gabriela", "Beatriz", "Daniela", "Mariana", "Paula");
+    private static final List<String> LAST = List.of("González", "Rodríguez", "Gómez", "Pérez", "Silva", "Souza",
+        "Oliveira", "Martínez", "Hernández", "López", "Santos", "Ferreira", "Ramírez", "Muñoz", "Araújo");
+    private static final List<String> COUNTRIES = List.of("México", "Colombia", "Argentina", "Brasil", "Chile", "Perú");
+    private static final List<String> INDUSTRIES = List.of("Retail", "Tecnología", "Educação", "Salud", "Moda", "Alimentos");
+    private static final List<String> MESSAGES = List.of(
+        "Necesito ayuda con la facturación electrónica",
+        "O pedido chegou atrasado e a embalagem veio danificada",
+        "Quiero cambiar mi plan a la versión anual",
+        "Gostaria de saber o prazo de entrega para São Paulo",
+        "La aplicación se cierra cuando intento pagar con tarjeta");
+    private static final List<String> QUERIES = List.of(
+        "maria", "gonz", "maria gonzalez", "joao silva", "conceicao", "facturacion", "entrega sao",
+        "tecnologia", "educacao", "pedido atrasado", "lu", "fernanda mar", "zzz");
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Value("${smartwomen.bench.customers:100000}")
+    private int customers;
+
+    @Value("${smartwomen.bench.operations:2000}")
+    private int operations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Random random = new Random(42);
+        LatencyRecorder upsert = new LatencyRecorder("upsert");
+        for (int i = 0; i < customers; i++) {
+            Customer customer = new Customer();
+            customer.setCustomerId("search-bench-" + i);
+            customer.setName(FIRST.get(random.nextInt(FIRST.size())) + " " + LAST.get(random.nextInt(LAST.size())));
+            customer.setEmail("cliente" + i + "@smartwomen.local");
+            customer.setCountry(COUNTRIES.get(random.nextInt(COUNTRIES.size())));
+            customer.setIndustry(INDUSTRIES.get(random.nextInt(INDUSTRIES.size())));
+            customer.setLastMessage(MESSAGES.get(random.nextInt(MESSAGES.size())));
+            long start = System.nanoTime();
+            customerSearchIndex.upsert(customer);
+            upsert.record(System.nanoTime() - start);
+        }
+
+        Map<String, LatencyRecorder> byQuery = new LinkedHashMap<>();
+        Map<String, Integer> totals = new HashMap<>();
+        for (int i = 0; i < operations; i++) {
+            String query = QUERIES.get(i % QUERIES.size());
+            String country = i % 4 == 0 ? COUNTRIES.get(i % COUNTRIES.size()) : null;
+            String key = country == null ? query : query + " [" + country + "]";
+            CustomerSearchIndex.SearchResult result = byQuery.computeIfAbsent(key, LatencyRecorder::new)
+                .time(() -> customerSearchIndex.search(query, country, null, 0, 20));
+            totals.put(key, result.getTotal());
+        }
+
+        logger.info("📊 SEARCH BENCHMARK customers={} operations={}", customers, operations);
+        logger.info("📊 {}", upsert);
+        byQuery.forEach((key, recorder) -> logger.info("📊 {} hits={}", recorder, totals.get(key)));
+        logger.info("📊 index {}", customerSearchIndex.getStats());
+    }
+}
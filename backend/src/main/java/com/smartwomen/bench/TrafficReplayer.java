@@ -0,0 +1,190 @@
+package com.smartwomen.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartwomen.capture.CaptureContext;
+import com.smartwomen.capture.CaptureReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replay de una captura contra el backend, a 1x o N× la velocidad original.
+ *
+ * Normalmente en el mismo proceso, con las respuestas de Azure servidas desde
+ * la captura (sin tocar Azure):
+ *   --smartwomen.capture.mode=replay --smartwomen.bench.scenario=replay
+ *   --smartwomen.replay.speed=4 --smartwomen.replay.label=after-change
+ *   --smartwomen.replay.baseline=./data/replay-reports/replay-before-change-...json
+ *
+ * Escribe un reporte JSON con p50/p99 por endpoint (replay y original
+ * grabado) y, si hay baseline, loguea la comparación.
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "replay")
+public class TrafficReplayer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficReplayer.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${smartwomen.replay.source:${smartwomen.capture.path:./data/capture}}")
+    private String source;
+
+    @Value("${smartwomen.replay.target:http://localhost:${server.port:8080}${server.servlet.context-path:/api/v1}}")
+    private String target;
+
+    // 1.0 = tiempos originales, 4.0 = 4× más rápido, 0 = sin esperas
+    @Value("${smartwomen.replay.speed:1.0}")
+    private double speed;
+
+    @Value("${smartwomen.replay.concurrency:64}")
+    private int concurrency;
+
+    @Value("${smartwomen.replay.label:run}")
+    private String label;
+
+    @Value("${smartwomen.replay.report-dir:./data/replay-reports}")
+    private String reportDir;
+
+    @Value("${smartwomen.replay.baseline:}")
+    private String baseline;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path session = CaptureReader.resolveSession(Path.of(source));
+        List<JsonNode> inbound = new ArrayList<>();
+        CaptureReader.forEach(session, objectMapper, record -> {
+            if ("inbound".equals(record.path("type").asText()) && !record.path("bodyTruncated").asBoolean()) {
+                inbound.add(record);
+            }
+        });
+        inbound.sort(Comparator.comparingDouble(r -> r.path("offsetMs").asDouble()));
+        logger.info("▶️ REPLAY {} requests from {} at {}x against {}", inbound.size(), session, speed, target);
+
+        Map<String, LatencyRecorder> replayed = new ConcurrentHashMap<>();
+        Map<String, LatencyRecorder> recorded = new TreeMap<>();
+        Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        HttpClient client = HttpClient.newBuilder().executor(executor).connectTimeout(Duration.ofSeconds(5)).build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<CompletableFuture<?>> pending = new ArrayList<>(inbound.size());
+
+        long start = System.nanoTime();
+        double firstOffset = inbound.isEmpty() ? 0 : inbound.get(0).path("offsetMs").asDouble();
+        for (JsonNode record : inbound) {
+            String endpoint = record.path("method").asText() + " " + normalizePath(record.path("path").asText());
+            recorded.computeIfAbsent(endpoint, LatencyRecorder::new)
+                .record((long) (record.path("latencyMs").asDouble() * 1_000_000));
+
+            if (speed > 0) {
+                long due = start + (long) ((record.path("offsetMs").asDouble() - firstOffset) / speed * 1_000_000);
+                long wait = due - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            pending.add(client.sendAsync(buildRequest(record), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    replayed.computeIfAbsent(endpoint, LatencyRecorder::new).record(System.nanoTime() - sent);
+                    if (error != null || response.statusCode() >= 500) {
+                        errors.computeIfAbsent(endpoint, k -> new AtomicInteger()).incrementAndGet();
+                    }
+                }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        long wallMs = (System.nanoTime() - start) / 1_000_000;
+        executor.shutdown();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("session", session.toString());
+        report.put("speed", speed);
+        report.put("requests", inbound.size());
+        report.put("wallTimeMs", wallMs);
+        Map<String, Object> endpoints = new TreeMap<>();
+        recorded.forEach((endpoint, original) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("replay", replayed.getOrDefault(endpoint, new LatencyRecorder(endpoint)).summary());
+            entry.put("recorded", original.summary());
+            entry.put("errors", errors.getOrDefault(endpoint, new AtomicInteger()).get());
+            endpoints.put(endpoint, entry);
+        });
+        report.put("endpoints", endpoints);
+
+        Path reportFile = Files.createDirectories(Path.of(reportDir)).resolve(String.format("replay-%s-%s.json",
+            label, LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))));
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+
+        logger.info("📊 REPLAY {} done in {} ms, report {}", label, wallMs, reportFile);
+        replayed.entrySet().stream().sorted(Map.Entry.comparingByKey())
+            .forEach(e -> logger.info("📊 {}", e.getValue()));
+        if (!baseline.isBlank()) {
+            compare(objectMapper.readTree(Path.of(baseline).toFile()), objectMapper.valueToTree(report));
+        }
+    }
+
+    private HttpRequest buildRequest(JsonNode record) {
+        String query = record.path("query").isTextual() ? "?" + record.path("query").asText() : "";
+        String body = record.path("body").asText("");
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target + record.path("path").asText() + query))
+            .timeout(Duration.ofSeconds(60))
+            .method(record.path("method").asText(),
+                body.isEmpty() ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+            .header(CaptureContext.HEADER, record.path("captureId").asText());
+        record.path("headers").fields().forEachRemaining(h -> builder.header(h.getKey(), h.getValue().asText()));
+        return builder.build();
+    }
+
+    private void compare(JsonNode before, JsonNode after) {
+        logger.info("📊 REPLAY COMPARISON {} → {}", before.path("label").asText(), after.path("label").asText());
+        after.path("endpoints").fields().forEachRemaining(entry -> {
+            JsonNode previous = before.path("endpoints").path(entry.getKey()).path("replay");
+            JsonNode current = entry.getValue().path("replay");
+            if (previous.isMissingNode()) return;
+            logger.info("📊 {} p50 {} → {} ms ({}), p99 {} → {} ms ({})", String.format("%-40s", entry.getKey()),
+                fmt(previous.path("p50Ms")), fmt(current.path("p50Ms")), delta(previous.path("p50Ms"), current.path("p50Ms")),
+                fmt(previous.path("p99Ms")), fmt(current.path("p99Ms")), delta(previous.path("p99Ms"), current.path("p99Ms")));
+        });
+    }
+
+    private static String fmt(JsonNode value) {
+        return String.format("%.1f", value.asDouble());
+    }
+
+    private static String delta(JsonNode before, JsonNode after) {
+        double b = before.asDouble();
+        return b == 0 ? "n/a" : String.format("%+.1f%%", (after.asDouble() - b) / b * 100);
+    }
+
+    // /customers/abc-123 → /customers/{id}
+    static String normalizePath(String path) {
+        StringJoiner normalized = new StringJoiner("/");
+        for (String segment : path.split("/", -1)) {
+            boolean id = segment.length() >= 8 && segment.chars().anyMatch(Character::isDigit);
+            normalized.add(id ? "{id}" : segment);
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.smartwomen.bench;
+
+import com.smartwomen.config.AgentExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Requests concurrentes en vuelo y memoria por request: hilos de plataforma
+ * (pool del tamaño de Tomcat) contra un hilo virtual por request.
+ *
+ * Cada request simula el camino de un agente sin Azure real: un lookup corto
+ * bajo lock (como la cache semántica), una llamada bloqueante de task-ms y un
+ * fan-out de {@code fanout} llamadas paralelas por el executor de agentes.
+ * Se lanzan todos los requests de golpe y se muestrea el pico en vuelo, la
+ * memoria (heap + RSS) y los hilos vivos. El modo virtual requiere Java 21+
+ * (mvn -Pjava21); en 17 solo corre el modo plataforma.
+ *
+ *   --smartwomen.bench.scenario=virtual-threads --smartwomen.bench.requests=10000
+ *   --smartwomen.bench.task-ms=200 --smartwomen.bench.platform-threads=200
+ *   --smartwomen.bench.agent-threads=400
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "virtual-threads")
+public class VirtualThreadBenchmark implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadBenchmark.class);
+
+    @Value("${smartwomen.bench.requests:10000}")
+    private int requests;
+
+    // Latencia simulada de la llamada a Azure
+    @Value("${smartwomen.bench.task-ms:200}")
+    private long taskMs;
+
+    // Llamadas paralelas por request (p. ej. lotes de Text Analytics)
+    @Value("${smartwomen.bench.fanout:2}")
+    private int fanout;
+
+    // server.tomcat.threads.max por defecto
+    @Value("${smartwomen.bench.platform-threads:200}")
+    private int platformThreads;
+
+    // Pool del fan-out en modo plataforma; 0 = platform-threads × fanout (cada request
+    // en vuelo tiene hilos para sus llamadas: se mide el hilo, no un cuello de botella del pool)
+    @Value("${smartwomen.bench.agent-threads:0}")
+    private int agentThreads;
+
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private long lookups;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (agentThreads <= 0) {
+            agentThreads = Math.max(1, platformThreads * fanout);
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(runMode("platform").toString());
+        if (AgentExecutors.virtualThreadsSupported()) {
+            lines.add(runMode("virtual").toString());
+        } else {
+            logger.warn("⚠️ Java {}: virtual mode skipped (build with -Pjava21)", Runtime.version().feature());
+        }
+        logger.info("📊 VIRTUAL THREAD BENCHMARK requests={} taskMs={} fanout={} platformThreads={} agentThreads={}",
+            requests, taskMs, fanout, platformThreads, agentThreads);
+        lines.forEach(line -> logger.info("📊 {}", line));
+    }
+
+    private Result runMode(String mode) throws InterruptedException {
+        boolean virtual = "virtual".equals(mode);
+        ExecutorService requestPool = virtual
+            ? AgentExecutors.newVirtualExecutor("bench-request")
+            : Executors.newFixedThreadPool(platformThreads, AgentExecutors.daemonFactory("bench-request"));
+        ExecutorService agentPool = virtual
+            ? AgentExecutors.newVirtualExecutor("bench-agent")
+            : Executors.newFixedThreadPool(agentThreads, AgentExecutors.daemonFactory("bench-agent"));
+
+        System.gc();
+        Thread.sleep(200);
+        long heapBefore = heapUsed();
+        long rssBefore = rss();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        LatencyRecorder latency = new LatencyRecorder(mode);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        long began = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            requestPool.execute(() -> {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    latency.time(() -> handle(agentPool));
+                } finally {
+                    inFlight.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        // Muestreo de memoria mientras hay requests en vuelo
+        long peakHeap = 0;
+        long peakRss = 0;
+        int peakThreads = 0;
+        int peakSampledInFlight = 0;
+        while (!done.await(20, TimeUnit.MILLISECONDS)) {
+            int current = inFlight.get();
+            if (current >= peakSampledInFlight) {
+                peakSampledInFlight = current;
+                peakHeap = Math.max(peakHeap, heapUsed() - heapBefore);
+                peakRss = Math.max(peakRss, rss() - rssBefore);
+                peakThreads = Math.max(peakThreads, ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore);
+            }
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        requestPool.shutdown();
+        agentPool.shutdown();
+        requestPool.awaitTermination(1, TimeUnit.MINUTES);
+        agentPool.awaitTermination(1, TimeUnit.MINUTES);
+
+        return new Result(latency, requests / seconds, peakInFlight.get(), peakSampledInFlight,
+            peakHeap, peakRss, peakThreads);
+    }
+
+    // Un request de agente: lookup bajo lock, llamada a Azure y fan-out
+    private Boolean handle(ExecutorService agentPool) {
+        indexLock.lock();
+        try {
+            lookups++;
+        } finally {
+            indexLock.unlock();
+        }
+        sleep(taskMs);
+        List<Future<?>> calls = new ArrayList<>(fanout);
+        for (int i = 0; i < fanout; i++) {
+            calls.add(agentPool.submit(() -> sleep(taskMs)));
+        }
+        for (Future<?> call : calls) {
+            try {
+                call.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.debug("Simulated call failed: {}", e.getMessage());
+            }
+        }
+        return Boolean.TRUE;
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // RSS del proceso (incluye stacks nativos de los hilos de plataforma); 0 fuera de Linux
+    private static long rss() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("RSS not available: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Result {
+        final LatencyRecorder latency;
+        final double requestsPerSecond;
+        final int peakInFlight;
+        final int sampledInFlight;
+        final long heapBytes;
+        final long rssBytes;
+        final int threads;
+
+        Result(LatencyRecorder latency, double requestsPerSecond, int peakInFlight, int sampledInFlight,
+               long heapBytes, long rssBytes, int threads) {
+            this.latency = latency;
+            this.requestsPerSecond = requestsPerSecond;
+            this.peakInFlight = peakInFlight;
+            this.sampledInFlight = sampledInFlight;
+            this.heapBytes = heapBytes;
+            this.rssBytes = rssBytes;
+            this.threads = threads;
+        }
+
+        @Override
+        public String toString() {
+            int perRequest = Math.max(1, sampledInFlight);
+            return String.format("%s req/s=%.0f peakInFlight=%d platformThreads+=%d heap/req=%.1fKB rss/req=%.1fKB",
+                latency, requestsPerSecond, peakInFlight, threads,
+                heapBytes / 1024.0 / perRequest, rssBytes / 1024.0 / perRequest);
+        }
+    }
+}
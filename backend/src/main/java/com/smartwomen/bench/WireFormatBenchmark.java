@@ -0,0 +1,134 @@
+package com.smartwomen.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.smartwomen.api.ResponseModes;
+import com.smartwomen.models.AgentResponse;
+import com.smartwomen.models.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tamaño y tiempo de serialización por formato (JSON, JSON compacto, CBOR,
+ * Smile; con y sin gzip) para respuestas de agentes y listados de clientes.
+ *
+ *   --smartwomen.bench.scenario=wire-format
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.bench.scenario", havingValue = "wire-format")
+public class WireFormatBenchmark implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> mapperBuilder;
+
+    @Value("${smartwomen.bench.operations:2000}")
+    private int operations;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ObjectMapper cbor = mapperBuilder.getObject().factory(new CBORFactory()).build();
+        ObjectMapper smile = mapperBuilder.getObject().factory(new SmileFactory()).build();
+
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) customers.add(sampleCustomer(i));
+        List<Customer> compactCustomers = customers.stream().map(Customer::toCompact).toList();
+        AgentResponse agent = sampleSentiment();
+        AgentResponse compactAgent = ResponseModes.compact(agent, objectMapper);
+
+        logger.info("📊 WIRE FORMAT BENCHMARK operations={}", operations);
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("agentResponse", agent);
+        payloads.put("agentResponse (compact)", compactAgent);
+        payloads.put("customers[200]", customers);
+        payloads.put("customers[200] (compact)", compactCustomers);
+
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", objectMapper);
+        formats.put("cbor", cbor);
+        formats.put("smile", smile);
+        for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                report(payload.getKey(), format.getKey(), format.getValue(), payload.getValue());
+            }
+        }
+    }
+
+    private void report(String payloadName, String format, ObjectMapper mapper, Object payload) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(payload);
+        LatencyRecorder recorder = new LatencyRecorder(payloadName + " " + format);
+        for (int i = 0; i < operations; i++) {
+            recorder.time(() -> {
+                try {
+                    return mapper.writeValueAsBytes(payload);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        logger.info("📊 {} bytes={} gzip={}", recorder, bytes.length, gzipSize(bytes));
+    }
+
+    private static int gzipSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+
+    private AgentResponse sampleSentiment() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sentiment", "negative");
+        result.put("confidence", 0.93);
+        result.put("primaryEmotion", "anger");
+        result.put("requiresEscalation", true);
+        Map<String, Object> metadata = new LinkedHashMap<>(result);
+        metadata.put("azureSentiment", "negative");
+        metadata.put("azureConfidence", Map.of("positive", 0.02, "neutral", 0.05, "negative", 0.93));
+        metadata.put("culturalContext", "Análisis adaptado para contexto LATAM");
+        metadata.put("sentimentPath", "azure");
+        return AgentResponse.builder()
+            .agentType("SentimentAnalyzer")
+            .content(objectMapper.writeValueAsString(result))
+            .metadata(metadata)
+            .success(true)
+            .processingTime(412)
+            .confidence("0.93")
+            .build();
+    }
+
+    private Customer sampleCustomer(int i) throws IOException {
+        Customer customer = new Customer();
+        customer.setCustomerId("bench-" + i);
+        customer.setId(customer.getCustomerId());
+        customer.setName("Cliente " + i);
+        customer.setEmail("cliente" + i + "@smartwomen.local");
+        customer.setCountry(i % 2 == 0 ? "Mexico" : "Colombia");
+        customer.setIndustry("Retail");
+        customer.setBusinessSize("small");
+        customer.setLastMessage("No estoy contenta, el pedido llegó tarde y nadie responde");
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("SentimentAnalyzer", objectMapper.convertValue(sampleSentiment(), Map.class));
+        customer.setLastAgentResults(results);
+        return customer;
+    }
+}
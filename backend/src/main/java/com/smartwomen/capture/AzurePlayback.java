@@ -0,0 +1,165 @@
+package com.smartwomen.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Respuestas de Azure grabadas, servidas en lugar de los servicios reales
+ * durante un replay (smartwomen.capture.mode=replay).
+ *
+ * Búsqueda: mismo request entrante (X-Capture-Id) + mismo body; luego mismo
+ * body en cualquier request; luego la siguiente respuesta del mismo request;
+ * por último cualquiera del servicio (round-robin). Cada nivel se cuenta.
+ */
+@Component
+public class AzurePlayback {
+
+    private static final Logger logger = LoggerFactory.getLogger(AzurePlayback.class);
+
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${smartwomen.capture.path:./data/capture}")
+    private String capturePath;
+
+    // Esperar la latencia grabada antes de responder (carga realista)
+    @Value("${smartwomen.capture.replay.simulate-latency:true}")
+    private boolean simulateLatency;
+
+    private final Map<String, List<Recorded>> byCaptureAndHash = new HashMap<>();
+    private final Map<String, List<Recorded>> byHash = new HashMap<>();
+    private final Map<String, List<Recorded>> byCapture = new HashMap<>();
+    private final Map<String, List<Recorded>> byService = new HashMap<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> matches = new ConcurrentHashMap<>();
+    private Redactor redactor;
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!trafficRecorder.isReplaying()) {
+            return;
+        }
+        Path session = CaptureReader.resolveSession(Path.of(capturePath));
+        redactor = trafficRecorder.sessionRedactor(session, false);
+        CaptureReader.forEach(session, objectMapper, record -> {
+            if (!"azure".equals(record.path("type").asText())) return;
+            Recorded recorded = new Recorded(record);
+            String captureId = record.path("captureId").asText("");
+            String hash = record.path("requestHash").asText("");
+            index(byCaptureAndHash, recorded.service + "|" + captureId + "|" + hash, recorded);
+            index(byHash, recorded.service + "|" + hash, recorded);
+            index(byCapture, recorded.service + "|" + captureId, recorded);
+            index(byService, recorded.service, recorded);
+        });
+        logger.info("▶️ Azure playback loaded from {}: {} (redaction key: {})", session,
+            byService.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue().size()).toList(),
+            redactor != null ? "yes" : "no, redacted bodies only match by capture/service");
+    }
+
+    public boolean isActive() {
+        return trafficRecorder.isReplaying();
+    }
+
+    /**
+     * Respuesta grabada para la llamada; null si el servicio no tiene ninguna.
+     */
+    Recorded find(String service, byte[] requestBody) {
+        String captureId = Optional.ofNullable(CaptureContext.current()).orElse("");
+        List<String> hashes = candidateHashes(requestBody);
+
+        Recorded recorded = null;
+        for (String hash : hashes) {
+            recorded = next("exact", byCaptureAndHash, service + "|" + captureId + "|" + hash);
+            if (recorded != null) break;
+        }
+        if (recorded == null) {
+            for (String hash : hashes) {
+                recorded = next("body", byHash, service + "|" + hash);
+                if (recorded != null) break;
+            }
+        }
+        if (recorded == null) recorded = next("capture", byCapture, service + "|" + captureId);
+        if (recorded == null) recorded = next("service", byService, service);
+        if (recorded == null) {
+            matches.computeIfAbsent("miss", k -> new LongAdder()).increment();
+            return null;
+        }
+        if (simulateLatency && recorded.latencyMs > 0) {
+            try {
+                Thread.sleep((long) recorded.latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return recorded;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", isActive());
+        byService.forEach((service, list) -> stats.put("recorded." + service, list.size()));
+        matches.forEach((level, count) -> stats.put("match." + level, count.sum()));
+        return stats;
+    }
+
+    // Hash plano y redactado: sirve para capturas con y sin redacción
+    private List<String> candidateHashes(byte[] requestBody) {
+        if (requestBody == null || requestBody.length == 0) {
+            return List.of("");
+        }
+        String text = new String(requestBody, StandardCharsets.UTF_8);
+        String plain = Redactor.sha256(text);
+        if (redactor == null) {
+            return List.of(plain);
+        }
+        String redacted = Redactor.sha256(redactor.redactText(text));
+        return plain.equals(redacted) ? List.of(plain) : List.of(plain, redacted);
+    }
+
+    private Recorded next(String level, Map<String, List<Recorded>> index, String key) {
+        List<Recorded> candidates = index.get(key);
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        int position = cursors.computeIfAbsent(level + "|" + key, k -> new AtomicInteger()).getAndIncrement();
+        matches.computeIfAbsent(level, k -> new LongAdder()).increment();
+        return candidates.get(Math.floorMod(position, candidates.size()));
+    }
+
+    private static void index(Map<String, List<Recorded>> index, String key, Recorded recorded) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(recorded);
+    }
+
+    static final class Recorded {
+        final String service;
+        final int status;
+        final String contentType;
+        final byte[] body;
+        final double latencyMs;
+
+        Recorded(JsonNode record) {
+            this.service = record.path("service").asText();
+            this.status = record.path("status").asInt(200);
+            this.contentType = record.path("contentType").asText("application/json");
+            this.body = record.path("body").asText("").getBytes(StandardCharsets.UTF_8);
+            this.latencyMs = record.path("latencyMs").asDouble(0);
+        }
+    }
+}
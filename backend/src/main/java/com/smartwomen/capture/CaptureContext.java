@@ -0,0 +1,48 @@
+package com.smartwomen.capture;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Id de captura del request en curso (ThreadLocal), para correlacionar las
+ * llamadas a Azure con el request entrante que las originó.
+ */
+public final class CaptureContext {
+
+    public static final String HEADER = "X-Capture-Id";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CaptureContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    static void set(String captureId) {
+        CURRENT.set(captureId);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Propaga el id de captura a tareas que corren en otro hilo.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String captureId = CURRENT.get();
+        if (captureId == null) {
+            return task;
+        }
+        return () -> {
+            String previous = CURRENT.get();
+            CURRENT.set(captureId);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) CURRENT.remove(); else CURRENT.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package com.smartwomen.capture;
+
+import com.azure.core.client.traits.HttpTrait;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpPipelineNextSyncPolicy;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Enganche de captura/replay en los clientes Azure SDK (OpenAI, Content Safety).
+ *
+ * record: una policy del pipeline graba cada respuesta.
+ * replay: el transporte HTTP se reemplaza por uno que responde con lo grabado.
+ */
+@Component
+public class CaptureHttpSupport {
+
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+
+    @Autowired
+    private AzurePlayback azurePlayback;
+
+    /**
+     * Aplica el modo de captura al builder del cliente (sin efecto en modo off).
+     */
+    public <T extends HttpTrait<T>> T apply(T builder, String service) {
+        if (trafficRecorder.isReplaying()) {
+            return builder.httpClient(new PlaybackHttpClient(service));
+        }
+        if (trafficRecorder.isRecording()) {
+            return builder.addPolicy(new RecordingPolicy(service));
+        }
+        return builder;
+    }
+
+    private static byte[] requestBody(HttpRequest request) {
+        BinaryData body = request.getBodyAsBinaryData();
+        return body == null ? null : body.toBytes();
+    }
+
+    private final class RecordingPolicy implements HttpPipelinePolicy {
+
+        private final String service;
+
+        RecordingPolicy(String service) {
+            this.service = service;
+        }
+
+        @Override
+        public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+            long start = System.nanoTime();
+            String captureId = CaptureContext.current();
+            return next.process()
+                .map(HttpResponse::buffer)
+                .flatMap(response -> response.getBodyAsByteArray()
+                    .defaultIfEmpty(new byte[0])
+                    .map(body -> {
+                        String previous = CaptureContext.current();
+                        CaptureContext.set(captureId);
+                        try {
+                            record(context.getHttpRequest(), response, body, System.nanoTime() - start);
+                        } finally {
+                            if (previous == null) CaptureContext.clear(); else CaptureContext.set(previous);
+                        }
+                        return response;
+                    }));
+        }
+
+        @Override
+        public HttpResponse processSync(HttpPipelineCallContext context, HttpPipelineNextSyncPolicy next) {
+            long start = System.nanoTime();
+            HttpResponse response = next.processSync().buffer();
+            BinaryData body = response.getBodyAsBinaryData();
+            record(context.getHttpRequest(), response, body == null ? new byte[0] : body.toBytes(), System.nanoTime() - start);
+            return response;
+        }
+
+        private void record(HttpRequest request, HttpResponse response, byte[] body, long latencyNanos) {
+            trafficRecorder.recordAzure(service, request.getHttpMethod().name(), request.getUrl().getPath(),
+                requestBody(request), response.getStatusCode(),
+                response.getHeaderValue(HttpHeaderName.CONTENT_TYPE), body, latencyNanos);
+        }
+    }
+
+    private final class PlaybackHttpClient implements HttpClient {
+
+        private final String service;
+
+        PlaybackHttpClient(String service) {
+            this.service = service;
+        }
+
+        @Override
+        public Mono<HttpResponse> send(HttpRequest request) {
+            return Mono.fromCallable(() -> sendSync(request, Context.NONE));
+        }
+
+        @Override
+        public HttpResponse sendSync(HttpRequest request, Context context) {
+            AzurePlayback.Recorded recorded = azurePlayback.find(service, requestBody(request));
+            if (recorded == null) {
+                return new RecordedHttpResponse(request, 503, "application/json",
+                    ("{\"error\":{\"code\":\"NoRecording\",\"message\":\"No recorded response for " + service + "\"}}")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return new RecordedHttpResponse(request, recorded.status, recorded.contentType, recorded.body);
+        }
+    }
+
+    private static final class RecordedHttpResponse extends HttpResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        RecordedHttpResponse(HttpRequest request, int status, String contentType, byte[] body) {
+            super(request);
+            this.status = status;
+            this.headers = new HttpHeaders()
+                .set(HttpHeaderName.CONTENT_TYPE, contentType)
+                .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(body.length));
+            this.body = body;
+        }
+
+        @Override
+        public int getStatusCode() { return status; }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public String getHeaderValue(String name) { return headers.getValue(name); }
+
+        @Override
+        public HttpHeaders getHeaders() { return headers; }
+
+        @Override
+        public Flux<ByteBuffer> getBody() { return Flux.just(ByteBuffer.wrap(body)); }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() { return Mono.just(body); }
+
+        @Override
+        public Mono<String> getBodyAsString() { return Mono.just(new String(body, StandardCharsets.UTF_8)); }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) { return Mono.just(new String(body, charset)); }
+
+        @Override
+        public BinaryData getBodyAsBinaryData() { return BinaryData.fromBytes(body); }
+    }
+}
@@ -0,0 +1,77 @@
+package com.smartwomen.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Lectura de capturas: cada sesión de grabación es un directorio con sus segmentos.
+ */
+public final class CaptureReader {
+
+    private CaptureReader() {
+    }
+
+    /**
+     * Si path contiene segmentos es una sesión; si no, la sesión más reciente dentro de path.
+     */
+    public static Path resolveSession(Path path) throws IOException {
+        if (hasSegments(path)) {
+            return path;
+        }
+        try (Stream<Path> children = Files.list(path)) {
+            Optional<Path> latest = children.filter(Files::isDirectory)
+                .filter(CaptureReader::hasSegments)
+                .max(Comparator.comparing(p -> p.getFileName().toString()));
+            return latest.orElseThrow(() -> new IOException("No capture sessions in " + path));
+        }
+    }
+
+    /**
+     * Recorre los registros de la sesión en orden de escritura.
+     */
+    public static void forEach(Path session, ObjectMapper objectMapper, Consumer<JsonNode> consumer) throws IOException {
+        for (Path segment : segments(session)) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        consumer.accept(objectMapper.readTree(line));
+                    } catch (IOException e) {
+                        // Última línea incompleta de un segmento cortado: se ignora
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Path> segments(Path session) throws IOException {
+        try (Stream<Path> files = Files.list(session)) {
+            List<Path> segments = new ArrayList<>(files
+                .filter(p -> p.getFileName().toString().matches("segment-\\d+\\.ndjson"))
+                .toList());
+            segments.sort(Comparator.comparing(p -> p.getFileName().toString()));
+            return segments;
+        }
+    }
+
+    private static boolean hasSegments(Path path) {
+        try {
+            return Files.isDirectory(path) && !segments(path).isEmpty();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartwomen.capture;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Captura/replay para los RestTemplate que llaman a Azure (Text Analytics REST)
+ */
+public class CaptureRestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String service;
+    private final TrafficRecorder trafficRecorder;
+    private final AzurePlayback azurePlayback;
+
+    public CaptureRestInterceptor(String service, TrafficRecorder trafficRecorder, AzurePlayback azurePlayback) {
+        this.service = service;
+        this.trafficRecorder = trafficRecorder;
+        this.azurePlayback = azurePlayback;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (trafficRecorder.isReplaying()) {
+            AzurePlayback.Recorded recorded = azurePlayback.find(service, body);
+            if (recorded == null) {
+                return new BufferedResponse(503, MediaType.APPLICATION_JSON_VALUE,
+                    ("{\"error\":{\"code\":\"NoRecording\",\"message\":\"No recorded response for " + service + "\"}}")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return new BufferedResponse(recorded.status, recorded.contentType, recorded.body);
+        }
+        if (!trafficRecorder.isRecording()) {
+            return execution.execute(request, body);
+        }
+
+        long start = System.nanoTime();
+        BufferedResponse response;
+        try (ClientHttpResponse real = execution.execute(request, body)) {
+            MediaType contentType = real.getHeaders().getContentType();
+            response = new BufferedResponse(real.getStatusCode().value(),
+                contentType == null ? null : contentType.toString(), real.getBody().readAllBytes());
+        }
+        trafficRecorder.recordAzure(service, request.getMethod().name(), request.getURI().getPath(), body,
+            response.status, response.contentType, response.body, System.nanoTime() - start);
+        return response;
+    }
+
+    private static final class BufferedResponse implements ClientHttpResponse {
+
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        BufferedResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() { return HttpStatusCode.valueOf(status); }
+
+        @Override
+        public String getStatusText() { return String.valueOf(status); }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (contentType != null) headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+            headers.setContentLength(body.length);
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() { return new ByteArrayInputStream(body); }
+
+        @Override
+        public void close() { }
+    }
+}
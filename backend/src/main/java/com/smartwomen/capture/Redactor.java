@@ -0,0 +1,139 @@
+package com.smartwomen.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Redacción determinista e idempotente de texto para capturas.
+ *
+ * Cada palabra o serie de dígitos (teléfonos, documentos, importes) se
+ * reemplaza por "#" + 8 dígitos derivados de un HMAC-SHA256 con la clave de
+ * la captura: la misma palabra produce el mismo token dentro de la captura,
+ * pero sin la clave no se puede confirmar un nombre o un teléfono por
+ * diccionario, y los tokens de dos capturas no se pueden cruzar. Los tokens
+ * ya presentes se dejan tal cual, así redactar un texto ya redactado no lo
+ * cambia y las llamadas a Azure de un replay (con texto redactado) encuentran
+ * las grabadas.
+ */
+final class Redactor {
+
+    private static final Pattern TOKEN_OR_WORD = Pattern.compile("(#\\d{8})(?!\\d)|\\p{L}[\\p{L}\\p{M}]*|\\p{N}+");
+    private static final int KEY_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    Redactor(byte[] secret) {
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    static byte[] newSecret() {
+        byte[] secret = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    String redactText(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        Matcher matcher = TOKEN_OR_WORD.matcher(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (matcher.find()) {
+            String replacement = matcher.group(1) != null ? matcher.group() : token(matcher.group());
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private String token(String word) {
+        byte[] digest = mac.get().doFinal(word.getBytes(StandardCharsets.UTF_8));
+        long value = ByteBuffer.wrap(digest).getLong() & Long.MAX_VALUE;
+        return String.format("#%08d", value % 100_000_000);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance("HmacSHA256");
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Redacta solo los valores string de los campos indicados (a cualquier
+     * nivel), también si el campo es una lista de strings (keyPhrases).
+     * Si el body no es JSON se redacta completo.
+     */
+    String redactJsonFields(String body, Set<String> fields, ObjectMapper objectMapper) {
+        if (body == null || body.isBlank()) {
+            return body;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(body);
+            redactNode(root, fields);
+            return objectMapper.writeValueAsString(root);
+        } catch (Exception e) {
+            return redactText(body);
+        }
+    }
+
+    private void redactNode(JsonNode node, Set<String> fields) {
+        if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> it = object.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                if (value.isTextual() && fields.contains(field.getKey())) {
+                    field.setValue(TextNode.valueOf(redactText(value.asText())));
+                } else if (value instanceof ArrayNode array && fields.contains(field.getKey())) {
+                    for (int i = 0; i < array.size(); i++) {
+                        if (array.get(i).isTextual()) {
+                            array.set(i, TextNode.valueOf(redactText(array.get(i).asText())));
+                        } else {
+                            redactNode(array.get(i), fields);
+                        }
+                    }
+                } else {
+                    redactNode(field.getValue(), fields);
+                }
+            }
+        } else if (node != null && node.isArray()) {
+            node.forEach(child -> redactNode(child, fields));
+        }
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
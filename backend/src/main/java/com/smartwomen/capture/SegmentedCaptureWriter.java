@@ -0,0 +1,109 @@
+package com.smartwomen.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log append-only segmentado (segment-00001.ndjson, segment-00002.ndjson...).
+ *
+ * Una línea JSON por registro. La escritura la hace un hilo propio desde una
+ * cola acotada: el request nunca espera al disco y, si la cola se llena, el
+ * registro se descarta y se cuenta.
+ */
+class SegmentedCaptureWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedCaptureWriter.class);
+    private static final String POISON = "";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final BlockingQueue<String> queue;
+    private final Thread writerThread;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private OutputStream out;
+    private int segment;
+    private long segmentBytes;
+
+    SegmentedCaptureWriter(Path directory, long maxSegmentBytes, int queueCapacity) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        openNextSegment();
+        this.writerThread = new Thread(this::drain, "capture-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    void append(String jsonLine) {
+        if (!queue.offer(jsonLine)) {
+            dropped.increment();
+        }
+    }
+
+    long getWritten() { return written.sum(); }
+    long getDropped() { return dropped.sum(); }
+    int getSegment() { return segment; }
+    Path getDirectory() { return directory; }
+
+    private void drain() {
+        try {
+            while (true) {
+                String line = queue.poll(1, TimeUnit.SECONDS);
+                if (line == null) {
+                    out.flush();
+                    continue;
+                }
+                if (line == POISON) {
+                    break;
+                }
+                byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+                if (segmentBytes > 0 && segmentBytes + bytes.length > maxSegmentBytes) {
+                    openNextSegment();
+                }
+                out.write(bytes);
+                segmentBytes += bytes.length;
+                written.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("❌ Capture writer failed, capture stopped: {}", e.getMessage());
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        segment++;
+        segmentBytes = 0;
+        Path file = directory.resolve(String.format("segment-%05d.ndjson", segment));
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), 64 * 1024);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            queue.put(POISON);
+            writerThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+}
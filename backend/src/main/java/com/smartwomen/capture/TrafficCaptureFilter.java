@@ -0,0 +1,88 @@
+package com.smartwomen.capture;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Graba los requests a /agents y /customers (modo record) y, en modo
+ * replay, toma el X-Capture-Id enviado por el replayer para que las llamadas
+ * a Azure se sirvan con las respuestas grabadas de ese mismo request.
+ */
+@Component
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private static final List<String> CAPTURED_PREFIXES = List.of("/agents", "/customers");
+    // Respuestas en streaming: el wrapper las bufferizaría completas en memoria
+    private static final List<String> EXCLUDED_PREFIXES = List.of("/customers/export");
+    private static final List<String> CAPTURED_HEADERS = List.of(
+        "Content-Type", "Accept", "X-Priority", "X-Session-Id", "X-Customer-Id", "X-Response-Mode");
+
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!trafficRecorder.isRecording() && !trafficRecorder.isReplaying()) {
+            return true;
+        }
+        String path = path(request);
+        return CAPTURED_PREFIXES.stream().noneMatch(path::startsWith)
+            || EXCLUDED_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (trafficRecorder.isReplaying()) {
+            CaptureContext.set(request.getHeader(CaptureContext.HEADER));
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                CaptureContext.clear();
+            }
+            return;
+        }
+
+        String captureId = UUID.randomUUID().toString();
+        int maxBody = trafficRecorder.getMaxBodyBytes();
+        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, maxBody);
+        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        CaptureContext.set(captureId);
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(wrappedRequest, wrappedResponse);
+        } finally {
+            long latency = System.nanoTime() - start;
+            CaptureContext.clear();
+            byte[] body = wrappedRequest.getContentAsByteArray();
+            boolean truncated = request.getContentLengthLong() > body.length
+                || (request.getContentLengthLong() < 0 && body.length >= maxBody);
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String header : CAPTURED_HEADERS) {
+                String value = request.getHeader(header);
+                if (value != null) headers.put(header, value);
+            }
+            trafficRecorder.recordInbound(captureId, request.getMethod(), path(request), request.getQueryString(),
+                headers, body, truncated,
+                wrappedResponse.getStatus(), latency, wrappedResponse.getContentSize());
+            wrappedResponse.copyBodyToResponse();
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
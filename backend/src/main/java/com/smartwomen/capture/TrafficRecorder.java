@@ -0,0 +1,257 @@
+package com.smartwomen.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Captura de tráfico: requests entrantes (/agents, /customers) y respuestas
+ * de Azure, en un log segmentado por sesión de grabación.
+ *
+ * smartwomen.capture.mode=record activa la grabación; replay sirve las
+ * respuestas de Azure grabadas (ver {@link AzurePlayback}).
+ */
+@Component
+public class TrafficRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficRecorder.class);
+    private static final String CUSTOMERS_PREFIX = "/customers/";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${smartwomen.capture.mode:off}")
+    private String mode;
+
+    @Value("${smartwomen.capture.path:./data/capture}")
+    private String capturePath;
+
+    @Value("${smartwomen.capture.max-segment-mb:64}")
+    private long maxSegmentMb;
+
+    @Value("${smartwomen.capture.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${smartwomen.capture.redact:false}")
+    private boolean redact;
+
+    // Nombres de campo a cualquier nivel, en requests entrantes y respuestas de Azure:
+    // text cubre translations[].text y las oraciones/entidades de Text Analytics,
+    // content cubre choices[].message.content de OpenAI
+    @Value("${smartwomen.capture.redact-fields:content,text,lastMessage,name,email,keyPhrases,arguments}")
+    private Set<String> redactFields;
+
+    // Con redacción: segmentos tras /customers/ (ids, emails) salvo estas rutas fijas,
+    // y valores del query string salvo estos parámetros (los necesita el replay)
+    @Value("${smartwomen.capture.redact-path-keep:page,search,stats,similar,writes,import,export,cache}")
+    private Set<String> redactPathKeep;
+
+    @Value("${smartwomen.capture.redact-query-keep:page,size,limit,format}")
+    private Set<String> redactQueryKeep;
+
+    // Clave HMAC de la redacción: una por sesión, fuera del directorio de capturas
+    // (compartir la captura no entrega la clave); redact-secret (hex) la fija a mano
+    @Value("${smartwomen.capture.redact-key-path:./data/capture-keys}")
+    private String redactKeyPath;
+
+    @Value("${smartwomen.capture.redact-secret:}")
+    private String redactSecret;
+
+    @Value("${smartwomen.capture.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    private SegmentedCaptureWriter writer;
+    private Redactor redactor;
+    private long startNanos;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!isRecording()) {
+            return;
+        }
+        Path session = Path.of(capturePath, LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        if (redact) {
+            redactor = sessionRedactor(session, true);
+        }
+        writer = new SegmentedCaptureWriter(session, maxSegmentMb * 1024 * 1024, queueCapacity);
+        startNanos = System.nanoTime();
+        logger.info("🎙️ Traffic capture recording to {} (redact={})", session, redact);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            logger.info("🎙️ Traffic capture closed: {} records, {} dropped", writer.getWritten(), writer.getDropped());
+        }
+    }
+
+    public boolean isRecording() {
+        return "record".equalsIgnoreCase(mode);
+    }
+
+    public boolean isReplaying() {
+        return "replay".equalsIgnoreCase(mode);
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    void recordInbound(String captureId, String method, String path, String query, Map<String, String> headers,
+                       byte[] body, boolean bodyTruncated, int status, long latencyNanos, int responseBytes) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("type", "inbound");
+        record.put("captureId", captureId);
+        record.put("ts", System.currentTimeMillis());
+        record.put("offsetMs", (System.nanoTime() - latencyNanos - startNanos) / 1_000_000.0);
+        record.put("method", method);
+        record.put("path", redactPath(path));
+        record.put("query", redactQuery(query));
+        record.set("headers", objectMapper.valueToTree(headers));
+        String text = new String(body, StandardCharsets.UTF_8);
+        record.put("body", redactor != null ? redactor.redactJsonFields(text, redactFields, objectMapper) : text);
+        record.put("bodyTruncated", bodyTruncated);
+        record.put("status", status);
+        record.put("latencyMs", latencyNanos / 1_000_000.0);
+        record.put("responseBytes", responseBytes);
+        append(record);
+    }
+
+    void recordAzure(String service, String method, String path, byte[] requestBody, int status,
+                     String contentType, byte[] responseBody, long latencyNanos) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("type", "azure");
+        record.put("captureId", CaptureContext.current());
+        record.put("ts", System.currentTimeMillis());
+        record.put("service", service);
+        record.put("method", method);
+        record.put("path", path);
+        record.put("requestHash", requestHash(requestBody));
+        record.put("requestBytes", requestBody == null ? 0 : requestBody.length);
+        record.put("status", status);
+        record.put("contentType", contentType);
+        String text = responseBody == null ? "" : new String(responseBody, StandardCharsets.UTF_8);
+        record.put("body", redactor != null ? redactor.redactJsonFields(text, redactFields, objectMapper) : text);
+        record.put("latencyMs", latencyNanos / 1_000_000.0);
+        append(record);
+    }
+
+    /**
+     * Hash del body de la llamada a Azure; con redacción se calcula sobre el
+     * texto redactado para que coincida con el de un replay.
+     */
+    String requestHash(byte[] requestBody) {
+        if (requestBody == null || requestBody.length == 0) {
+            return "";
+        }
+        String text = new String(requestBody, StandardCharsets.UTF_8);
+        return Redactor.sha256(redactor != null ? redactor.redactText(text) : text);
+    }
+
+    String redactPath(String path) {
+        if (redactor == null || path == null || !path.startsWith(CUSTOMERS_PREFIX)) {
+            return path;
+        }
+        StringJoiner out = new StringJoiner("/", CUSTOMERS_PREFIX, "");
+        for (String segment : path.substring(CUSTOMERS_PREFIX.length()).split("/", -1)) {
+            boolean keep = segment.isEmpty() || redactPathKeep.contains(segment);
+            out.add(keep ? segment : encode(redactor.redactText(decode(segment))).replace("+", "%20"));
+        }
+        return out.toString();
+    }
+
+    String redactQuery(String query) {
+        if (redactor == null || query == null || query.isEmpty()) {
+            return query;
+        }
+        StringJoiner out = new StringJoiner("&");
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0 || redactQueryKeep.contains(decode(pair.substring(0, eq)))) {
+                out.add(pair);
+            } else {
+                out.add(pair.substring(0, eq + 1) + encode(redactor.redactText(decode(pair.substring(eq + 1)))));
+            }
+        }
+        return out.toString();
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            // Escape mal formado: se redacta tal cual
+            return value;
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Redactor con la clave de la sesión: redact-secret si está configurado,
+     * si no la clave guardada al grabar la sesión (creándola si create).
+     * Null si la sesión no tiene clave (captura sin redacción o clave no disponible).
+     */
+    Redactor sessionRedactor(Path session, boolean create) throws IOException {
+        if (!redactSecret.isBlank()) {
+            return new Redactor(HexFormat.of().parseHex(redactSecret.trim()));
+        }
+        Path keyFile = Path.of(redactKeyPath, session.getFileName() + ".key");
+        if (Files.exists(keyFile)) {
+            return new Redactor(HexFormat.of().parseHex(Files.readString(keyFile).trim()));
+        }
+        if (!create) {
+            return null;
+        }
+        byte[] secret = Redactor.newSecret();
+        Files.createDirectories(keyFile.getParent());
+        Files.writeString(keyFile, HexFormat.of().formatHex(secret));
+        try {
+            Files.setPosixFilePermissions(keyFile, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Sistema de archivos sin permisos POSIX (Windows)
+        }
+        return new Redactor(secret);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        if (writer != null) {
+            stats.put("session", writer.getDirectory().toString());
+            stats.put("segment", writer.getSegment());
+            stats.put("written", writer.getWritten());
+            stats.put("dropped", writer.getDropped());
+        }
+        return stats;
+    }
+
+    private void append(ObjectNode record) {
+        if (writer == null) return;
+        try {
+            writer.append(objectMapper.writeValueAsString(record));
+        } catch (IOException e) {
+            logger.debug("Capture record skipped: {}", e.getMessage());
+        }
+    }
+}
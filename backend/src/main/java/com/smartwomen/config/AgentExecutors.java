@@ -0,0 +1,86 @@
+package com.smartwomen.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fábrica de los executors de fan-out de agentes (batches de Text Analytics,
+ * Translator, especulación).
+ *
+ * Con spring.threads.virtual.enabled=true (perfil "virtual") y Java 21+ cada
+ * tarea corre en su propio hilo virtual: las llamadas bloqueantes a Azure ya
+ * no consumen un hilo de plataforma. Spring Boot aplica el mismo flag a
+ * Tomcat, @Async y @Scheduled. En Java 17 se usan pools fijos como siempre.
+ */
+@Component
+public class AgentExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentExecutors.class);
+
+    private final boolean virtual;
+
+    public AgentExecutors(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested) {
+        boolean supported = virtualThreadsSupported();
+        if (virtualRequested && !supported) {
+            logger.warn("⚠️ Virtual threads requested but running on Java {}: using platform threads",
+                Runtime.version().feature());
+        }
+        this.virtual = virtualRequested && supported;
+        logger.info("🧵 Agent executors: {} threads", virtual ? "virtual" : "platform");
+    }
+
+    /**
+     * Executor para el fan-out de un componente. platformThreads es el tamaño
+     * del pool fijo en modo plataforma; en modo virtual no hay límite de hilos
+     * (la concurrencia la acota el AgentScheduler y las cuotas de Azure).
+     */
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        if (virtual) {
+            return newVirtualExecutor(name);
+        }
+        return Executors.newFixedThreadPool(platformThreads, daemonFactory(name));
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Hilos de plataforma daemon "name-N"
+     */
+    public static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Un hilo virtual "name-N" por tarea. Solo en Java 21+.
+     */
+    public static ExecutorService newVirtualExecutor(String name) {
+        ThreadFactory factory = new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        // Executors.newThreadPerTaskExecutor es Java 21: por reflexión para que el build por defecto siga en 17
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread executor not available", e);
+        }
+    }
+}
@@ -7,14 +7,30 @@ import com.azure.ai.textanalytics.TextAnalyticsClient;
 import com.azure.ai.textanalytics.TextAnalyticsClientBuilder;
 import com.azure.ai.contentsafety.ContentSafetyClient;
 import com.azure.ai.contentsafety.ContentSafetyClientBuilder;
+import com.azure.ai.translation.text.TextTranslationClient;
+import com.azure.ai.translation.text.TextTranslationClientBuilder;
 import com.azure.core.credential.AzureKeyCredential;
+import com.smartwomen.capture.AzurePlayback;
+import com.smartwomen.capture.CaptureHttpSupport;
+import com.smartwomen.capture.CaptureRestInterceptor;
+import com.smartwomen.capture.TrafficRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * Configuración de Azure SDKs para SmartWomen CRM
+ *
+ * Los clientes son @Lazy: se construyen en el primer uso (o en el warm-up),
+ * no durante el arranque. Inyectarlos con ObjectProvider para no forzarlos.
  */
 @Configuration
 public class AzureConfig {
@@ -37,15 +53,35 @@ public class AzureConfig {
     @Value("${spring.azure.cognitive-services.text-analytics.api-key}")
     private String textAnalyticsKey;
     
+    @Value("${azure.translator.endpoint:https://api.cognitive.microsofttranslator.com}")
+    private String translatorEndpoint;
+    
+    @Value("${azure.translator.api-key:}")
+    private String translatorKey;
+    
+    @Value("${azure.translator.region:}")
+    private String translatorRegion;
+    
+    // Captura/replay de tráfico (smartwomen.capture.mode)
+    @Autowired
+    private CaptureHttpSupport captureHttpSupport;
+    
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+    
+    @Autowired
+    private AzurePlayback azurePlayback;
+    
     /**
      * Cliente Azure OpenAI
      */
     @Bean
+    @Lazy
     @Qualifier("openAIClient")
     public OpenAIClient openAIClient() {
-        return new OpenAIClientBuilder()
+        return captureHttpSupport.apply(new OpenAIClientBuilder()
             .endpoint(openAiEndpoint)
-            .credential(new AzureKeyCredential(openAiKey))
+            .credential(new AzureKeyCredential(openAiKey)), "openai")
             .buildClient();
     }
     
@@ -53,12 +89,13 @@ public class AzureConfig {
      * Cliente Text Analytics (Para Sentiment Analysis)
      */
     @Bean
+    @Lazy
     @Qualifier("textAnalyticsClient")
     public TextAnalyticsClient textAnalyticsClient() {
         // Nota: En producción usar la región correcta
-        return new TextAnalyticsClientBuilder()
+        return captureHttpSupport.apply(new TextAnalyticsClientBuilder()
             .credential(new AzureKeyCredential(textAnalyticsKey))
-            .endpoint(textAnalyticsEndpoint) // Usar su propio endpoint
+            .endpoint(textAnalyticsEndpoint), "text-analytics") // Usar su propio endpoint
             .buildClient();
     }
     
@@ -66,13 +103,50 @@ public class AzureConfig {
      * Cliente Content Safety
      */
     @Bean
+    @Lazy
     @Qualifier("contentSafetyClient")
     public ContentSafetyClient contentSafetyClient() {
-        return new ContentSafetyClientBuilder()
+        return captureHttpSupport.apply(new ContentSafetyClientBuilder()
             .endpoint(contentSafetyEndpoint)
-            .credential(new AzureKeyCredential(contentSafetyKey))
+            .credential(new AzureKeyCredential(contentSafetyKey)), "content-safety")
             .buildClient();
     }
     
+    /**
+     * Cliente Azure AI Translator (recurso regional: requiere la región del recurso)
+     */
+    @Bean
+    @Lazy
+    @Qualifier("textTranslationClient")
+    public TextTranslationClient textTranslationClient() {
+        TextTranslationClientBuilder builder = new TextTranslationClientBuilder()
+            .endpoint(translatorEndpoint)
+            .credential(new AzureKeyCredential(translatorKey));
+        if (!translatorRegion.isBlank()) {
+            builder.region(translatorRegion);
+        }
+        return captureHttpSupport.apply(builder, "translator").buildClient();
+    }
+    
+    /**
+     * RestTemplate UTF-8 compartido por los agentes que llaman a Text Analytics vía REST
+     */
+    @Bean
+    @Qualifier("textAnalyticsRestTemplate")
+    public RestTemplate textAnalyticsRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5_000);
+        requestFactory.setReadTimeout(30_000);
+        RestTemplate template = new RestTemplate(requestFactory);
+        template.getMessageConverters()
+            .stream()
+            .filter(StringHttpMessageConverter.class::isInstance)
+            .forEach(converter -> 
+                ((StringHttpMessageConverter) converter).setDefaultCharset(StandardCharsets.UTF_8)
+            );
+        template.getInterceptors().add(new CaptureRestInterceptor("text-analytics", trafficRecorder, azurePlayback));
+        return template;
+    }
+    
     // Removido HttpClient personalizado - Azure SDK usará su cliente por defecto
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.smartwomen.config;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Acceso directo (SDK async) a los contenedores de Cosmos DB para operaciones
+ * que Spring Data no cubre: bulk executor, change feed, lecturas condicionales.
+ */
+@Configuration
+@Profile("!local")
+public class CosmosConfig {
+
+    @Value("${spring.cloud.azure.cosmos.database:SmartWomenCRM}")
+    private String databaseName;
+
+    @Bean
+    public CosmosAsyncDatabase cosmosDatabase(CosmosAsyncClient cosmosAsyncClient) {
+        return cosmosAsyncClient.getDatabase(databaseName);
+    }
+
+    /**
+     * Contenedor de clientes (partition key: /customerId)
+     */
+    @Bean
+    @Qualifier("customersContainer")
+    public CosmosAsyncContainer customersContainer(CosmosAsyncDatabase cosmosDatabase) {
+        return cosmosDatabase.getContainer("customers");
+    }
+
+    /**
+     * Vistas materializadas derivadas de los clientes (partition key: /view)
+     */
+    @Bean
+    @Qualifier("customerViewsContainer")
+    public CosmosAsyncContainer customerViewsContainer(CosmosAsyncDatabase cosmosDatabase) {
+        return cosmosDatabase.getContainer("customerViews");
+    }
+
+    /**
+     * Leases del change feed processor (partition key: /id)
+     */
+    @Bean
+    @Qualifier("leasesContainer")
+    public CosmosAsyncContainer leasesContainer(CosmosAsyncDatabase cosmosDatabase) {
+        return cosmosDatabase.getContainer("leases");
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartwomen.config;
+
+import com.azure.spring.data.cosmos.repository.config.EnableCosmosRepositories;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Selección del backend de persistencia por perfil.
+ *
+ * - (por defecto) Azure Cosmos DB
+ * - "local":      H2 embebido vía JPA, sin dependencias de Azure
+ */
+public class PersistenceConfig {
+
+    @Configuration
+    @Profile("!local")
+    @EnableCosmosRepositories(basePackages = "com.smartwomen.repository.cosmos")
+    static class CosmosPersistence {
+    }
+
+    @Configuration
+    @Profile("local")
+    @EnableJpaRepositories(basePackages = "com.smartwomen.repository.jpa")
+    @EntityScan(basePackages = "com.smartwomen.repository.jpa")
+    static class EmbeddedPersistence {
+    }
+}
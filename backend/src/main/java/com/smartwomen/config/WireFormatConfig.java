@@ -0,0 +1,55 @@
+package com.smartwomen.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Formatos de respuesta y compresión.
+ *
+ * Además de JSON (por defecto) se negocian CBOR (application/cbor) y Smile
+ * (application/x-jackson-smile) vía Accept, con la misma configuración de
+ * Jackson que el JSON. Las respuestas mayores a min-response-size se comprimen
+ * (gzip) cuando el cliente envía Accept-Encoding.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Value("${smartwomen.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${smartwomen.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> compressionCustomizer() {
+        return factory -> {
+            Compression compression = new Compression();
+            compression.setEnabled(compressionEnabled);
+            compression.setMinResponseSize(minResponseSize);
+            compression.setMimeTypes(new String[] {
+                "application/json", "application/cbor", "application/x-jackson-smile",
+                "application/x-ndjson", "text/csv", "text/plain"});
+            factory.setCompression(compression);
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartwomen.logging;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logging estructurado y muestreado de payloads de agentes (texto de entrada,
+ * respuestas de Azure, análisis GPT-4).
+ *
+ * Los payloads completos son caros de formatear y escribir; aquí solo se emite
+ * una fracción configurable por agente y truncada a un tamaño máximo. La
+ * escritura real la hace el AsyncAppender de logback-spring.xml, que nunca
+ * bloquea el hilo del request.
+ */
+@Component
+public class AgentPayloadLogger {
+
+    @Value("${smartwomen.logging.payload.sample-rate:0.05}")
+    private double defaultSampleRate;
+
+    // Ej: smartwomen.logging.payload.agent-sample-rates={LanguageDetector:1.0,BiasGuard:0.2}
+    @Value("#{${smartwomen.logging.payload.agent-sample-rates:{:}}}")
+    private Map<String, Double> agentSampleRates;
+
+    @Value("${smartwomen.logging.payload.max-length:256}")
+    private int maxLength;
+
+    /**
+     * Registra un payload del agente si el muestreo lo selecciona.
+     */
+    public void logPayload(Logger logger, String agent, String stage, Object payload) {
+        if (!logger.isInfoEnabled() || !shouldSample(agent)) {
+            return;
+        }
+        String text = String.valueOf(payload);
+        logger.atInfo()
+            .addKeyValue("agent", agent)
+            .addKeyValue("stage", stage)
+            .addKeyValue("length", text.length())
+            .log("{}: [{}]", stage, truncate(text));
+    }
+
+    public boolean shouldSample(String agent) {
+        double rate = agentSampleRates.getOrDefault(agent, defaultSampleRate);
+        if (rate >= 1.0) return true;
+        if (rate <= 0.0) return false;
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public String truncate(String text) {
+        if (text == null || text.length() <= maxLength) {
+            return text;
+        }
+        return text.substring(0, maxLength) + "…(+" + (text.length() - maxLength) + " chars)";
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartwomen.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.Builder;
 import java.util.Map;
@@ -7,8 +8,14 @@ import java.util.List;
 
 /**
  * Response model para agentes especializados
+ *
+ * Los campos null no se serializan. En modo compacto el resultado va
+ * estructurado en result (content queda null) y metadata solo conserva lo
+ * que no está en result. brownoutLevel indica si la respuesta se produjo
+ * en modo degradado.
  */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
 public class AgentResponse {
     private String agentType;
@@ -20,6 +27,9 @@ public class AgentResponse {
     private String confidence;
     private List<String> suggestions;
     private Map<String, Object> analytics;
+    private Map<String, Object> result;
+    // Nivel de brownout con el que se atendió la petición (NORMAL, CACHED_PLAN...)
+    private String brownoutLevel;
     
     public static AgentResponseBuilder builder() {
         return new AgentResponseBuilder();
@@ -3,13 +3,20 @@ package com.smartwomen.models;
 import com.azure.spring.data.cosmos.core.mapping.Container;
 import com.azure.spring.data.cosmos.core.mapping.PartitionKey;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Container(containerName = "customers")
 public class Customer {
     
+    // Campos de metadata que se conservan en el resumen compacto de lastAgentResults
+    private static final List<String> SUMMARY_FIELDS = List.of(
+        "primaryLanguage", "mixedLanguage", "sentiment", "requiresEscalation", "biasDetected", "severity", "complexity");
+    
     @Id
     private String id;
     
@@ -25,6 +32,10 @@ public class Customer {
     private LocalDateTime lastInteraction;
     private String industry;
     private String businessSize;
+    
+    // Con ETag, save() es condicional (If-Match): una escritura concurrente hace fallar la nuestra
+    @Version
+    private String _etag;
 
     public Customer() {
         this.createdAt = LocalDateTime.now();
@@ -64,4 +75,46 @@ public class Customer {
     
     public String getBusinessSize() { return businessSize; }
     public void setBusinessSize(String businessSize) { this.businessSize = businessSize; }
-}   
\ No newline at end of file
+    
+    public String get_etag() { return _etag; }
+    public void set_etag(String _etag) { this._etag = _etag; }
+
+    /**
+     * Copia para listados en modo compacto: lastAgentResults se reduce a
+     * success/confidence y los campos escalares clave de cada agente.
+     */
+    @SuppressWarnings("unchecked")
+    public Customer toCompact() {
+        Customer compact = new Customer();
+        compact.id = id;
+        compact.customerId = customerId;
+        compact.name = name;
+        compact.email = email;
+        compact.country = country;
+        compact.lastMessage = lastMessage;
+        compact.createdAt = createdAt;
+        compact.lastInteraction = lastInteraction;
+        compact.industry = industry;
+        compact.businessSize = businessSize;
+        compact._etag = _etag;
+        if (lastAgentResults != null) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            lastAgentResults.forEach((agent, value) -> {
+                if (!(value instanceof Map)) return;
+                Map<String, Object> full = (Map<String, Object>) value;
+                Map<String, Object> agentSummary = new LinkedHashMap<>();
+                agentSummary.put("success", full.get("success"));
+                agentSummary.put("confidence", full.get("confidence"));
+                if (full.get("metadata") instanceof Map) {
+                    Map<String, Object> metadata = (Map<String, Object>) full.get("metadata");
+                    for (String field : SUMMARY_FIELDS) {
+                        if (metadata.containsKey(field)) agentSummary.put(field, metadata.get(field));
+                    }
+                }
+                summary.put(agent, agentSummary);
+            });
+            compact.lastAgentResults = summary;
+        }
+        return compact;
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartwomen.models;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Progreso de una importación masiva de clientes
+ */
+public class ImportProgress {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String jobId;
+    private final String format;
+    private final Instant submittedAt = Instant.now();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong rejectedLines = new AtomicLong();
+    private final DoubleAdder requestUnits = new DoubleAdder();
+
+    public ImportProgress(String jobId, String format) {
+        this.jobId = jobId;
+        this.format = format;
+    }
+
+    public void addRead(long n) { read.addAndGet(n); }
+    public void addImported(long n) { imported.addAndGet(n); }
+    public void addFailed(long n) { failed.addAndGet(n); }
+    public void addRetried(long n) { retried.addAndGet(n); }
+    public void addRejectedLine() { rejectedLines.incrementAndGet(); }
+    public void addRequestUnits(double ru) { requestUnits.add(ru); }
+
+    public void start() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    public void complete() {
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.finishedAt = Instant.now();
+        this.error = error;
+        this.status = Status.FAILED;
+    }
+
+    public String getJobId() { return jobId; }
+    public String getFormat() { return format; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public Status getStatus() { return status; }
+    public String getError() { return error; }
+    public long getRead() { return read.get(); }
+    public long getImported() { return imported.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getRetried() { return retried.get(); }
+    public long getRejectedLines() { return rejectedLines.get(); }
+    public double getRequestUnits() { return requestUnits.sum(); }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public double getDocsPerSecond() {
+        if (startedAt == null) {
+            return 0.0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, end.toEpochMilli() - startedAt.toEpochMilli());
+        return imported.get() * 1000.0 / millis;
+    }
+}
@@ -1,14 +1,38 @@
 package com.smartwomen.repository;
 
-import com.azure.spring.data.cosmos.repository.CosmosRepository;
 import com.smartwomen.models.Customer;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
-@Repository
-public interface CustomerRepository extends CosmosRepository<Customer, String> {
+/**
+ * Persistencia de clientes, independiente del backend.
+ *
+ * Implementaciones (seleccionadas por perfil):
+ * - CosmosCustomerRepository: Azure Cosmos DB (por defecto)
+ * - JpaCustomerRepository:    H2 embebido (perfil "local")
+ *
+ * save() de un cliente con _etag es una escritura condicional: si el documento
+ * cambió desde que se leyó, lanza OptimisticLockingFailureException. Sin _etag
+ * (altas, importaciones) reemplaza el documento sin condición. insert() solo
+ * crea: si el cliente ya existe lanza DuplicateKeyException.
+ */
+public interface CustomerRepository {
+    Customer save(Customer customer);
+    Customer insert(Customer customer);
+    List<Customer> saveAll(List<Customer> customers);
     Optional<Customer> findByCustomerId(String customerId);
     Optional<Customer> findByEmail(String email);
+    Iterable<Customer> findAll();
+    Page<Customer> findAll(Pageable pageable);
+    // lastInteraction en [from, to): el until de un export es el since del siguiente sin repetir filas.
+    // Paginación por clave (keyset): hasta limit clientes con customerId > afterCustomerId
+    // ("" = desde el principio), ordenados por customerId. Costo por página constante, y un
+    // update que saca una fila del rango no corre las siguientes (como con offsets)
+    List<Customer> findByLastInteractionRange(LocalDateTime from, LocalDateTime to, String afterCustomerId, int limit);
+    long count();
     long countByCountry(String country);
-}
\ No newline at end of file
+}
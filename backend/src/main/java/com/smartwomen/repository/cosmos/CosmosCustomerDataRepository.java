@@ -0,0 +1,19 @@
+package com.smartwomen.repository.cosmos;
+
+import com.azure.spring.data.cosmos.repository.CosmosRepository;
+import com.smartwomen.models.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CosmosCustomerDataRepository extends CosmosRepository<Customer, String> {
+    Optional<Customer> findByCustomerId(String customerId);
+    Optional<Customer> findByEmail(String email);
+    long countByCountry(String country);
+    Slice<Customer> findByLastInteractionGreaterThanEqualAndLastInteractionLessThanAndCustomerIdGreaterThan(
+        LocalDateTime from, LocalDateTime to, String afterCustomerId, Pageable pageable);
+}
@@ -0,0 +1,140 @@
+package com.smartwomen.repository.cosmos;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * CustomerRepository sobre Azure Cosmos DB (backend por defecto)
+ */
+@Repository
+@Profile("!local")
+public class CosmosCustomerRepository implements CustomerRepository {
+
+    @Autowired
+    private CosmosCustomerDataRepository dataRepository;
+
+    @Autowired
+    @Qualifier("customersContainer")
+    private CosmosAsyncContainer customersContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // @Version en _etag: Spring Data Cosmos envía If-Match y Cosmos responde 412 si cambió.
+    // Sin _etag enviaría If-Match "null" (siempre 412): se escribe con el SDK, sin condición
+    @Override
+    public Customer save(Customer customer) {
+        if (customer.get_etag() == null) {
+            return write(customer, false);
+        }
+        try {
+            return dataRepository.save(customer);
+        } catch (RuntimeException e) {
+            throw translate(e, customer.getCustomerId());
+        }
+    }
+
+    @Override
+    public Customer insert(Customer customer) {
+        return write(customer, true);
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        List<Customer> saved = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            saved.add(save(customer));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Customer> findByCustomerId(String customerId) {
+        return dataRepository.findByCustomerId(customerId);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return dataRepository.findByEmail(email);
+    }
+
+    @Override
+    public Iterable<Customer> findAll() {
+        return dataRepository.findAll();
+    }
+
+    @Override
+    public Page<Customer> findAll(Pageable pageable) {
+        return dataRepository.findAll(pageable);
+    }
+
+    // Siempre la primera página de la consulta: la posición la da afterCustomerId, no un continuation token
+    @Override
+    public List<Customer> findByLastInteractionRange(LocalDateTime from, LocalDateTime to, String afterCustomerId, int limit) {
+        return dataRepository.findByLastInteractionGreaterThanEqualAndLastInteractionLessThanAndCustomerIdGreaterThan(
+            from, to, afterCustomerId, PageRequest.of(0, limit, Sort.by("customerId"))).getContent();
+    }
+
+    @Override
+    public long count() {
+        return dataRepository.count();
+    }
+
+    @Override
+    public long countByCountry(String country) {
+        return dataRepository.countByCountry(country);
+    }
+
+    // create (409 si existe) o upsert sin If-Match; devuelve el cliente con el _etag nuevo
+    private Customer write(Customer customer, boolean create) {
+        if (customer.getId() == null) {
+            customer.setId(customer.getCustomerId());
+        }
+        ObjectNode document = objectMapper.convertValue(customer, ObjectNode.class);
+        document.remove("_etag");
+        PartitionKey partitionKey = new PartitionKey(customer.getCustomerId());
+        try {
+            CosmosItemResponse<ObjectNode> response = (create
+                ? customersContainer.createItem(document, partitionKey, new CosmosItemRequestOptions())
+                : customersContainer.upsertItem(document, partitionKey, new CosmosItemRequestOptions())).block();
+            customer.set_etag(response.getETag());
+            return customer;
+        } catch (CosmosException e) {
+            if (e.getStatusCode() == 409) {
+                throw new DuplicateKeyException("Customer " + customer.getCustomerId() + " already exists", e);
+            }
+            throw e;
+        }
+    }
+
+    private static RuntimeException translate(RuntimeException e, String customerId) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CosmosException && ((CosmosException) cause).getStatusCode() == 412) {
+                return new OptimisticLockingFailureException("Customer " + customerId + " was modified concurrently", e);
+            }
+        }
+        return e;
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartwomen.repository.jpa;
+
+import com.smartwomen.models.Customer;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Fila de cliente en el backend embebido (perfil "local").
+ * customerId es la clave primaria; email y country tienen índice propio.
+ */
+@Entity
+@Table(name = "customers", indexes = {
+    @Index(name = "idx_customers_email", columnList = "email"),
+    @Index(name = "idx_customers_country", columnList = "country"),
+    @Index(name = "idx_customers_last_interaction", columnList = "lastInteraction")
+})
+public class CustomerEntity {
+
+    @Id
+    @Column(length = 64)
+    private String customerId;
+
+    @Column(length = 64)
+    private String documentId;
+
+    private String name;
+    private String email;
+
+    @Column(length = 64)
+    private String country;
+
+    @Column(length = 4000)
+    private String lastMessage;
+
+    @Lob
+    @Convert(converter = JsonMapConverter.class)
+    private Map<String, Object> lastAgentResults;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime lastInteraction;
+    private String industry;
+    private String businessSize;
+
+    @Version
+    private Long version;
+
+    protected CustomerEntity() {
+    }
+
+    public CustomerEntity(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public void copyFrom(Customer customer) {
+        this.documentId = customer.getId() != null ? customer.getId() : customer.getCustomerId();
+        this.name = customer.getName();
+        this.email = customer.getEmail();
+        this.country = customer.getCountry();
+        this.lastMessage = customer.getLastMessage();
+        this.lastAgentResults = customer.getLastAgentResults();
+        this.createdAt = customer.getCreatedAt();
+        this.lastInteraction = customer.getLastInteraction();
+        this.industry = customer.getIndustry();
+        this.businessSize = customer.getBusinessSize();
+    }
+
+    public Customer toCustomer() {
+        Customer customer = new Customer();
+        customer.setId(documentId);
+        customer.setCustomerId(customerId);
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setCountry(country);
+        customer.setLastMessage(lastMessage);
+        customer.setLastAgentResults(lastAgentResults);
+        customer.setCreatedAt(createdAt);
+        customer.setLastInteraction(lastInteraction);
+        customer.setIndustry(industry);
+        customer.setBusinessSize(businessSize);
+        customer.set_etag(version == null ? null : String.valueOf(version));
+        return customer;
+    }
+
+    public String getCustomerId() { return customerId; }
+    public Long getVersion() { return version; }
+}
@@ -0,0 +1,15 @@
+package com.smartwomen.repository.jpa;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface JpaCustomerDataRepository extends JpaRepository<CustomerEntity, String> {
+    Optional<CustomerEntity> findFirstByEmail(String email);
+    long countByCountry(String country);
+    List<CustomerEntity> findByLastInteractionGreaterThanEqualAndLastInteractionLessThanAndCustomerIdGreaterThanOrderByCustomerIdAsc(
+        LocalDateTime from, LocalDateTime to, String afterCustomerId, Pageable pageable);
+}
@@ -0,0 +1,124 @@
+package com.smartwomen.repository.jpa;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * CustomerRepository sobre H2 embebido (perfil "local"): permite correr la app
+ * y despliegues edge sin una cuenta de Cosmos DB.
+ */
+@Repository
+@Profile("local")
+public class JpaCustomerRepository implements CustomerRepository {
+
+    @Autowired
+    private JpaCustomerDataRepository dataRepository;
+
+    @Override
+    @Transactional
+    public Customer save(Customer customer) {
+        return dataRepository.save(toEntity(customer)).toCustomer();
+    }
+
+    // Un alta concurrente con la misma clave falla al hacer flush (DataIntegrityViolationException)
+    @Override
+    @Transactional
+    public Customer insert(Customer customer) {
+        if (dataRepository.existsById(customer.getCustomerId())) {
+            throw new DuplicateKeyException("Customer " + customer.getCustomerId() + " already exists");
+        }
+        CustomerEntity entity = new CustomerEntity(customer.getCustomerId());
+        entity.copyFrom(customer);
+        return dataRepository.save(entity).toCustomer();
+    }
+
+    @Override
+    @Transactional
+    public List<Customer> saveAll(List<Customer> customers) {
+        List<CustomerEntity> entities = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            entities.add(toEntity(customer));
+        }
+        List<Customer> saved = new ArrayList<>(entities.size());
+        for (CustomerEntity entity : dataRepository.saveAll(entities)) {
+            saved.add(entity.toCustomer());
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> findByCustomerId(String customerId) {
+        return dataRepository.findById(customerId).map(CustomerEntity::toCustomer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> findByEmail(String email) {
+        return dataRepository.findFirstByEmail(email).map(CustomerEntity::toCustomer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Iterable<Customer> findAll() {
+        List<Customer> customers = new ArrayList<>();
+        dataRepository.findAll().forEach(entity -> customers.add(entity.toCustomer()));
+        return customers;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Customer> findAll(Pageable pageable) {
+        return dataRepository.findAll(pageable).map(CustomerEntity::toCustomer);
+    }
+
+    // Recorre la clave primaria desde afterCustomerId: cada página es un range scan acotado
+    @Override
+    @Transactional(readOnly = true)
+    public List<Customer> findByLastInteractionRange(LocalDateTime from, LocalDateTime to, String afterCustomerId, int limit) {
+        List<Customer> customers = new ArrayList<>(limit);
+        dataRepository.findByLastInteractionGreaterThanEqualAndLastInteractionLessThanAndCustomerIdGreaterThanOrderByCustomerIdAsc(
+                from, to, afterCustomerId, PageRequest.of(0, limit))
+            .forEach(entity -> customers.add(entity.toCustomer()));
+        return customers;
+    }
+
+    @Override
+    public long count() {
+        return dataRepository.count();
+    }
+
+    @Override
+    public long countByCountry(String country) {
+        return dataRepository.countByCountry(country);
+    }
+
+    // Igual que en Cosmos, save() reemplaza el documento existente con el mismo customerId.
+    // Con _etag compara contra la versión actual; dos transacciones que pasen a la vez
+    // el chequeo las resuelve @Version al hacer flush (ObjectOptimisticLockingFailureException)
+    private CustomerEntity toEntity(Customer customer) {
+        CustomerEntity entity = dataRepository.findById(customer.getCustomerId())
+            .orElseGet(() -> new CustomerEntity(customer.getCustomerId()));
+        String etag = customer.get_etag();
+        if (etag != null && !etag.equals(String.valueOf(entity.getVersion()))) {
+            throw new OptimisticLockingFailureException(
+                "Customer " + customer.getCustomerId() + " was modified concurrently (version " + entity.getVersion() + ")");
+        }
+        entity.copyFrom(customer);
+        return entity;
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartwomen.scheduling;
+
+/**
+ * El scheduler no admitió la ejecución (rate limit, cola llena o espera agotada)
+ */
+public class AgentRejectedException extends RuntimeException {
+
+    private final PriorityClass priority;
+    private final long retryAfterMs;
+
+    public AgentRejectedException(String message, PriorityClass priority, long retryAfterMs) {
+        super(message);
+        this.priority = priority;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public PriorityClass getPriority() {
+        return priority;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,352 @@
+package com.smartwomen.scheduling;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Scheduler delante de la ejecución de agentes.
+ *
+ * Limita las ejecuciones concurrentes (hilos de Tomcat y cuota de Azure) y
+ * reparte los slots libres entre clases de prioridad con weighted fair
+ * queuing: cada ticket recibe una etiqueta de fin virtual (1/peso) y se
+ * despacha siempre la menor. Una parte de los slots queda reservada para
+ * INTERACTIVE, así el trabajo batch aprovecha la capacidad sobrante sin
+ * afectar la latencia del chat. Antes de encolar, un token bucket por
+ * cliente y clase corta a quien exceda su tasa.
+ *
+ * Cada ticket en cola es un hilo llamante bloqueado (un hilo de Tomcat en la
+ * API): max-waiting acota los que esperan entre todas las clases, muy por
+ * debajo de server.tomcat.threads.max (200), para que la cola no deje al
+ * servidor sin hilos para health checks y requests que no pasan por aquí.
+ * Con el cupo lleno se rechaza al momento (429 + Retry-After en la API).
+ *
+ * La clave del token bucket la elige el llamante y no se autentica aquí: en
+ * la API es X-Customer-Id / customerId tal como lo manda el cliente (o la IP
+ * si no viene). Solo es un límite por cliente detrás de un gateway que fije
+ * ese header; sin él, un cliente que rota ids no queda limitado por tasa,
+ * aunque sí por max-concurrent y max-waiting.
+ */
+@Component
+public class AgentScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentScheduler.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${smartwomen.scheduler.max-concurrent:16}")
+    private int maxConcurrent;
+
+    // Slots que BACKGROUND/BULK nunca pueden ocupar
+    @Value("${smartwomen.scheduler.reserved-interactive:4}")
+    private int reservedInteractive;
+
+    // Hilos llamantes esperando slot, entre todas las clases
+    @Value("${smartwomen.scheduler.max-waiting:64}")
+    private int maxWaiting;
+
+    // Lugares de espera que BACKGROUND/BULK nunca pueden ocupar
+    @Value("${smartwomen.scheduler.reserved-interactive-waiting:16}")
+    private int reservedInteractiveWaiting;
+
+    @Value("#{${smartwomen.scheduler.weights:{INTERACTIVE:8,BACKGROUND:3,BULK:1}}}")
+    private Map<String, Integer> weights;
+
+    @Value("#{${smartwomen.scheduler.max-wait-ms:{INTERACTIVE:2000,BACKGROUND:15000,BULK:60000}}}")
+    private Map<String, Long> maxWaitMs;
+
+    @Value("#{${smartwomen.scheduler.queue-capacity:{INTERACTIVE:200,BACKGROUND:500,BULK:2000}}}")
+    private Map<String, Integer> queueCapacity;
+
+    // Token bucket por cliente y clase
+    @Value("#{${smartwomen.scheduler.rate-per-second:{INTERACTIVE:5,BACKGROUND:2,BULK:50}}}")
+    private Map<String, Double> ratePerSecond;
+
+    @Value("#{${smartwomen.scheduler.burst:{INTERACTIVE:20,BACKGROUND:10,BULK:200}}}")
+    private Map<String, Double> burst;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final EnumMap<PriorityClass, ArrayDeque<Ticket>> queues = new EnumMap<>(PriorityClass.class);
+    private final EnumMap<PriorityClass, Double> lastFinish = new EnumMap<>(PriorityClass.class);
+    private final EnumMap<PriorityClass, Integer> running = new EnumMap<>(PriorityClass.class);
+    private final EnumMap<PriorityClass, LongAdder> rejected = new EnumMap<>(PriorityClass.class);
+    private final EnumMap<PriorityClass, Timer> waitTimers = new EnumMap<>(PriorityClass.class);
+    private double virtualTime;
+    private int totalRunning;
+    private int totalWaiting;
+    // Media móvil exponencial de la duración de las tareas (señal para el brownout)
+    private double executionEwmaMs;
+
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .maximumSize(100_000)
+        .build();
+
+    @PostConstruct
+    void init() {
+        for (PriorityClass priority : PriorityClass.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            lastFinish.put(priority, 0.0);
+            running.put(priority, 0);
+            rejected.put(priority, new LongAdder());
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            waitTimers.put(priority, Timer.builder("agent.scheduler.wait")
+                .tag("priority", tag)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+            Gauge.builder("agent.scheduler.queue.size", this, s -> s.queueSize(priority))
+                .tag("priority", tag).register(meterRegistry);
+            Gauge.builder("agent.scheduler.rejected", rejected.get(priority), LongAdder::sum)
+                .tag("priority", tag).register(meterRegistry);
+        }
+        logger.info("🚦 Agent scheduler: {} concurrent ({} reserved for interactive), {} waiting, weights {}",
+            maxConcurrent, reservedInteractive, maxWaiting, weights);
+    }
+
+    /**
+     * Ejecuta la tarea en el hilo llamante cuando el scheduler le asigna un slot.
+     *
+     * @throws AgentRejectedException si el cliente excede su tasa, la cola de
+     *         la clase o el cupo de espera global están llenos, o se agota la
+     *         espera máxima
+     */
+    public <T> T execute(PriorityClass priority, String customerKey, Supplier<T> task) {
+        if (!enabled) {
+            return task.get();
+        }
+        String key = priority.name() + ":" + customerKey;
+        long retryAfter = buckets.get(key, k -> new TokenBucket(
+            ratePerSecond.getOrDefault(priority.name(), 5.0), burst.getOrDefault(priority.name(), 20.0))).tryAcquire();
+        if (retryAfter > 0) {
+            rejected.get(priority).increment();
+            throw new AgentRejectedException("Rate limit exceeded for " + customerKey, priority, retryAfter);
+        }
+
+        long enqueued = System.nanoTime();
+        Ticket ticket = admit(priority);
+        long started = System.nanoTime();
+        waitTimers.get(priority).record(started - enqueued, TimeUnit.NANOSECONDS);
+        try {
+            return task.get();
+        } finally {
+            ticket.executionNanos = System.nanoTime() - started;
+            release(ticket);
+        }
+    }
+
+    /**
+     * Tickets esperando slot, en todas las clases
+     */
+    public int queued() {
+        lock.lock();
+        try {
+            return totalWaiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running() {
+        lock.lock();
+        try {
+            return totalRunning;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double executionEwmaMs() {
+        lock.lock();
+        try {
+            return executionEwmaMs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("reservedInteractive", reservedInteractive);
+        stats.put("maxWaiting", maxWaiting);
+        lock.lock();
+        try {
+            stats.put("running", totalRunning);
+            stats.put("waiting", totalWaiting);
+            stats.put("executionEwmaMs", executionEwmaMs);
+            for (PriorityClass priority : PriorityClass.values()) {
+                Map<String, Object> perClass = new LinkedHashMap<>();
+                perClass.put("weight", weight(priority));
+                perClass.put("running", running.get(priority));
+                perClass.put("queued", queues.get(priority).size());
+                perClass.put("rejected", rejected.get(priority).sum());
+                perClass.put("waitMeanMs", waitTimers.get(priority).mean(TimeUnit.MILLISECONDS));
+                perClass.put("waitMaxMs", waitTimers.get(priority).max(TimeUnit.MILLISECONDS));
+                stats.put(priority.name().toLowerCase(Locale.ROOT), perClass);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    private Ticket admit(PriorityClass priority) {
+        lock.lock();
+        try {
+            ArrayDeque<Ticket> queue = queues.get(priority);
+            if (queue.size() >= queueCapacity.getOrDefault(priority.name(), 500)) {
+                rejected.get(priority).increment();
+                throw new AgentRejectedException("Scheduler queue full for " + priority, priority, 1000);
+            }
+            if (!canWait(priority)) {
+                rejected.get(priority).increment();
+                throw new AgentRejectedException("Too many requests waiting for " + priority, priority, retryAfterMs());
+            }
+            Ticket ticket = new Ticket(priority, lock.newCondition());
+            ticket.finishTag = Math.max(virtualTime, lastFinish.get(priority)) + 1.0 / weight(priority);
+            lastFinish.put(priority, ticket.finishTag);
+            queue.add(ticket);
+            totalWaiting++;
+            dispatch();
+
+            long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs.getOrDefault(priority.name(), 10_000L));
+            while (!ticket.granted) {
+                if (remaining <= 0) {
+                    dequeue(ticket);
+                    rejected.get(priority).increment();
+                    throw new AgentRejectedException("Scheduler wait timeout for " + priority, priority, 1000);
+                }
+                try {
+                    remaining = ticket.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (ticket.granted) {
+                        releaseLocked(ticket);
+                    } else {
+                        dequeue(ticket);
+                    }
+                    throw new AgentRejectedException("Interrupted while waiting for a slot", priority, 0);
+                }
+            }
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Ticket ticket) {
+        lock.lock();
+        try {
+            releaseLocked(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(Ticket ticket) {
+        if (ticket.executionNanos > 0) {
+            executionEwmaMs = 0.8 * executionEwmaMs + 0.2 * ticket.executionNanos / 1_000_000.0;
+        }
+        totalRunning--;
+        running.merge(ticket.priority, -1, Integer::sum);
+        dispatch();
+    }
+
+    // Concede slots libres al ticket elegible con menor etiqueta de fin virtual
+    private void dispatch() {
+        while (totalRunning < maxConcurrent) {
+            Ticket next = null;
+            for (PriorityClass priority : PriorityClass.values()) {
+                Ticket head = queues.get(priority).peek();
+                if (head != null && canRun(priority) && (next == null || head.finishTag < next.finishTag)) {
+                    next = head;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            queues.get(next.priority).poll();
+            totalWaiting--;
+            virtualTime = Math.max(virtualTime, next.finishTag - 1.0 / weight(next.priority));
+            totalRunning++;
+            running.merge(next.priority, 1, Integer::sum);
+            next.granted = true;
+            next.condition.signal();
+        }
+    }
+
+    private boolean canRun(PriorityClass priority) {
+        if (priority == PriorityClass.INTERACTIVE) {
+            return true;
+        }
+        int batchRunning = totalRunning - running.get(PriorityClass.INTERACTIVE);
+        return batchRunning < maxConcurrent - reservedInteractive;
+    }
+
+    private void dequeue(Ticket ticket) {
+        if (queues.get(ticket.priority).remove(ticket)) {
+            totalWaiting--;
+        }
+    }
+
+    private boolean canWait(PriorityClass priority) {
+        if (priority == PriorityClass.INTERACTIVE) {
+            return totalWaiting < maxWaiting;
+        }
+        int batchWaiting = totalWaiting - queues.get(PriorityClass.INTERACTIVE).size();
+        return totalWaiting < maxWaiting && batchWaiting < maxWaiting - reservedInteractiveWaiting;
+    }
+
+    // Tiempo estimado hasta que se libere el cupo de espera, mínimo 1 s
+    private long retryAfterMs() {
+        double drainMs = executionEwmaMs * totalWaiting / Math.max(1, maxConcurrent);
+        return Math.max(1000L, (long) drainMs);
+    }
+
+    private int weight(PriorityClass priority) {
+        return Math.max(1, weights.getOrDefault(priority.name(), 1));
+    }
+
+    private int queueSize(PriorityClass priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Ticket {
+        final PriorityClass priority;
+        final Condition condition;
+        double finishTag;
+        boolean granted;
+        long executionNanos;
+
+        Ticket(PriorityClass priority, Condition condition) {
+            this.priority = priority;
+            this.condition = condition;
+        }
+    }
+}
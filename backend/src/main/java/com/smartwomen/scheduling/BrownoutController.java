@@ -0,0 +1,154 @@
+package com.smartwomen.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Brownout por carga: degrada el trabajo de los agentes en vez de fallar.
+ *
+ * Cada evaluate-interval-ms compara la profundidad de cola del AgentScheduler
+ * y la duración media (EWMA) de las ejecuciones con los umbrales de cada
+ * nivel. Sube de nivel en cuanto se supera un umbral y baja de a un nivel
+ * cuando la señal se mantiene por debajo durante recovery-ms, para no
+ * oscilar. Con forced-level se fija un nivel a mano (operación / pruebas).
+ */
+@Component
+public class BrownoutController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrownoutController.class);
+
+    @Autowired
+    private AgentScheduler agentScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.brownout.enabled:true}")
+    private boolean enabled;
+
+    // Tickets encolados en el scheduler a partir de los cuales se entra en cada nivel
+    @Value("#{${smartwomen.brownout.queue-thresholds:{CACHED_PLAN:20,SAFETY_ONLY:60,SHEDDING:150}}}")
+    private Map<String, Integer> queueThresholds;
+
+    // Duración media de las ejecuciones (ms) a partir de la cual se entra en cada nivel
+    @Value("#{${smartwomen.brownout.latency-thresholds-ms:{CACHED_PLAN:4000,SAFETY_ONLY:8000,SHEDDING:15000}}}")
+    private Map<String, Long> latencyThresholdsMs;
+
+    @Value("${smartwomen.brownout.recovery-ms:15000}")
+    private long recoveryMs;
+
+    @Value("${smartwomen.brownout.shed-priorities:BULK}")
+    private List<String> shedPriorities;
+
+    // Vacío = automático
+    @Value("${smartwomen.brownout.forced-level:}")
+    private String forcedLevel;
+
+    private volatile BrownoutLevel level = BrownoutLevel.NORMAL;
+    private volatile BrownoutLevel forced;
+    private long belowSince;
+    private int lastQueued;
+    private double lastLatencyMs;
+    private Counter transitions;
+
+    @PostConstruct
+    void init() {
+        forced = forcedLevel.isBlank() ? null : BrownoutLevel.valueOf(forcedLevel.trim().toUpperCase(Locale.ROOT));
+        if (forced != null) level = forced;
+        transitions = meterRegistry.counter("brownout.transitions");
+        Gauge.builder("brownout.level", this, b -> b.current().ordinal()).register(meterRegistry);
+    }
+
+    public BrownoutLevel current() {
+        return enabled ? level : BrownoutLevel.NORMAL;
+    }
+
+    public boolean isAtLeast(BrownoutLevel other) {
+        return current().atLeast(other);
+    }
+
+    /**
+     * true si la petición de esta prioridad debe rechazarse (nivel SHEDDING)
+     */
+    public boolean shouldShed(PriorityClass priority) {
+        return current() == BrownoutLevel.SHEDDING && shedPriorities.contains(priority.name());
+    }
+
+    /**
+     * Fija un nivel manualmente; null vuelve al modo automático.
+     */
+    public synchronized void force(BrownoutLevel target) {
+        forced = target;
+        if (target != null) transition(target);
+    }
+
+    @Scheduled(fixedDelayString = "${smartwomen.brownout.evaluate-interval-ms:1000}")
+    public synchronized void evaluate() {
+        if (!enabled || forced != null) return;
+        lastQueued = agentScheduler.queued();
+        // Sin trabajo en curso la EWMA no se actualiza: no cuenta como lentitud
+        lastLatencyMs = agentScheduler.running() + lastQueued == 0 ? 0 : agentScheduler.executionEwmaMs();
+
+        BrownoutLevel target = BrownoutLevel.NORMAL;
+        for (BrownoutLevel candidate : BrownoutLevel.values()) {
+            if (candidate == BrownoutLevel.NORMAL) continue;
+            boolean queueOver = lastQueued >= queueThresholds.getOrDefault(candidate.name(), Integer.MAX_VALUE);
+            boolean latencyOver = lastLatencyMs >= latencyThresholdsMs.getOrDefault(candidate.name(), Long.MAX_VALUE);
+            if (queueOver || latencyOver) target = candidate;
+        }
+
+        long now = System.currentTimeMillis();
+        if (target.ordinal() > level.ordinal()) {
+            transition(target);
+            belowSince = 0;
+        } else if (target.ordinal() < level.ordinal()) {
+            if (belowSince == 0) {
+                belowSince = now;
+            } else if (now - belowSince >= recoveryMs) {
+                transition(BrownoutLevel.values()[level.ordinal() - 1]);
+                belowSince = now;
+            }
+        } else {
+            belowSince = 0;
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("level", current().name());
+        stats.put("mode", forced != null ? "forced" : "auto");
+        stats.put("queued", lastQueued);
+        stats.put("executionEwmaMs", lastLatencyMs);
+        stats.put("queueThresholds", queueThresholds);
+        stats.put("latencyThresholdsMs", latencyThresholdsMs);
+        stats.put("shedPriorities", shedPriorities);
+        stats.put("transitions", (long) transitions.count());
+        return stats;
+    }
+
+    private void transition(BrownoutLevel target) {
+        if (target == level) return;
+        if (target.ordinal() > level.ordinal()) {
+            logger.warn("🟠 BROWNOUT {} → {} (queued={}, executionEwma={} ms)",
+                level, target, lastQueued, Math.round(lastLatencyMs));
+        } else {
+            logger.info("🟢 BROWNOUT {} → {}", level, target);
+        }
+        level = target;
+        transitions.increment();
+    }
+}
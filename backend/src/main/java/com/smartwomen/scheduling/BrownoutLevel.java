@@ -0,0 +1,20 @@
+package com.smartwomen.scheduling;
+
+/**
+ * Niveles de brownout, de menor a mayor degradación. Cada nivel incluye
+ * las degradaciones de los anteriores.
+ */
+public enum BrownoutLevel {
+    /** Cadena completa de agentes */
+    NORMAL,
+    /** Planner sin GPT-4: plan del cache semántico o plan estático */
+    CACHED_PLAN,
+    /** BiasGuard sin GPT-4: veredicto solo con Content Safety */
+    SAFETY_ONLY,
+    /** Además se rechaza el trabajo de menor prioridad (shed-priorities) */
+    SHEDDING;
+
+    public boolean atLeast(BrownoutLevel other) {
+        return ordinal() >= other.ordinal();
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartwomen.scheduling;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Clases de prioridad del scheduler de agentes.
+ *
+ * INTERACTIVE: chat en vivo. BACKGROUND: análisis y dashboards.
+ * BULK: backfills e importaciones.
+ */
+public enum PriorityClass {
+    INTERACTIVE,
+    BACKGROUND,
+    BULK;
+
+    public static final String HEADER = "X-Priority";
+
+    /**
+     * Header X-Priority, luego el campo "priority" del body; por defecto INTERACTIVE.
+     */
+    public static PriorityClass resolve(String header, Map<String, Object> context) {
+        String value = header;
+        if ((value == null || value.isBlank()) && context != null && context.get("priority") != null) {
+            value = context.get("priority").toString();
+        }
+        if (value == null || value.isBlank()) {
+            return INTERACTIVE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return INTERACTIVE;
+        }
+    }
+}
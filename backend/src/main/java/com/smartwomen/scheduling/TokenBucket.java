@@ -0,0 +1,33 @@
+package com.smartwomen.scheduling;
+
+/**
+ * Token bucket por cliente: rate tokens/segundo con ráfagas de hasta burst
+ */
+class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, double burst) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Consume un token. Devuelve 0 si se concedió, o los ms hasta el próximo token.
+     */
+    synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1.0 - tokens) / ratePerNano / 1_000_000.0));
+    }
+}
@@ -0,0 +1,578 @@
+package com.smartwomen.search;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en proceso para buscar clientes por nombre, email,
+ * industria, país y texto del último mensaje, sin consultas cross-partition
+ * a Cosmos.
+ *
+ * Los términos viven en un diccionario ordenado (TreeMap) para expandir
+ * prefijos; cada término apunta a una posting list de docIds crecientes con
+ * la máscara de campos donde aparece (el score suma el boost de cada campo).
+ * La última palabra de la consulta se trata como prefijo ("mar" → "maria",
+ * "marketing"). country e industry tienen además posting lists propias
+ * para las consultas que solo filtran, y la página se arma con un heap
+ * acotado a (page+1)*size en lugar de ordenar todos los aciertos. Se construye al arrancar recorriendo el repositorio por
+ * páginas, CustomerService y la importación masiva lo actualizan en cada
+ * guardado, y se reconstruye periódicamente para recoger escrituras de
+ * otras instancias.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    private static final byte NAME = 1;
+    private static final byte EMAIL = 2;
+    private static final byte INDUSTRY = 4;
+    private static final byte COUNTRY = 8;
+    private static final byte MESSAGE = 16;
+    private static final float PREFIX_PENALTY = 0.8f;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.search.enabled:true}")
+    private boolean enabled;
+
+    // Máximo de términos en que se expande un prefijo
+    @Value("${smartwomen.search.max-prefix-terms:64}")
+    private int maxPrefixTerms;
+
+    @Value("${smartwomen.search.rebuild-page-size:1000}")
+    private int rebuildPageSize;
+
+    // Fracción de documentos borrados (reemplazados) a partir de la cual se compacta
+    @Value("${smartwomen.search.compact-threshold:0.3}")
+    private double compactThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    // Guardados recibidos mientras se reconstruye; se re-aplican antes del swap
+    private List<Customer> pendingDuringRebuild;
+    private volatile boolean ready;
+    private volatile long lastRebuildMs;
+    private volatile LocalDateTime lastRebuildAt;
+    private final LongAdder queries = new LongAdder();
+    private Timer queryTimer;
+
+    @PostConstruct
+    void init() {
+        queryTimer = Timer.builder("search.customers.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        Gauge.builder("search.customers.documents", this, CustomerSearchIndex::size).register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${smartwomen.search.rebuild-interval-ms:3600000}",
+               initialDelayString = "${smartwomen.search.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice desde el repositorio sin bloquear las búsquedas:
+     * el índice nuevo se arma aparte y se intercambia al final.
+     */
+    public void rebuild() {
+        if (!enabled) return;
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) return; // ya hay una reconstrucción en curso
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State fresh = new State();
+        try {
+            Pageable pageable = PageRequest.of(0, rebuildPageSize);
+            while (true) {
+                Page<Customer> page = customerRepository.findAll(pageable);
+                page.forEach(fresh::upsert);
+                if (!page.hasNext()) break;
+                pageable = page.nextPageable();
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Customer search index rebuild failed: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(fresh::upsert);
+            pendingDuringRebuild = null;
+            state = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMs = System.currentTimeMillis() - start;
+        lastRebuildAt = LocalDateTime.now();
+        logger.info("🔎 Customer search index built: {} customers, {} terms in {} ms",
+            fresh.live(), fresh.terms.size(), lastRebuildMs);
+    }
+
+    /**
+     * Indexa (o re-indexa) un cliente; llamado en cada guardado.
+     */
+    public void upsert(Customer customer) {
+        if (!enabled || customer == null || customer.getCustomerId() == null) return;
+        lock.writeLock().lock();
+        try {
+            state.upsert(customer);
+            if (pendingDuringRebuild != null) pendingDuringRebuild.add(customer);
+            if (state.deleted > 1000 && state.deleted > state.nextDoc * compactThreshold) {
+                state.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca clientes. Todas las palabras deben aparecer (AND); la última se
+     * trata como prefijo salvo que la consulta termine en espacio. country e
+     * industry son filtros exactos (sin acentos ni mayúsculas) opcionales.
+     */
+    public SearchResult search(String query, String country, String industry, int page, int size) {
+        long start = System.nanoTime();
+        queries.increment();
+        String raw = query == null ? "" : query;
+        List<String> tokens = SearchTokenizer.tokenize(raw);
+        boolean lastIsPrefix = !raw.isEmpty() && !Character.isWhitespace(raw.charAt(raw.length() - 1));
+        String countryFilter = country == null || country.isBlank() ? null : SearchTokenizer.normalize(country.trim());
+        String industryFilter = industry == null || industry.isBlank() ? null : SearchTokenizer.normalize(industry.trim());
+
+        lock.readLock().lock();
+        try {
+            State current = state;
+            List<Clause> clauses = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                clauses.add(current.expand(tokens.get(i), lastIsPrefix && i == tokens.size() - 1));
+            }
+
+            TopHits top = new TopHits((int) Math.min(Integer.MAX_VALUE - 8, (long) (page + 1) * size));
+            if (clauses.isEmpty()) {
+                if (countryFilter != null || industryFilter != null) {
+                    current.filterOnly(countryFilter, industryFilter, top);
+                }
+            } else if (clauses.stream().noneMatch(c -> c.lists.isEmpty())) {
+                current.match(clauses).forEach((docId, score) -> {
+                    Doc doc = current.docs[docId];
+                    if (countryFilter != null && !countryFilter.equals(doc.countryKey)) return;
+                    if (industryFilter != null && !industryFilter.equals(doc.industryKey)) return;
+                    top.offer(doc, score);
+                });
+            }
+
+            List<Hit> hits = top.sorted();
+            int from = Math.min(hits.size(), page * size);
+            List<Map<String, Object>> results = new ArrayList<>(hits.size() - from);
+            for (Hit hit : hits.subList(from, hits.size())) {
+                results.add(hit.toMap());
+            }
+            long elapsed = System.nanoTime() - start;
+            queryTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            return new SearchResult(raw, page, size, top.total, results, elapsed / 1_000_000.0, ready);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.live();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("enabled", enabled);
+            stats.put("ready", ready);
+            stats.put("documents", state.live());
+            stats.put("deletedSlots", state.deleted);
+            stats.put("terms", state.terms.size());
+            stats.put("rebuildInProgress", pendingDuringRebuild != null);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("lastRebuildMs", lastRebuildMs);
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("queries", queries.sum());
+        stats.put("p99Ms", queryTimer.percentile(0.99, TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    private static float boost(byte fields) {
+        float score = 0;
+        if ((fields & NAME) != 0) score += 3.0f;
+        if ((fields & EMAIL) != 0) score += 2.0f;
+        if ((fields & INDUSTRY) != 0) score += 2.0f;
+        if ((fields & COUNTRY) != 0) score += 2.0f;
+        if ((fields & MESSAGE) != 0) score += 1.0f;
+        return score;
+    }
+
+    /**
+     * Diccionario + posting lists + documentos. Solo se accede bajo el lock.
+     */
+    private final class State {
+        final TreeMap<String, PostingList> terms = new TreeMap<>();
+        // Filtros exactos: clave normalizada → docs
+        final Map<String, PostingList> byCountry = new HashMap<>();
+        final Map<String, PostingList> byIndustry = new HashMap<>();
+        final Map<String, Integer> docIdByCustomer = new HashMap<>();
+        Doc[] docs = new Doc[1024];
+        int nextDoc;
+        int deleted;
+
+        int live() {
+            return nextDoc - deleted;
+        }
+
+        // Un cliente re-guardado recibe un docId nuevo: las posting lists siguen ordenadas
+        void upsert(Customer customer) {
+            Integer previous = docIdByCustomer.get(customer.getCustomerId());
+            if (previous != null) {
+                docs[previous] = null;
+                deleted++;
+            }
+            int docId = nextDoc++;
+            if (docId == docs.length) docs = Arrays.copyOf(docs, docs.length * 2);
+            Doc doc = new Doc(customer);
+            docs[docId] = doc;
+            docIdByCustomer.put(customer.getCustomerId(), docId);
+            if (doc.countryKey != null) byCountry.computeIfAbsent(doc.countryKey, k -> new PostingList()).add(docId, COUNTRY);
+            if (doc.industryKey != null) byIndustry.computeIfAbsent(doc.industryKey, k -> new PostingList()).add(docId, INDUSTRY);
+
+            Map<String, Byte> fields = new HashMap<>();
+            addField(fields, customer.getName(), NAME);
+            String email = customer.getEmail();
+            addField(fields, email == null || email.indexOf('@') < 0 ? email : email.substring(0, email.indexOf('@')), EMAIL);
+            addField(fields, customer.getIndustry(), INDUSTRY);
+            addField(fields, customer.getCountry(), COUNTRY);
+            addField(fields, customer.getLastMessage(), MESSAGE);
+            fields.forEach((term, mask) -> terms.computeIfAbsent(term, t -> new PostingList()).add(docId, mask));
+        }
+
+        private void addField(Map<String, Byte> fields, String text, byte field) {
+            for (String token : SearchTokenizer.tokenize(text)) {
+                fields.merge(token, field, (a, b) -> (byte) (a | b));
+            }
+        }
+
+        // Renumera los docs vivos en el mismo orden y purga las posting lists
+        void compact() {
+            int[] remap = new int[nextDoc];
+            Doc[] compacted = new Doc[Math.max(1024, Integer.highestOneBit(Math.max(1, live())) << 1)];
+            int next = 0;
+            for (int i = 0; i < nextDoc; i++) {
+                if (docs[i] == null) {
+                    remap[i] = -1;
+                } else {
+                    remap[i] = next;
+                    compacted[next] = docs[i];
+                    docIdByCustomer.put(docs[i].customerId, next);
+                    next++;
+                }
+            }
+            terms.values().removeIf(postings -> postings.remap(remap) == 0);
+            byCountry.values().removeIf(postings -> postings.remap(remap) == 0);
+            byIndustry.values().removeIf(postings -> postings.remap(remap) == 0);
+            docs = compacted;
+            nextDoc = next;
+            deleted = 0;
+        }
+
+        Clause expand(String token, boolean prefix) {
+            PostingList exact = terms.get(token);
+            List<PostingList> lists = new ArrayList<>();
+            if (exact != null) lists.add(exact);
+            if (prefix) {
+                for (PostingList expansion : terms.subMap(token, false, token + Character.MAX_VALUE, true).values()) {
+                    if (lists.size() >= maxPrefixTerms) break;
+                    lists.add(expansion);
+                }
+            }
+            return new Clause(lists, exact != null);
+        }
+
+        /**
+         * Intersección: los candidatos salen de la cláusula más selectiva y se
+         * verifican contra el resto por búsqueda binaria. docId → score.
+         */
+        Map<Integer, Float> match(List<Clause> clauses) {
+            List<Clause> ordered = new ArrayList<>(clauses);
+            ordered.sort(Comparator.comparingInt(Clause::cost));
+
+            Map<Integer, Float> scores = new HashMap<>();
+            Clause first = ordered.get(0);
+            for (int i = 0; i < first.lists.size(); i++) {
+                PostingList postings = first.lists.get(i);
+                float factor = first.factor(i);
+                for (int p = 0; p < postings.size; p++) {
+                    if (docs[postings.docs[p]] == null) continue;
+                    scores.merge(postings.docs[p], boost(postings.fields[p]) * factor, Math::max);
+                }
+            }
+            for (int c = 1; c < ordered.size() && !scores.isEmpty(); c++) {
+                Clause clause = ordered.get(c);
+                Iterator<Map.Entry<Integer, Float>> it = scores.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Integer, Float> candidate = it.next();
+                    float best = 0;
+                    for (int i = 0; i < clause.lists.size(); i++) {
+                        byte fields = clause.lists.get(i).fieldsOf(candidate.getKey());
+                        if (fields != 0) best = Math.max(best, boost(fields) * clause.factor(i));
+                    }
+                    if (best == 0) it.remove(); else candidate.setValue(candidate.getValue() + best);
+                }
+            }
+            return scores;
+        }
+
+        /**
+         * Consulta sin palabras: recorre la posting list del filtro más
+         * selectivo y verifica el otro por búsqueda binaria (score 0).
+         */
+        void filterOnly(String country, String industry, TopHits top) {
+            PostingList countryDocs = country == null ? null : byCountry.get(country);
+            PostingList industryDocs = industry == null ? null : byIndustry.get(industry);
+            if ((country != null && countryDocs == null) || (industry != null && industryDocs == null)) return;
+            PostingList driver = countryDocs == null ? industryDocs
+                : industryDocs == null || countryDocs.size <= industryDocs.size ? countryDocs : industryDocs;
+            PostingList other = driver == countryDocs ? industryDocs : countryDocs;
+            for (int p = 0; p < driver.size; p++) {
+                int docId = driver.docs[p];
+                if (docs[docId] == null) continue;
+                if (other != null && other.fieldsOf(docId) == 0) continue;
+                top.offer(docs[docId], 0f);
+            }
+        }
+    }
+
+    /**
+     * Una palabra de la consulta: el término exacto (si existe, primero) y
+     * sus expansiones de prefijo, que puntúan con penalización.
+     */
+    private static final class Clause {
+        final List<PostingList> lists;
+        final boolean exactFirst;
+
+        Clause(List<PostingList> lists, boolean exactFirst) {
+            this.lists = lists;
+            this.exactFirst = exactFirst;
+        }
+
+        float factor(int index) {
+            return exactFirst && index == 0 ? 1.0f : PREFIX_PENALTY;
+        }
+
+        int cost() {
+            return lists.stream().mapToInt(p -> p.size).sum();
+        }
+    }
+
+    /**
+     * docIds crecientes (append-only) + campos donde aparece el término
+     */
+    private static final class PostingList {
+        int[] docs = new int[4];
+        byte[] fields = new byte[4];
+        int size;
+
+        void add(int docId, byte mask) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = docId;
+            fields[size] = mask;
+            size++;
+        }
+
+        byte fieldsOf(int docId) {
+            int index = Arrays.binarySearch(docs, 0, size, docId);
+            return index < 0 ? 0 : fields[index];
+        }
+
+        int remap(int[] mapping) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int target = mapping[docs[i]];
+                if (target < 0) continue;
+                docs[kept] = target;
+                fields[kept] = fields[i];
+                kept++;
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    /**
+     * Campos que devuelve la búsqueda (sin ir al repositorio)
+     */
+    private static final class Doc {
+        final String customerId;
+        final String name;
+        final String email;
+        final String country;
+        final String industry;
+        final String businessSize;
+        final LocalDateTime lastInteraction;
+        final String countryKey;
+        final String industryKey;
+
+        Doc(Customer customer) {
+            this.customerId = customer.getCustomerId();
+            this.name = customer.getName();
+            this.email = customer.getEmail();
+            this.country = customer.getCountry();
+            this.industry = customer.getIndustry();
+            this.businessSize = customer.getBusinessSize();
+            this.lastInteraction = customer.getLastInteraction();
+            this.countryKey = country == null ? null : SearchTokenizer.normalize(country.trim());
+            this.industryKey = industry == null ? null : SearchTokenizer.normalize(industry.trim());
+        }
+    }
+
+    /**
+     * Los k mejores aciertos en un heap cuya cabeza es el peor; cuenta el total.
+     */
+    private static final class TopHits {
+        static final Comparator<Hit> ORDER = Comparator.comparingDouble((Hit h) -> -h.score)
+            .thenComparing(h -> h.doc.name == null ? "" : h.doc.name)
+            .thenComparing(h -> h.doc.customerId);
+
+        final int limit;
+        final PriorityQueue<Hit> heap;
+        int total;
+
+        TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)) + 1, ORDER.reversed());
+        }
+
+        void offer(Doc doc, float score) {
+            total++;
+            if (limit == 0) return;
+            if (heap.size() == limit) {
+                Hit worst = heap.peek();
+                if (score < worst.score) return; // atajo: no puede entrar
+                Hit hit = new Hit(doc, score);
+                if (ORDER.compare(hit, worst) >= 0) return;
+                heap.poll();
+                heap.add(hit);
+            } else {
+                heap.add(new Hit(doc, score));
+            }
+        }
+
+        List<Hit> sorted() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(ORDER);
+            return hits;
+        }
+    }
+
+    private static final class Hit {
+        final Doc doc;
+        final float score;
+
+        Hit(Doc doc, float score) {
+            this.doc = doc;
+            this.score = score;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("customerId", doc.customerId);
+            result.put("name", doc.name);
+            result.put("email", doc.email);
+            result.put("country", doc.country);
+            result.put("industry", doc.industry);
+            result.put("businessSize", doc.businessSize);
+            result.put("lastInteraction", doc.lastInteraction);
+            result.put("score", score);
+            return result;
+        }
+    }
+
+    /**
+     * Página de resultados de una búsqueda
+     */
+    public static final class SearchResult {
+        private final String query;
+        private final int page;
+        private final int size;
+        private final int total;
+        private final List<Map<String, Object>> results;
+        private final double tookMs;
+        private final boolean indexReady;
+
+        SearchResult(String query, int page, int size, int total, List<Map<String, Object>> results,
+                     double tookMs, boolean indexReady) {
+            this.query = query;
+            this.page = page;
+            this.size = size;
+            this.total = total;
+            this.results = results;
+            this.tookMs = tookMs;
+            this.indexReady = indexReady;
+        }
+
+        public String getQuery() { return query; }
+        public int getPage() { return page; }
+        public int getSize() { return size; }
+        public int getTotal() { return total; }
+        public int getTotalPages() { return size == 0 ? 0 : (total + size - 1) / size; }
+        public List<Map<String, Object>> getResults() { return results; }
+        public double getTookMs() { return tookMs; }
+        public boolean isIndexReady() { return indexReady; }
+    }
+}
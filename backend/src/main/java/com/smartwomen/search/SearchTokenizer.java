@@ -0,0 +1,41 @@
+package com.smartwomen.search;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Tokenizador para la búsqueda de clientes (español y portugués).
+ *
+ * Minúsculas, sin acentos ni cedilla ("Próxima" → "proxima", "atenção" →
+ * "atencao"), separación por todo lo que no sea letra o dígito y sin
+ * stopwords frecuentes de ambos idiomas. Indexación y consulta usan el
+ * mismo tokenizador.
+ */
+final class SearchTokenizer {
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "o", "e", "y", "u", "de", "da", "do", "das", "dos", "del", "la", "las", "el", "los", "lo",
+        "en", "em", "no", "na", "nos", "nas", "un", "una", "um", "uma", "con", "com", "por", "para",
+        "que", "se", "al", "es", "mi", "me", "su", "ao", "as", "os");
+
+    private SearchTokenizer() {
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "");
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
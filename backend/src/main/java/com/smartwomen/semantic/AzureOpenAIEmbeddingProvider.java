@@ -0,0 +1,54 @@
+package com.smartwomen.semantic;
+
+import com.azure.ai.openai.OpenAIClient;
+import com.azure.ai.openai.models.Embeddings;
+import com.azure.ai.openai.models.EmbeddingsOptions;
+import com.smartwomen.accounting.UsageAccountant;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Embeddings con el deployment de Azure OpenAI (AZURE_OPENAI_EMBEDDINGS_DEPLOYMENT)
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.embeddings.provider", havingValue = "azure", matchIfMissing = true)
+public class AzureOpenAIEmbeddingProvider implements EmbeddingProvider {
+
+    @Autowired
+    @Qualifier("openAIClient")
+    private ObjectProvider<OpenAIClient> openAIClient;
+
+    @Value("${azure.openai.embeddings-deployment:text-embedding-ada-002}")
+    private String embeddingsDeployment;
+
+    @Autowired
+    private UsageAccountant usageAccountant;
+
+    @Override
+    public float[] embed(String text) {
+        long start = System.nanoTime();
+        Embeddings embeddings = openAIClient.getObject()
+            .getEmbeddings(embeddingsDeployment, new EmbeddingsOptions(List.of(text)));
+        if (embeddings.getUsage() != null) {
+            usageAccountant.recordEmbedding(embeddingsDeployment, embeddings.getUsage().getPromptTokens(),
+                System.nanoTime() - start);
+        }
+        List<Float> embedding = embeddings.getData().get(0).getEmbedding();
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i);
+        }
+        return EmbeddingProvider.normalize(vector);
+    }
+
+    @Override
+    public String name() {
+        return "azure:" + embeddingsDeployment;
+    }
+}
@@ -0,0 +1,325 @@
+package com.smartwomen.semantic;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Vector store off-heap (archivos memory-mapped) de perfiles de clientes, para
+ * búsqueda de clientes similares (base del futuro agente Personalization/RAG).
+ *
+ * Cada cliente se representa con un vector de {@link #DIMENSIONS} dimensiones
+ * (industria, tamaño, país y texto de la última interacción, por feature
+ * hashing) cuantizado a int8. Los registros viven en vectors.dat y el índice
+ * customerId → slot es una tabla hash de direccionamiento abierto en index.dat;
+ * nada de esto ocupa heap. La búsqueda top-k es un escaneo paralelo del archivo.
+ *
+ * La cabecera guarda dimensiones y tamaño del índice: si cambia capacity entre
+ * corridas el índice se reconstruye desde los registros. Con el store vacío
+ * se rellena al arrancar recorriendo el repositorio por páginas.
+ */
+@Component
+public class CustomerVectorStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerVectorStore.class);
+
+    static final int DIMENSIONS = 128;
+    private static final int ID_BYTES = 47;
+    private static final int RECORD_BYTES = 1 + ID_BYTES + DIMENSIONS;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC = 0x53574356; // "SWCV"
+    private static final int SCAN_CHUNK = 65_536;
+
+    @Value("${smartwomen.vectors.path:./data/vectors}")
+    private String storePath;
+
+    @Value("${smartwomen.vectors.capacity:2000000}")
+    private int capacity;
+
+    @Value("${smartwomen.vectors.backfill-page-size:1000}")
+    private int backfillPageSize;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private FileChannel vectorChannel;
+    private FileChannel indexChannel;
+    private MappedByteBuffer vectors;
+    private MappedByteBuffer index;
+    private int indexSlots;
+    private volatile int count;
+    // Lock y no synchronized: upsert corre en el camino de cada guardado (hilos virtuales)
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @PostConstruct
+    void open() throws IOException {
+        if ((long) HEADER_BYTES + (long) capacity * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("smartwomen.vectors.capacity too large for a single mapping: " + capacity);
+        }
+        Path dir = Path.of(storePath);
+        Files.createDirectories(dir);
+        indexSlots = Integer.highestOneBit(Math.max(2, capacity)) << 2; // factor de carga <= 0.5
+
+        vectorChannel = FileChannel.open(dir.resolve("vectors.dat"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(dir.resolve("index.dat"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        vectors = vectorChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) indexSlots * Integer.BYTES);
+
+        // Cabecera: magic, dimensiones, count, slots del índice
+        if (vectors.getInt(0) == MAGIC && vectors.getInt(4) == DIMENSIONS) {
+            count = vectors.getInt(8);
+            if (count > capacity) {
+                logger.warn("⚠️ Vector store holds {} vectors but capacity is {}: extra vectors dropped", count, capacity);
+                count = capacity;
+                vectors.putInt(8, count);
+            }
+            if (vectors.getInt(12) != indexSlots) {
+                rebuildIndex(vectors.getInt(12));
+            }
+        } else {
+            vectors.putInt(0, MAGIC);
+            vectors.putInt(4, DIMENSIONS);
+            vectors.putInt(8, 0);
+            clearIndex();
+            vectors.putInt(12, indexSlots);
+            count = 0;
+        }
+        logger.info("🧭 Customer vector store opened at {} ({} vectors, capacity {})", dir, count, capacity);
+    }
+
+    // El índice se armó con otro capacity (otra máscara): se vuelve a insertar cada registro
+    private void rebuildIndex(int previousSlots) {
+        logger.info("🧭 Vector index size changed ({} → {} slots), rebuilding from {} records",
+            previousSlots, indexSlots, count);
+        clearIndex();
+        for (int slot = 0; slot < count; slot++) {
+            int offset = recordOffset(slot);
+            byte[] id = new byte[vectors.get(offset)];
+            vectors.get(offset + 1, id);
+            index.putInt(findBucket(id) * Integer.BYTES, slot + 1);
+        }
+        vectors.putInt(12, indexSlots);
+    }
+
+    private void clearIndex() {
+        for (int i = 0; i < indexSlots; i++) index.putInt(i * Integer.BYTES, 0);
+    }
+
+    /**
+     * Store vacío (primer arranque, archivo borrado): se cargan los clientes
+     * existentes para que /similar funcione sin esperar a que se reescriban.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (count > 0) return;
+        long start = System.currentTimeMillis();
+        try {
+            Pageable pageable = PageRequest.of(0, backfillPageSize);
+            while (true) {
+                Page<Customer> page = customerRepository.findAll(pageable);
+                page.forEach(this::upsert);
+                if (!page.hasNext()) break;
+                pageable = page.nextPageable();
+            }
+            logger.info("🧭 Customer vector store backfilled: {} vectors in {} ms",
+                count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("⚠️ Customer vector store backfill failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        vectors.force();
+        index.force();
+        vectorChannel.close();
+        indexChannel.close();
+    }
+
+    /**
+     * Inserta o actualiza el vector de un cliente (llamado en cada guardado).
+     */
+    public void upsert(Customer customer) {
+        String customerId = customer.getCustomerId();
+        byte[] id = customerId == null ? null : customerId.getBytes(StandardCharsets.UTF_8);
+        if (id == null || id.length > ID_BYTES) {
+            return;
+        }
+        byte[] vector = quantize(profileVector(customer));
+        writeLock.lock();
+        try {
+            upsertLocked(customerId, id, vector);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void upsertLocked(String customerId, byte[] id, byte[] vector) {
+        int bucket = findBucket(id);
+        int slot = index.getInt(bucket * Integer.BYTES) - 1;
+        if (slot < 0) {
+            if (count >= capacity) {
+                logger.warn("⚠️ Customer vector store full ({}), skipping {}", capacity, customerId);
+                return;
+            }
+            slot = count;
+            int offset = recordOffset(slot);
+            vectors.put(offset, (byte) id.length);
+            vectors.put(offset + 1, id);
+            index.putInt(bucket * Integer.BYTES, slot + 1);
+            count = slot + 1;
+            vectors.putInt(8, count);
+        }
+        vectors.put(recordOffset(slot) + 1 + ID_BYTES, vector);
+    }
+
+    /**
+     * Top-k clientes más parecidos (coseno aproximado) al cliente dado.
+     */
+    public List<Map<String, Object>> findSimilar(String customerId, int k) {
+        byte[] id = customerId.getBytes(StandardCharsets.UTF_8);
+        int slot;
+        writeLock.lock();
+        try {
+            slot = id.length > ID_BYTES ? -1 : index.getInt(findBucket(id) * Integer.BYTES) - 1;
+        } finally {
+            writeLock.unlock();
+        }
+        if (slot < 0) {
+            return List.of();
+        }
+        byte[] query = new byte[DIMENSIONS];
+        vectors.get(recordOffset(slot) + 1 + ID_BYTES, query);
+
+        int total = count;
+        int chunks = (total + SCAN_CHUNK - 1) / SCAN_CHUNK;
+        final int self = slot;
+        List<long[]> candidates = IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> scanChunk(query, chunk * SCAN_CHUNK, Math.min(total, (chunk + 1) * SCAN_CHUNK), self, k))
+            .flatMap(List::stream)
+            .sorted((a, b) -> Long.compare(b[1], a[1]))
+            .limit(k)
+            .toList();
+
+        List<Map<String, Object>> results = new ArrayList<>(candidates.size());
+        for (long[] candidate : candidates) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("customerId", readId((int) candidate[0]));
+            result.put("similarity", candidate[1] / (127.0 * 127.0));
+            results.add(result);
+        }
+        return results;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private List<long[]> scanChunk(byte[] query, int from, int to, int self, int k) {
+        PriorityQueue<long[]> top = new PriorityQueue<>(k + 1, Comparator.comparingLong(a -> a[1]));
+        for (int slot = from; slot < to; slot++) {
+            if (slot == self) continue;
+            int offset = recordOffset(slot) + 1 + ID_BYTES;
+            long dot = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                dot += query[d] * vectors.get(offset + d);
+            }
+            if (top.size() < k) {
+                top.add(new long[]{slot, dot});
+            } else if (dot > top.peek()[1]) {
+                top.poll();
+                top.add(new long[]{slot, dot});
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    // Sondeo lineal: devuelve el bucket que contiene el id o el primero vacío
+    private int findBucket(byte[] id) {
+        int mask = indexSlots - 1;
+        int bucket = mix(Arrays.hashCode(id)) & mask;
+        while (true) {
+            int slot = index.getInt(bucket * Integer.BYTES) - 1;
+            if (slot < 0 || idEquals(slot, id)) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    private boolean idEquals(int slot, byte[] id) {
+        int offset = recordOffset(slot);
+        if (vectors.get(offset) != id.length) return false;
+        for (int i = 0; i < id.length; i++) {
+            if (vectors.get(offset + 1 + i) != id[i]) return false;
+        }
+        return true;
+    }
+
+    private String readId(int slot) {
+        int offset = recordOffset(slot);
+        byte[] id = new byte[vectors.get(offset)];
+        vectors.get(offset + 1, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    private static int recordOffset(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    static float[] profileVector(Customer customer) {
+        float[] vector = new float[DIMENSIONS];
+        if (customer.getIndustry() != null) {
+            HashingEmbeddingProvider.addFeature(vector, "industry=" + customer.getIndustry().toLowerCase(Locale.ROOT), 3.0f);
+        }
+        if (customer.getBusinessSize() != null) {
+            HashingEmbeddingProvider.addFeature(vector, "size=" + customer.getBusinessSize().toLowerCase(Locale.ROOT), 1.5f);
+        }
+        if (customer.getCountry() != null) {
+            HashingEmbeddingProvider.addFeature(vector, "country=" + customer.getCountry().toLowerCase(Locale.ROOT), 2.0f);
+        }
+        HashingEmbeddingProvider.addText(vector, customer.getLastMessage(), 0.5f);
+        return EmbeddingProvider.normalize(vector);
+    }
+
+    private static byte[] quantize(float[] vector) {
+        byte[] quantized = new byte[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            quantized[i] = (byte) Math.round(Math.max(-1f, Math.min(1f, vector[i])) * 127);
+        }
+        return quantized;
+    }
+}
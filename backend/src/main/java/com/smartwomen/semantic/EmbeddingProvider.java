@@ -0,0 +1,20 @@
+package com.smartwomen.semantic;
+
+/**
+ * Genera embeddings normalizados (norma L2 = 1) para un texto
+ */
+public interface EmbeddingProvider {
+
+    float[] embed(String text);
+
+    String name();
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        norm = Math.sqrt(norm);
+        if (norm == 0) return vector;
+        for (int i = 0; i < vector.length; i++) vector[i] /= (float) norm;
+        return vector;
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartwomen.semantic;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Embeddings locales y deterministas (feature hashing de palabras y trigramas
+ * de caracteres). Sin llamadas remotas: para tests, simulador y desarrollo.
+ */
+@Component
+@ConditionalOnProperty(name = "smartwomen.embeddings.provider", havingValue = "local")
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private static final int DIMENSIONS = 256;
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[DIMENSIONS];
+        addText(vector, text, 1.0f);
+        return EmbeddingProvider.normalize(vector);
+    }
+
+    @Override
+    public String name() {
+        return "local-hashing";
+    }
+
+    /**
+     * Suma al vector las palabras (peso completo) y trigramas (medio peso) del texto.
+     */
+    static void addText(float[] vector, String text, float weight) {
+        if (text == null) return;
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "");
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            addFeature(vector, word, weight);
+            String padded = "#" + word + "#";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(vector, padded.substring(i, i + 3), weight / 2);
+            }
+        }
+    }
+
+    static void addFeature(float[] vector, String feature, float weight) {
+        int hash = feature.hashCode();
+        int index = Math.floorMod(hash, vector.length);
+        vector[index] += (hash & 0x40000000) == 0 ? weight : -weight;
+    }
+}
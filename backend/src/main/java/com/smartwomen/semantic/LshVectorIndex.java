@@ -0,0 +1,190 @@
+package com.smartwomen.semantic;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice aproximado de vecinos más cercanos (similitud coseno) en memoria.
+ *
+ * Random-hyperplane LSH: cada vector se firma en {@code tables} tablas de
+ * {@code bits} bits; los candidatos son los vectores que comparten bucket en
+ * alguna tabla y se re-ordenan con el coseno exacto. Acotado a
+ * {@code maxEntries} con desalojo LRU.
+ *
+ * ReentrantLock en lugar de synchronized: con hilos virtuales, esperar un
+ * monitor fija el hilo a su carrier; esperar un lock no.
+ */
+class LshVectorIndex<V> {
+
+    private final int tables;
+    private final int bits;
+    private final int maxEntries;
+    private final long seed;
+
+    private float[][][] hyperplanes;
+    private final List<Map<Integer, Set<Long>>> buckets = new ArrayList<>();
+    private final LinkedHashMap<Long, Entry<V>> entries;
+    private long nextId;
+    private long evictions;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    LshVectorIndex(int tables, int bits, int maxEntries, long seed) {
+        this.tables = tables;
+        this.bits = bits;
+        this.maxEntries = maxEntries;
+        this.seed = seed;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        for (int t = 0; t < tables; t++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    Match<V> nearest(float[] vector, String scope, double threshold) {
+        lock.lock();
+        try {
+            return nearestLocked(vector, scope, threshold);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(float[] vector, String scope, V value) {
+        lock.lock();
+        try {
+            putLocked(vector, scope, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long evictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Match<V> nearestLocked(float[] vector, String scope, double threshold) {
+        if (hyperplanes == null || hyperplanes[0][0].length != vector.length) {
+            return null;
+        }
+        int[] signature = signature(vector);
+        Entry<V> best = null;
+        double bestSimilarity = threshold;
+        Set<Long> seen = new HashSet<>();
+        for (int t = 0; t < tables; t++) {
+            Set<Long> bucket = buckets.get(t).get(signature[t]);
+            if (bucket == null) continue;
+            for (Long id : bucket) {
+                if (!seen.add(id)) continue;
+                Entry<V> candidate = entries.get(id);
+                if (candidate == null || !candidate.scope.equals(scope)) continue;
+                double similarity = dot(vector, candidate.vector);
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = candidate;
+                }
+            }
+        }
+        if (best == null) return null;
+        entries.get(best.id); // marcar como usado recientemente (LRU)
+        return new Match<>(best.value, bestSimilarity);
+    }
+
+    private void putLocked(float[] vector, String scope, V value) {
+        if (hyperplanes == null || hyperplanes[0][0].length != vector.length) {
+            initHyperplanes(vector.length);
+        }
+        Entry<V> entry = new Entry<>(nextId++, vector, scope, value, signature(vector));
+        entries.put(entry.id, entry);
+        for (int t = 0; t < tables; t++) {
+            buckets.get(t).computeIfAbsent(entry.signature[t], k -> new HashSet<>()).add(entry.id);
+        }
+        while (entries.size() > maxEntries) {
+            evict(entries.keySet().iterator().next());
+        }
+    }
+
+    private void evict(Long id) {
+        Entry<V> entry = entries.remove(id);
+        if (entry == null) return;
+        evictions++;
+        for (int t = 0; t < tables; t++) {
+            Set<Long> bucket = buckets.get(t).get(entry.signature[t]);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) buckets.get(t).remove(entry.signature[t]);
+            }
+        }
+    }
+
+    // Reinicia el índice si cambia la dimensión (otro modelo de embeddings)
+    private void initHyperplanes(int dimensions) {
+        entries.clear();
+        buckets.forEach(Map::clear);
+        Random random = new Random(seed);
+        hyperplanes = new float[tables][bits][dimensions];
+        for (int t = 0; t < tables; t++) {
+            for (int b = 0; b < bits; b++) {
+                for (int d = 0; d < dimensions; d++) {
+                    hyperplanes[t][b][d] = (float) random.nextGaussian();
+                }
+            }
+        }
+    }
+
+    private int[] signature(float[] vector) {
+        int[] signature = new int[tables];
+        for (int t = 0; t < tables; t++) {
+            int hash = 0;
+            for (int b = 0; b < bits; b++) {
+                if (dot(vector, hyperplanes[t][b]) >= 0) hash |= 1 << b;
+            }
+            signature[t] = hash;
+        }
+        return signature;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    private static final class Entry<V> {
+        final long id;
+        final float[] vector;
+        final String scope;
+        final V value;
+        final int[] signature;
+
+        Entry(long id, float[] vector, String scope, V value, int[] signature) {
+            this.id = id;
+            this.vector = vector;
+            this.scope = scope;
+            this.value = value;
+            this.signature = signature;
+        }
+    }
+
+    static final class Match<V> {
+        final V value;
+        final double similarity;
+
+        Match(V value, double similarity) {
+            this.value = value;
+            this.similarity = similarity;
+        }
+    }
+}
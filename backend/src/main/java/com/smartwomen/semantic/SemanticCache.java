@@ -0,0 +1,200 @@
+package com.smartwomen.semantic;
+
+import com.smartwomen.accounting.UsageContext;
+import com.smartwomen.capture.CaptureContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cache semántico de resultados de agentes GPT-4 (BiasGuard, Planner).
+ *
+ * Embebe el mensaje y busca en un índice LSH por agente; si la similitud
+ * coseno supera el umbral se reutiliza el veredicto/plan guardado. Una
+ * fracción de los hits (audit-rate) se re-evalúa en segundo plano contra el
+ * modelo para medir la tasa de reutilización incorrecta.
+ */
+@Component
+public class SemanticCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticCache.class);
+
+    @Autowired
+    private EmbeddingProvider embeddingProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.semantic-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${smartwomen.semantic-cache.similarity-threshold:0.95}")
+    private double similarityThreshold;
+
+    @Value("${smartwomen.semantic-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${smartwomen.semantic-cache.audit-rate:0.02}")
+    private double auditRate;
+
+    private final Map<String, AgentCache> caches = new ConcurrentHashMap<>();
+
+    // Auditorías en segundo plano: si la cola está llena se descartan
+    private final ExecutorService auditExecutor = new ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64),
+        r -> {
+            Thread t = new Thread(r, "semantic-cache-audit");
+            t.setDaemon(true);
+            return t;
+        },
+        new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * Busca un resultado reutilizable. scope separa contextos que no deben
+     * mezclarse aunque el texto sea parecido (p. ej. el resumen de contexto del planner).
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Lookup<V> lookup(String agent, String scope, String text) {
+        if (!enabled || text == null || text.isBlank()) {
+            return new Lookup<>(agent, scope, null, null, 0.0);
+        }
+        AgentCache cache = cacheFor(agent);
+        float[] embedding;
+        try {
+            embedding = embeddingProvider.embed(text);
+        } catch (Exception e) {
+            logger.warn("⚠️ Embedding failed for {} ({}), skipping semantic cache", agent, e.getMessage());
+            cache.errors.increment();
+            return new Lookup<>(agent, scope, null, null, 0.0);
+        }
+        LshVectorIndex.Match<Object> match = cache.index.nearest(embedding, scope, similarityThreshold);
+        if (match == null) {
+            cache.misses.increment();
+            return new Lookup<>(agent, scope, embedding, null, 0.0);
+        }
+        cache.hits.increment();
+        return new Lookup<>(agent, scope, embedding, (V) match.value, match.similarity);
+    }
+
+    public <V> void store(Lookup<V> lookup, V value) {
+        if (lookup.embedding == null || value == null) return;
+        cacheFor(lookup.agent).index.put(lookup.embedding, lookup.scope, value);
+    }
+
+    /**
+     * Con probabilidad audit-rate, re-evalúa un hit contra el modelo en segundo
+     * plano. agrees debe devolver true si el resultado fresco coincide con el cacheado.
+     * La llamada al modelo se atribuye al cliente y agente del request original
+     * (UsageContext) y queda ligada a su captura (CaptureContext).
+     */
+    public void audit(Lookup<?> lookup, BooleanSupplier agrees) {
+        if (!lookup.isHit() || ThreadLocalRandom.current().nextDouble() >= auditRate) return;
+        AgentCache cache = cacheFor(lookup.agent);
+        String customerId = UsageContext.customerId();
+        String agent = UsageContext.agent() != null ? UsageContext.agent() : lookup.agent;
+        auditExecutor.submit(CaptureContext.wrap(() -> {
+            UsageContext.set(customerId, agent);
+            try {
+                cache.audits.increment();
+                if (!agrees.getAsBoolean()) {
+                    cache.falseReuse.increment();
+                    logger.warn("⚠️ SEMANTIC CACHE false reuse for {} (similarity {})",
+                        lookup.agent, String.format("%.3f", lookup.similarity));
+                }
+            } catch (Exception e) {
+                logger.debug("Semantic cache audit failed: {}", e.getMessage());
+            } finally {
+                UsageContext.clear();
+            }
+            return null;
+        }));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("embeddingProvider", embeddingProvider.name());
+        stats.put("similarityThreshold", similarityThreshold);
+        caches.forEach((agent, cache) -> stats.put(agent, cache.stats()));
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        auditExecutor.shutdownNow();
+    }
+
+    private AgentCache cacheFor(String agent) {
+        return caches.computeIfAbsent(agent, a -> new AgentCache(a, new LshVectorIndex<>(8, 12, maxEntries, a.hashCode())));
+    }
+
+    private final class AgentCache {
+        final LshVectorIndex<Object> index;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder audits = new LongAdder();
+        final LongAdder falseReuse = new LongAdder();
+
+        AgentCache(String agent, LshVectorIndex<Object> index) {
+            this.index = index;
+            Gauge.builder("semantic.cache.size", index, LshVectorIndex::size).tag("agent", agent).register(meterRegistry);
+            Gauge.builder("semantic.cache.hit.rate", this, AgentCache::hitRate).tag("agent", agent).register(meterRegistry);
+            Gauge.builder("semantic.cache.false.reuse", falseReuse, LongAdder::sum).tag("agent", agent).register(meterRegistry);
+            Gauge.builder("semantic.cache.audits", audits, LongAdder::sum).tag("agent", agent).register(meterRegistry);
+        }
+
+        double hitRate() {
+            long total = hits.sum() + misses.sum();
+            return total == 0 ? 0.0 : (double) hits.sum() / total;
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", index.size());
+            stats.put("hits", hits.sum());
+            stats.put("misses", misses.sum());
+            stats.put("hitRate", hitRate());
+            stats.put("evictions", index.evictions());
+            stats.put("embeddingErrors", errors.sum());
+            stats.put("audits", audits.sum());
+            stats.put("falseReuse", falseReuse.sum());
+            return stats;
+        }
+    }
+
+    /**
+     * Resultado de una búsqueda; conserva el embedding para guardar sin re-embeber.
+     */
+    public static final class Lookup<V> {
+        private final String agent;
+        private final String scope;
+        private final float[] embedding;
+        private final V value;
+        private final double similarity;
+
+        Lookup(String agent, String scope, float[] embedding, V value, double similarity) {
+            this.agent = agent;
+            this.scope = scope;
+            this.embedding = embedding;
+            this.value = value;
+            this.similarity = similarity;
+        }
+
+        public boolean isHit() { return value != null; }
+        public V getValue() { return value; }
+        public double getSimilarity() { return similarity; }
+    }
+}
@@ -0,0 +1,393 @@
+package com.smartwomen.service;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.ThroughputControlGroupConfig;
+import com.azure.cosmos.ThroughputControlGroupConfigBuilder;
+import com.azure.cosmos.models.CosmosBulkExecutionOptions;
+import com.azure.cosmos.models.CosmosBulkItemResponse;
+import com.azure.cosmos.models.CosmosBulkOperationResponse;
+import com.azure.cosmos.models.CosmosBulkOperations;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.PartitionKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smartwomen.config.AgentExecutors;
+import com.smartwomen.models.Customer;
+import com.smartwomen.models.ImportProgress;
+import com.smartwomen.repository.CustomerRepository;
+import com.smartwomen.search.CustomerSearchIndex;
+import com.smartwomen.semantic.CustomerVectorStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Importación masiva de clientes (CSV / NDJSON) vía Cosmos bulk executor.
+ *
+ * Lee el stream por lotes sin cargarlo completo en memoria y lo escribe con
+ * un grupo de throughput control local que limita el consumo de RU, para no
+ * dejar sin capacidad al tráfico en vivo. El bulk executor ya reparte las
+ * operaciones por rango de partición.
+ * El body se vuelca a un archivo temporal y la importación corre en un pool
+ * propio: el request responde con el jobId sin esperar a Cosmos.
+ * En el perfil "local" (sin Cosmos) los lotes se guardan con saveAll.
+ */
+@Service
+public class CustomerBulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerBulkImportService.class);
+
+    private static final String THROUGHPUT_GROUP = "bulk-import";
+    private static final Set<Integer> TRANSIENT_STATUS = Set.of(408, 410, 429, 449, 503);
+    private static final List<String> CSV_COLUMNS =
+        List.of("customerId", "name", "email", "country", "industry", "businessSize");
+
+    @Autowired(required = false)
+    @Qualifier("customersContainer")
+    private CosmosAsyncContainer customersContainer;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerVectorStore customerVectorStore;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${smartwomen.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${smartwomen.import.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${smartwomen.import.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    // Fracción máxima del throughput provisionado que puede usar la importación
+    @Value("${smartwomen.import.throughput-threshold:0.3}")
+    private double throughputThreshold;
+
+    // Importaciones simultáneas; comparten el tope de RU, así que más no acelera
+    @Value("${smartwomen.import.concurrency:1}")
+    private int concurrency;
+
+    // Los jobs terminados se olvidan pasado este tiempo o por encima de max-jobs
+    @Value("${smartwomen.import.job-ttl-minutes:60}")
+    private long jobTtlMinutes;
+
+    @Value("${smartwomen.import.max-jobs:100}")
+    private int maxJobs;
+
+    private final Map<String, ImportProgress> jobs = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        // Pool fijo también con hilos virtuales: acota las importaciones en curso
+        executor = Executors.newFixedThreadPool(Math.max(1, concurrency), AgentExecutors.daemonFactory("customer-import"));
+        if (customersContainer == null) {
+            return;
+        }
+        ThroughputControlGroupConfig groupConfig = new ThroughputControlGroupConfigBuilder()
+            .groupName(THROUGHPUT_GROUP)
+            .targetThroughputThreshold(throughputThreshold)
+            .build();
+        customersContainer.enableLocalThroughputControlGroup(groupConfig);
+        logger.info("📦 Bulk import throughput capped at {}% of provisioned RU", throughputThreshold * 100);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Encola la importación de un stream CSV (con cabecera) o NDJSON y devuelve
+     * su progreso (QUEUED). El stream del request se copia a un archivo
+     * temporal antes de volver; un CSV sin cabecera reconocible se rechaza
+     * aquí mismo (FAILED sin filas leídas).
+     */
+    public ImportProgress importCustomers(InputStream input, boolean ndjson) throws IOException {
+        evictFinishedJobs();
+        ImportProgress progress = new ImportProgress(UUID.randomUUID().toString(), ndjson ? "ndjson" : "csv");
+        jobs.put(progress.getJobId(), progress);
+
+        Path file = Files.createTempFile("customer-import-", ndjson ? ".ndjson" : ".csv");
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            if (!ndjson) {
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    parseCsvHeader(reader.readLine());
+                }
+            }
+            executor.execute(() -> {
+                try {
+                    runImport(file, ndjson, progress);
+                } finally {
+                    deleteQuietly(file);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            progress.fail(e.getMessage());
+            deleteQuietly(file);
+        } catch (IOException | RuntimeException e) {
+            progress.fail(e.getMessage());
+            deleteQuietly(file);
+            throw e;
+        }
+        return progress;
+    }
+
+    private void runImport(Path file, boolean ndjson, ImportProgress progress) {
+        progress.start();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> columns = ndjson ? null : parseCsvHeader(reader.readLine());
+            List<Customer> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Customer customer = ndjson ? parseNdjson(line) : parseCsv(line, columns);
+                if (customer == null) {
+                    progress.addRejectedLine();
+                    continue;
+                }
+                batch.add(customer);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, progress);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch, progress);
+            }
+            progress.complete();
+            logger.info("✅ IMPORT {} done: {} imported, {} failed, {} RU, {} docs/s",
+                progress.getJobId(), progress.getImported(), progress.getFailed(),
+                Math.round(progress.getRequestUnits()), Math.round(progress.getDocsPerSecond()));
+        } catch (Exception e) {
+            logger.error("❌ IMPORT {} FAILED", progress.getJobId(), e);
+            progress.fail(e.getMessage());
+        }
+    }
+
+    public Optional<ImportProgress> getProgress(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public Collection<ImportProgress> getAllProgress() {
+        evictFinishedJobs();
+        return jobs.values();
+    }
+
+    // Los jobs en curso no se tocan; de los terminados, primero los vencidos y luego los más viejos
+    private void evictFinishedJobs() {
+        Instant expiry = Instant.now().minus(Duration.ofMinutes(jobTtlMinutes));
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiry));
+        int excess = jobs.size() - maxJobs;
+        if (excess > 0) {
+            jobs.values().stream()
+                .filter(ImportProgress::isFinished)
+                .sorted(Comparator.comparing(ImportProgress::getFinishedAt))
+                .limit(excess)
+                .toList()
+                .forEach(job -> jobs.remove(job.getJobId()));
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Temp import file not deleted: {}", e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<Customer> batch, ImportProgress progress) throws InterruptedException {
+        progress.addRead(batch.size());
+        if (customersContainer == null) {
+            writeBatchToRepository(batch, progress);
+            return;
+        }
+
+        // Operación → cliente: los índices locales se actualizan solo con las escrituras confirmadas
+        Map<CosmosItemOperation, Customer> customers = new IdentityHashMap<>();
+        List<CosmosItemOperation> pending = new ArrayList<>(batch.size());
+        for (Customer customer : batch) {
+            if (customer.getCustomerId() == null || customer.getCustomerId().isBlank()) {
+                customer.setCustomerId(UUID.randomUUID().toString());
+            }
+            if (customer.getId() == null) {
+                customer.setId(customer.getCustomerId());
+            }
+            ObjectNode document = objectMapper.convertValue(customer, ObjectNode.class);
+            CosmosItemOperation operation = CosmosBulkOperations.getUpsertItemOperation(
+                document, new PartitionKey(customer.getCustomerId()));
+            customers.put(operation, customer);
+            pending.add(operation);
+        }
+
+        CosmosBulkExecutionOptions options = new CosmosBulkExecutionOptions()
+            .setThroughputControlGroupName(THROUGHPUT_GROUP);
+
+        for (int attempt = 0; !pending.isEmpty() && attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                progress.addRetried(pending.size());
+                Thread.sleep(retryBackoffMs * (1L << Math.min(attempt - 1, 6)));
+            }
+            List<CosmosBulkOperationResponse<Object>> responses = customersContainer
+                .executeBulkOperations(Flux.fromIterable(pending), options)
+                .collectList()
+                .block();
+
+            List<CosmosItemOperation> retry = new ArrayList<>();
+            for (CosmosBulkOperationResponse<Object> response : responses) {
+                CosmosBulkItemResponse item = response.getResponse();
+                if (item != null) {
+                    progress.addRequestUnits(item.getRequestCharge());
+                }
+                if (item != null && item.isSuccessStatusCode()) {
+                    progress.addImported(1);
+                    Customer customer = customers.get(response.getOperation());
+                    if (customer != null) {
+                        customerVectorStore.upsert(customer);
+                        customerSearchIndex.upsert(customer);
+                    }
+                } else if (isTransient(item, response.getException())) {
+                    retry.add(response.getOperation());
+                } else {
+                    progress.addFailed(1);
+                }
+            }
+            pending = retry;
+        }
+
+        if (!pending.isEmpty()) {
+            logger.warn("⚠️ IMPORT {}: {} documents failed after {} retries",
+                progress.getJobId(), pending.size(), maxRetries);
+            progress.addFailed(pending.size());
+        }
+    }
+
+    private void writeBatchToRepository(List<Customer> batch, ImportProgress progress) {
+        for (Customer customer : batch) {
+            if (customer.getCustomerId() == null || customer.getCustomerId().isBlank()) {
+                customer.setCustomerId(UUID.randomUUID().toString());
+            }
+        }
+        try {
+            List<Customer> saved = customerRepository.saveAll(batch);
+            saved.forEach(c -> {
+                customerVectorStore.upsert(c);
+                customerSearchIndex.upsert(c);
+            });
+            progress.addImported(saved.size());
+        } catch (Exception e) {
+            logger.warn("⚠️ IMPORT {}: batch of {} failed: {}", progress.getJobId(), batch.size(), e.getMessage());
+            progress.addFailed(batch.size());
+        }
+    }
+
+    private boolean isTransient(CosmosBulkItemResponse item, Exception exception) {
+        if (item != null) {
+            return TRANSIENT_STATUS.contains(item.getStatusCode());
+        }
+        return exception instanceof CosmosException
+            && TRANSIENT_STATUS.contains(((CosmosException) exception).getStatusCode());
+    }
+
+    private Customer parseNdjson(String line) {
+        try {
+            return objectMapper.readValue(line, Customer.class);
+        } catch (IOException e) {
+            logger.debug("Skipping invalid NDJSON line: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Sin cabecera reconocible se rechaza el archivo: asumir columnas perdería la primera fila
+    private List<String> parseCsvHeader(String header) {
+        if (header == null) {
+            return CSV_COLUMNS;
+        }
+        List<String> columns = splitCsvLine(header);
+        if (columns.stream().noneMatch(CSV_COLUMNS::contains)) {
+            throw new IllegalArgumentException("CSV header not recognized, expected columns from " + CSV_COLUMNS);
+        }
+        return columns;
+    }
+
+    private Customer parseCsv(String line, List<String> columns) {
+        List<String> values = splitCsvLine(line);
+        if (values.size() != columns.size()) {
+            return null;
+        }
+        Customer customer = new Customer();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            switch (columns.get(i)) {
+                case "customerId": customer.setCustomerId(value); break;
+                case "name": customer.setName(value); break;
+                case "email": customer.setEmail(value); break;
+                case "country": customer.setCountry(value); break;
+                case "industry": customer.setIndustry(value); break;
+                case "businessSize": customer.setBusinessSize(value); break;
+                default: break;
+            }
+        }
+        return customer;
+    }
+
+    // CSV RFC 4180 básico: comillas dobles y "" como escape
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+}
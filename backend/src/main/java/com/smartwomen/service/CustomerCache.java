@@ -0,0 +1,181 @@
+package com.smartwomen.service;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.smartwomen.models.Customer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Near cache en proceso para lecturas de clientes (por customerId y por email).
+ *
+ * Acotado por tamaño y TTL; las escrituras de CustomerService lo actualizan
+ * directamente. Con revalidate-after-ms > 0, las entradas más antiguas se
+ * revalidan con una lectura condicional por ETag (304 = sin cambios) antes de
+ * servirlas (solo con Cosmos). Las instancias devueltas se comparten: tratarlas
+ * como solo lectura.
+ */
+@Component
+public class CustomerCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerCache.class);
+
+    @Value("${smartwomen.cache.customers.max-size:10000}")
+    private long maxSize;
+
+    @Value("${smartwomen.cache.customers.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // 0 = sin revalidación por ETag
+    @Value("${smartwomen.cache.customers.revalidate-after-ms:0}")
+    private long revalidateAfterMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    @Qualifier("customersContainer")
+    private CosmosAsyncContainer customersContainer;
+
+    private Cache<String, CachedCustomer> byId;
+    private Cache<String, String> customerIdByEmail;
+
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        byId = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        customerIdByEmail = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "customers.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerIdByEmail, "customers.byEmail");
+    }
+
+    public Optional<Customer> getById(String customerId, Function<String, Optional<Customer>> loader) {
+        CachedCustomer cached = byId.getIfPresent(customerId);
+        if (cached != null && isFresh(cached)) {
+            return Optional.of(cached.customer);
+        }
+        Optional<Customer> loaded = loader.apply(customerId);
+        loaded.ifPresentOrElse(this::put, () -> byId.invalidate(customerId));
+        return loaded;
+    }
+
+    public Optional<Customer> getByEmail(String email, Function<String, Optional<Customer>> loader) {
+        String customerId = customerIdByEmail.getIfPresent(email);
+        if (customerId != null) {
+            CachedCustomer cached = byId.getIfPresent(customerId);
+            if (cached != null && email.equals(cached.customer.getEmail()) && isFresh(cached)) {
+                return Optional.of(cached.customer);
+            }
+        }
+        Optional<Customer> loaded = loader.apply(email);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public void put(Customer customer) {
+        if (customer == null || customer.getCustomerId() == null) return;
+        CachedCustomer previous = byId.getIfPresent(customer.getCustomerId());
+        if (previous != null && previous.customer.getEmail() != null
+                && !previous.customer.getEmail().equals(customer.getEmail())) {
+            customerIdByEmail.invalidate(previous.customer.getEmail());
+        }
+        byId.put(customer.getCustomerId(), new CachedCustomer(customer));
+        if (customer.getEmail() != null) {
+            customerIdByEmail.put(customer.getEmail(), customer.getCustomerId());
+        }
+    }
+
+    public void invalidate(String customerId) {
+        CachedCustomer previous = byId.getIfPresent(customerId);
+        if (previous != null && previous.customer.getEmail() != null) {
+            customerIdByEmail.invalidate(previous.customer.getEmail());
+        }
+        byId.invalidate(customerId);
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats idStats = byId.stats();
+        CacheStats emailStats = customerIdByEmail.stats();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", byId.estimatedSize());
+        stats.put("byIdHitRate", idStats.hitRate());
+        stats.put("byIdHits", idStats.hitCount());
+        stats.put("byIdMisses", idStats.missCount());
+        stats.put("byEmailHitRate", emailStats.hitRate());
+        stats.put("evictions", idStats.evictionCount());
+        stats.put("etagRevalidations", revalidations.sum());
+        stats.put("etagNotModified", notModified.sum());
+        return stats;
+    }
+
+    private boolean isFresh(CachedCustomer cached) {
+        if (revalidateAfterMs <= 0 || System.currentTimeMillis() - cached.validatedAt < revalidateAfterMs) {
+            return true;
+        }
+        Customer customer = cached.customer;
+        if (customersContainer == null || customer.getId() == null || customer.get_etag() == null) {
+            return false;
+        }
+        revalidations.increment();
+        try {
+            CosmosItemRequestOptions options = new CosmosItemRequestOptions()
+                .setIfNoneMatchETag(customer.get_etag());
+            CosmosItemResponse<ObjectNode> response = customersContainer
+                .readItem(customer.getId(), new PartitionKey(customer.getCustomerId()), options, ObjectNode.class)
+                .block();
+            return response != null && response.getStatusCode() == 304 && markValidated(cached);
+        } catch (CosmosException e) {
+            if (e.getStatusCode() == 304) {
+                return markValidated(cached);
+            }
+            logger.warn("⚠️ ETag revalidation failed for {}: {}", customer.getCustomerId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean markValidated(CachedCustomer cached) {
+        notModified.increment();
+        cached.validatedAt = System.currentTimeMillis();
+        return true;
+    }
+
+    private static final class CachedCustomer {
+        final Customer customer;
+        volatile long validatedAt = System.currentTimeMillis();
+
+        CachedCustomer(Customer customer) {
+            this.customer = customer;
+        }
+    }
+}
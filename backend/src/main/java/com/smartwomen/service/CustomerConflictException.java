@@ -0,0 +1,25 @@
+package com.smartwomen.service;
+
+/**
+ * Escritura de cliente rechazada por concurrencia: el If-Match del request no
+ * coincide con la versión actual (412) o se agotaron los reintentos (409)
+ */
+public class CustomerConflictException extends RuntimeException {
+
+    private final boolean preconditionFailed;
+    private final String currentEtag;
+
+    public CustomerConflictException(String message, boolean preconditionFailed, String currentEtag) {
+        super(message);
+        this.preconditionFailed = preconditionFailed;
+        this.currentEtag = currentEtag;
+    }
+
+    public boolean isPreconditionFailed() {
+        return preconditionFailed;
+    }
+
+    public String getCurrentEtag() {
+        return currentEtag;
+    }
+}
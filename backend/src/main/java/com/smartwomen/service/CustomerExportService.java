@@ -0,0 +1,363 @@
+package com.smartwomen.service;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de clientes para analítica (BI), en streaming.
+ *
+ * Recorre el repositorio por páginas de clave (customerId > último visto, sin count) y
+ * aplana los campos clave de lastAgentResults (idioma, sentimiento,
+ * confianza, acción y severidad de BiasGuard) en columnas. Parquet se
+ * escribe directo al stream de salida: en memoria solo hay una página de
+ * clientes y el row group en curso, así que el consumo no crece con el
+ * número de filas. CSV (gzip) queda como alternativa para herramientas sin
+ * soporte Parquet.
+ */
+@Service
+public class CustomerExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerExportService.class);
+
+    // Límites del rango cuando no se indica since/until
+    private static final LocalDateTime MIN_INTERACTION = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final List<Column> COLUMNS = List.of(
+        new Column("customerId", ColumnType.STRING, Customer::getCustomerId),
+        new Column("name", ColumnType.STRING, Customer::getName),
+        new Column("email", ColumnType.STRING, Customer::getEmail),
+        new Column("country", ColumnType.STRING, Customer::getCountry),
+        new Column("industry", ColumnType.STRING, Customer::getIndustry),
+        new Column("businessSize", ColumnType.STRING, Customer::getBusinessSize),
+        new Column("createdAt", ColumnType.TIMESTAMP, Customer::getCreatedAt),
+        new Column("lastInteraction", ColumnType.TIMESTAMP, Customer::getLastInteraction),
+        new Column("language", ColumnType.STRING, c -> metadata(c, "LanguageDetector", "primaryLanguage")),
+        new Column("languageConfidence", ColumnType.DOUBLE, c -> agentField(c, "LanguageDetector", "confidence")),
+        new Column("mixedLanguage", ColumnType.BOOLEAN, c -> metadata(c, "LanguageDetector", "mixedLanguage")),
+        new Column("sentiment", ColumnType.STRING, c -> metadata(c, "SentimentAnalyzer", "sentiment")),
+        new Column("sentimentConfidence", ColumnType.DOUBLE, c -> agentField(c, "SentimentAnalyzer", "confidence")),
+        new Column("requiresEscalation", ColumnType.BOOLEAN, c -> metadata(c, "SentimentAnalyzer", "requiresEscalation")),
+        new Column("biasDetected", ColumnType.BOOLEAN, c -> metadata(c, "BiasGuard", "biasDetected")),
+        new Column("biasAction", ColumnType.STRING, c -> metadata(c, "BiasGuard", "finalAction")),
+        new Column("biasSeverity", ColumnType.DOUBLE, c -> metadata(c, "BiasGuard", "severity")));
+
+    private static final MessageType SCHEMA = buildSchema();
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.export.page-size:1000}")
+    private int pageSize;
+
+    @Value("${smartwomen.export.row-group-mb:32}")
+    private int rowGroupMb;
+
+    // SNAPPY, ZSTD, GZIP o UNCOMPRESSED
+    @Value("${smartwomen.export.parquet-codec:SNAPPY}")
+    private String parquetCodec;
+
+    public enum Format {
+        PARQUET("application/vnd.apache.parquet", "parquet"),
+        CSV("application/gzip", "csv.gz");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        /**
+         * @throws IllegalArgumentException si el formato no es parquet ni csv
+         */
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) return format;
+            }
+            throw new IllegalArgumentException("Unknown export format: " + value + " (parquet, csv)");
+        }
+    }
+
+    /**
+     * Escribe en out los clientes con lastInteraction en [since, until)
+     * (null = sin límite). Devuelve el número de filas.
+     */
+    public long export(OutputStream out, Format format, LocalDateTime since, LocalDateTime until) throws IOException {
+        long start = System.currentTimeMillis();
+        LocalDateTime from = since != null ? since : MIN_INTERACTION;
+        LocalDateTime to = until != null ? until : LocalDateTime.now();
+        CountingOutputStream counting = new CountingOutputStream(out);
+
+        long rows;
+        if (format == Format.CSV) {
+            rows = exportCsv(counting, from, to);
+        } else {
+            rows = exportParquet(counting, from, to);
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        meterRegistry.counter("export.customers.rows", "format", format.name().toLowerCase(Locale.ROOT)).increment(rows);
+        logger.info("📤 EXPORT {} rows as {} ({} KB) in {} ms, lastInteraction {} .. {}",
+            rows, format, counting.position / 1024, elapsed, from, to);
+        return rows;
+    }
+
+    private long exportParquet(CountingOutputStream out, LocalDateTime from, LocalDateTime to) throws IOException {
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        long rows = 0;
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new StreamOutputFile(out))
+                .withType(SCHEMA)
+                .withConf(new Configuration(false))
+                .withCompressionCodec(CompressionCodecName.valueOf(parquetCodec.toUpperCase(Locale.ROOT)))
+                .withRowGroupSize(rowGroupMb * 1024 * 1024)
+                .withDictionaryEncoding(true)
+                .build()) {
+            rows = scan(from, to, customer -> writer.write(toGroup(groups, customer)));
+        }
+        return rows;
+    }
+
+    private long exportCsv(CountingOutputStream out, LocalDateTime from, LocalDateTime to) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) writer.write(',');
+            writer.write(COLUMNS.get(i).name);
+        }
+        writer.write('\n');
+
+        long rows = scan(from, to, customer -> {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) writer.write(',');
+                Object value = COLUMNS.get(i).value(customer);
+                if (value != null) writer.write(csvEscape(String.valueOf(value)));
+            }
+            writer.write('\n');
+        });
+        writer.flush();
+        gzip.finish();
+        return rows;
+    }
+
+    // Páginas de clave hasta que una venga incompleta
+    private long scan(LocalDateTime from, LocalDateTime to, RowWriter rowWriter) throws IOException {
+        long rows = 0;
+        String after = "";
+        while (true) {
+            List<Customer> page = customerRepository.findByLastInteractionRange(from, to, after, pageSize);
+            for (Customer customer : page) {
+                rowWriter.write(customer);
+                rows++;
+            }
+            if (page.size() < pageSize) return rows;
+            after = page.get(page.size() - 1).getCustomerId();
+        }
+    }
+
+    private interface RowWriter {
+        void write(Customer customer) throws IOException;
+    }
+
+    private static Group toGroup(SimpleGroupFactory groups, Customer customer) {
+        Group group = groups.newGroup();
+        for (Column column : COLUMNS) {
+            Object value = column.value(customer);
+            if (value == null) continue;
+            switch (column.type) {
+                case STRING -> group.append(column.name, (String) value);
+                case DOUBLE -> group.append(column.name, (Double) value);
+                case BOOLEAN -> group.append(column.name, (Boolean) value);
+                case TIMESTAMP -> group.append(column.name, (Long) value);
+            }
+        }
+        return group;
+    }
+
+    private static MessageType buildSchema() {
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (Column column : COLUMNS) {
+            Type.Repetition repetition = column.name.equals("customerId") ? Type.Repetition.REQUIRED : Type.Repetition.OPTIONAL;
+            switch (column.type) {
+                case STRING -> builder.primitive(PrimitiveTypeName.BINARY, repetition)
+                    .as(LogicalTypeAnnotation.stringType()).named(column.name);
+                case DOUBLE -> builder.primitive(PrimitiveTypeName.DOUBLE, repetition).named(column.name);
+                case BOOLEAN -> builder.primitive(PrimitiveTypeName.BOOLEAN, repetition).named(column.name);
+                case TIMESTAMP -> builder.primitive(PrimitiveTypeName.INT64, repetition)
+                    .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS))
+                    .named(column.name);
+            }
+        }
+        return builder.named("customer");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object agentField(Customer customer, String agent, String field) {
+        Map<String, Object> results = customer.getLastAgentResults();
+        if (results == null || !(results.get(agent) instanceof Map)) return null;
+        return ((Map<String, Object>) results.get(agent)).get(field);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object metadata(Customer customer, String agent, String field) {
+        Object metadata = agentField(customer, agent, "metadata");
+        return metadata instanceof Map ? ((Map<String, Object>) metadata).get(field) : null;
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private enum ColumnType { STRING, DOUBLE, BOOLEAN, TIMESTAMP }
+
+    /**
+     * Columna plana: nombre, tipo y cómo se extrae del cliente. Los valores se
+     * normalizan al tipo de la columna (confidence llega como String desde
+     * AgentResponse); lo que no se puede convertir queda null.
+     */
+    private static final class Column {
+        final String name;
+        final ColumnType type;
+        final Function<Customer, Object> extractor;
+
+        Column(String name, ColumnType type, Function<Customer, Object> extractor) {
+            this.name = name;
+            this.type = type;
+            this.extractor = extractor;
+        }
+
+        Object value(Customer customer) {
+            Object raw = extractor.apply(customer);
+            if (raw == null) return null;
+            switch (type) {
+                case STRING:
+                    return String.valueOf(raw);
+                case DOUBLE:
+                    if (raw instanceof Number) return ((Number) raw).doubleValue();
+                    try {
+                        return Double.parseDouble(raw.toString());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                case BOOLEAN:
+                    return raw instanceof Boolean ? raw : Boolean.valueOf(raw.toString());
+                case TIMESTAMP:
+                    return raw instanceof LocalDateTime
+                        ? ((LocalDateTime) raw).toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Parquet sobre un stream no posicionable: solo necesita conocer la
+     * posición actual (bytes escritos) para el footer.
+     */
+    private static final class StreamOutputFile implements OutputFile {
+        private final CountingOutputStream out;
+
+        StreamOutputFile(CountingOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return out;
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return out;
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+
+    // close() solo hace flush: el stream de la respuesta lo cierra el contenedor
+    private static final class CountingOutputStream extends PositionOutputStream {
+        private final OutputStream delegate;
+        private long position;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long getPos() {
+            return position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            position += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -2,29 +2,114 @@ package com.smartwomen.service;
 
 import com.smartwomen.models.Customer;
 import com.smartwomen.repository.CustomerRepository;
+import com.smartwomen.search.CustomerSearchIndex;
+import com.smartwomen.semantic.CustomerVectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 @Service
 public class CustomerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
+
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private CustomerVectorStore customerVectorStore;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Reintentos de una escritura condicional que perdió contra otra concurrente
+    @Value("${smartwomen.customers.write-retries:8}")
+    private int writeRetries;
+
+    // Backoff exponencial con jitter completo: random(0, min(max, base * 2^intento))
+    @Value("${smartwomen.customers.retry-backoff-ms:5}")
+    private long retryBackoffMs;
+
+    @Value("${smartwomen.customers.retry-backoff-max-ms:200}")
+    private long retryBackoffMaxMs;
+
+    private final LongAdder conditionalWrites = new LongAdder();
+    private final LongAdder writeConflicts = new LongAdder();
+    private final LongAdder exhaustedWrites = new LongAdder();
+    private final LongAdder preconditionFailures = new LongAdder();
+
     public Customer saveCustomer(Customer customer) {
         if (customer.getCustomerId() == null || customer.getCustomerId().isBlank()) {
             customer.setCustomerId(UUID.randomUUID().toString());
         }
-        return customerRepository.save(customer);
+        try {
+            return afterSave(customerRepository.save(customer));
+        } catch (OptimisticLockingFailureException e) {
+            // Alta con un _etag viejo en el body
+            conflict(customer.getCustomerId());
+            preconditionFailures.increment();
+            throw new CustomerConflictException(e.getMessage(), true, null);
+        }
+    }
+
+    /**
+     * PUT: aplica los campos no nulos de changes sobre la versión actual (merge
+     * por campo; lastAgentResults por agente). Con If-Match la escritura es
+     * estricta: si el cliente cambió desde esa versión lanza
+     * CustomerConflictException (412). Sin If-Match, un conflicto se resuelve
+     * releyendo y volviendo a aplicar los campos, con backoff acotado.
+     * Si el cliente no existe y no hay If-Match, se crea con un alta estricta:
+     * si otro request lo creó en el medio, se aplican los campos sobre ese.
+     */
+    public Customer updateCustomer(String customerId, Customer changes, String ifMatch) {
+        String expected = ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim()) ? null : unquote(ifMatch);
+        Customer updated = writeWithRetry(customerId, expected, current -> mergeFields(current, changes));
+        if (updated != null) {
+            return updated;
+        }
+        if (expected != null) {
+            preconditionFailures.increment();
+            throw new CustomerConflictException("Customer " + customerId + " does not exist", true, null);
+        }
+        changes.setCustomerId(customerId);
+        changes.setId(null);
+        changes.set_etag(null);
+        try {
+            return afterSave(customerRepository.insert(changes));
+        } catch (DataIntegrityViolationException e) {
+            // DuplicateKeyException incluida: ganó un alta concurrente
+            conflict(customerId);
+            updated = writeWithRetry(customerId, null, current -> mergeFields(current, changes));
+            if (updated == null) {
+                throw new CustomerConflictException("Customer " + customerId + " is under heavy concurrent writes", false, null);
+            }
+            return updated;
+        }
     }
 
     public Optional<Customer> getCustomerById(String customerId) {
-        return customerRepository.findByCustomerId(customerId);
+        return customerCache.getById(customerId, customerRepository::findByCustomerId);
     }
 
     public List<Customer> getAllCustomers() {
@@ -32,19 +117,178 @@ public class CustomerService {
                            .collect(Collectors.toList());
     }
 
+    /**
+     * Clientes con perfil parecido (industria, tamaño, país, última interacción)
+     */
+    public List<Map<String, Object>> getSimilarCustomers(String customerId, int k) {
+        List<Map<String, Object>> similar = customerVectorStore.findSimilar(customerId, k);
+        for (Map<String, Object> result : similar) {
+            getCustomerById((String) result.get("customerId")).ifPresent(c -> {
+                result.put("name", c.getName());
+                result.put("country", c.getCountry());
+                result.put("industry", c.getIndustry());
+                result.put("businessSize", c.getBusinessSize());
+            });
+        }
+        return similar;
+    }
+
+    /**
+     * Búsqueda por texto/prefijo en el índice invertido en proceso (sin ir a la base)
+     */
+    public CustomerSearchIndex.SearchResult searchCustomers(String query, String country, String industry,
+                                                            int page, int size) {
+        return customerSearchIndex.search(query, country, industry, page, size);
+    }
+
+    public Map<String, Object> getSearchStats() {
+        return customerSearchIndex.getStats();
+    }
+
+    public Page<Customer> getCustomersPage(Pageable pageable) {
+        return customerRepository.findAll(pageable);
+    }
+
     public Optional<Customer> getCustomerByEmail(String email) {
-        return customerRepository.findByEmail(email);
+        return customerCache.getByEmail(email, customerRepository::findByEmail);
     }
 
+    /**
+     * Registra una interacción sin perder las de otras pestañas/agentes en paralelo:
+     * los resultados se combinan por agente y el último mensaje solo se reemplaza
+     * si esta interacción es más reciente que la guardada.
+     */
     public Customer updateCustomerInteraction(String customerId, String message, Map<String, Object> agentResults) {
-        return customerRepository.findByCustomerId(customerId)
-                .map(customer -> {
-                    customer.setLastMessage(message);
-                    customer.setLastAgentResults(agentResults);
-                    customer.setLastInteraction(LocalDateTime.now());
-                    return customerRepository.save(customer);
-                })
-                .orElse(null);
+        LocalDateTime at = LocalDateTime.now();
+        return writeWithRetry(customerId, null, customer -> {
+            boolean newer = customer.getLastInteraction() == null || !customer.getLastInteraction().isAfter(at);
+            if (newer) {
+                customer.setLastMessage(message);
+                customer.setLastInteraction(at);
+            }
+            Map<String, Object> merged = customer.getLastAgentResults() == null
+                ? new LinkedHashMap<>() : new LinkedHashMap<>(customer.getLastAgentResults());
+            if (agentResults != null) {
+                agentResults.forEach((agent, result) -> {
+                    if (newer) merged.put(agent, result); else merged.putIfAbsent(agent, result);
+                });
+            }
+            customer.setLastAgentResults(merged);
+        });
+    }
+
+    public Map<String, Object> getWriteStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long writes = conditionalWrites.sum();
+        stats.put("conditionalWrites", writes);
+        stats.put("conflicts", writeConflicts.sum());
+        stats.put("conflictRate", writes == 0 ? 0.0 : (double) writeConflicts.sum() / writes);
+        stats.put("exhaustedRetries", exhaustedWrites.sum());
+        stats.put("preconditionFailures", preconditionFailures.sum());
+        stats.put("writeRetries", writeRetries);
+        return stats;
+    }
+
+    /**
+     * Lee-modifica-escribe condicional por ETag. Cada intento parte de una
+     * lectura fresca del repositorio (no de la cache, que puede tener un ETag
+     * viejo). expectedEtag != null: un solo intento contra esa versión.
+     * Devuelve null si el cliente no existe.
+     */
+    private Customer writeWithRetry(String customerId, String expectedEtag, Consumer<Customer> mutation) {
+        for (int attempt = 0; ; attempt++) {
+            Optional<Customer> loaded = customerRepository.findByCustomerId(customerId);
+            if (loaded.isEmpty()) {
+                return null;
+            }
+            Customer current = loaded.get();
+            if (expectedEtag != null && !expectedEtag.equals(unquote(current.get_etag()))) {
+                preconditionFailures.increment();
+                throw new CustomerConflictException("Customer " + customerId + " was modified (If-Match)",
+                    true, current.get_etag());
+            }
+            mutation.accept(current);
+            conditionalWrites.increment();
+            try {
+                return afterSave(customerRepository.save(current));
+            } catch (OptimisticLockingFailureException e) {
+                conflict(customerId);
+                if (expectedEtag != null) {
+                    preconditionFailures.increment();
+                    throw new CustomerConflictException(e.getMessage(), true, null);
+                }
+                if (attempt >= writeRetries) {
+                    exhaustedWrites.increment();
+                    logger.warn("⚠️ Customer {} write gave up after {} conflicts", customerId, attempt + 1);
+                    throw new CustomerConflictException("Customer " + customerId + " is under heavy concurrent writes", false, null);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private Customer afterSave(Customer saved) {
+        customerCache.put(saved);
+        customerVectorStore.upsert(saved);
+        customerSearchIndex.upsert(saved);
+        return saved;
+    }
+
+    private void conflict(String customerId) {
+        writeConflicts.increment();
+        meterRegistry.counter("customers.write.conflicts").increment();
+        customerCache.invalidate(customerId);
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(retryBackoffMaxMs, retryBackoffMs << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomerConflictException("Interrupted while retrying customer write", false, null);
+        }
+    }
+
+    // Campo a campo: solo lo que trae el request; createdAt y el ETag no se tocan.
+    // La interacción sigue la regla de updateCustomerInteraction: una más vieja (otra
+    // pestaña) no pisa lastMessage/lastInteraction y solo agrega agentes que falten
+    // (sin lastInteraction en el body vale la hora de llegada, que pone el constructor de Customer)
+    private static void mergeFields(Customer current, Customer changes) {
+        if (changes.getName() != null) current.setName(changes.getName());
+        if (changes.getEmail() != null) current.setEmail(changes.getEmail());
+        if (changes.getCountry() != null) current.setCountry(changes.getCountry());
+        if (changes.getIndustry() != null) current.setIndustry(changes.getIndustry());
+        if (changes.getBusinessSize() != null) current.setBusinessSize(changes.getBusinessSize());
+        LocalDateTime at = changes.getLastInteraction();
+        boolean newer = at == null || current.getLastInteraction() == null || !current.getLastInteraction().isAfter(at);
+        if (newer) {
+            if (changes.getLastMessage() != null) current.setLastMessage(changes.getLastMessage());
+            if (at != null) current.setLastInteraction(at);
+        }
+        if (changes.getLastAgentResults() != null) {
+            Map<String, Object> merged = current.getLastAgentResults() == null
+                ? new LinkedHashMap<>() : new LinkedHashMap<>(current.getLastAgentResults());
+            changes.getLastAgentResults().forEach((agent, result) -> {
+                if (newer) merged.put(agent, result); else merged.putIfAbsent(agent, result);
+            });
+            current.setLastAgentResults(merged);
+        }
+    }
+
+    // Los ETag de Cosmos ya vienen entre comillas; los de H2 (versión) no
+    static String unquote(String etag) {
+        if (etag == null) return null;
+        String value = etag.trim();
+        if (value.startsWith("W/")) value = value.substring(2);
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return customerCache.getStats();
     }
 
     public long countCustomers() {
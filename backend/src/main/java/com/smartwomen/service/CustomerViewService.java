@@ -0,0 +1,308 @@
+package com.smartwomen.service;
+
+import com.azure.cosmos.ChangeFeedProcessor;
+import com.azure.cosmos.ChangeFeedProcessorBuilder;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.ChangeFeedProcessorOptions;
+import com.azure.cosmos.models.CosmosContainerProperties;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Vistas materializadas de clientes mantenidas por el change feed de Cosmos.
+ *
+ * Cada cambio en "customers" actualiza incrementalmente el contenedor
+ * "customerViews" (partition key /view):
+ * - "escalations":        cola de clientes que requieren atención, por tiempo
+ * - "negative-sentiment": clientes recientes con sentimiento negativo (con TTL)
+ * - "segments":           contadores por país e industria
+ * - "m:{customerId}":     membresía previa del cliente y último _lsn aplicado,
+ *                         para ajustar contadores sin contar dos veces un replay
+ *
+ * Los endpoints leen estas vistas con point reads o consultas de una sola
+ * partición, sin escanear ni deserializar todos los documentos de clientes.
+ */
+@Service
+@Profile("!local")
+public class CustomerViewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerViewService.class);
+
+    static final String ESCALATIONS = "escalations";
+    static final String NEGATIVE = "negative-sentiment";
+    static final String SEGMENTS = "segments";
+    private static final String MEMBERSHIP_ID = "membership";
+    // Errores de Cosmos que se reintentan con el lote; el resto descarta el documento
+    private static final Set<Integer> TRANSIENT_STATUS = Set.of(408, 410, 429, 449, 503);
+
+    @Autowired
+    private CosmosAsyncDatabase cosmosDatabase;
+
+    @Autowired
+    @Qualifier("customersContainer")
+    private CosmosAsyncContainer customersContainer;
+
+    @Autowired
+    @Qualifier("customerViewsContainer")
+    private CosmosAsyncContainer viewsContainer;
+
+    @Autowired
+    @Qualifier("leasesContainer")
+    private CosmosAsyncContainer leasesContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${smartwomen.views.enabled:true}")
+    private boolean enabled;
+
+    @Value("${smartwomen.views.negative-ttl-seconds:604800}")
+    private int negativeTtlSeconds;
+
+    private ChangeFeedProcessor processor;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            logger.info("Customer views change feed disabled");
+            return;
+        }
+        cosmosDatabase.createContainerIfNotExists(
+            new CosmosContainerProperties("customerViews", "/view").setDefaultTimeToLiveInSeconds(-1)).block();
+        cosmosDatabase.createContainerIfNotExists(
+            new CosmosContainerProperties("leases", "/id")).block();
+
+        ChangeFeedProcessorOptions options = new ChangeFeedProcessorOptions();
+        options.setLeasePrefix("customer-views");
+        options.setStartFromBeginning(true);
+        options.setScheduler(Schedulers.boundedElastic());
+
+        processor = new ChangeFeedProcessorBuilder()
+            .hostName(hostName())
+            .feedContainer(customersContainer)
+            .leaseContainer(leasesContainer)
+            .options(options)
+            .handleChanges(this::handleChanges)
+            .buildChangeFeedProcessor();
+
+        processor.start()
+            .doOnSuccess(v -> logger.info("🔄 Customer views change feed processor started"))
+            .doOnError(e -> logger.error("❌ Change feed processor failed to start", e))
+            .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (processor != null) {
+            processor.stop().block();
+        }
+    }
+
+    // ===== Lecturas =====
+
+    public List<ObjectNode> getEscalationQueue(int limit) {
+        return readRecent(ESCALATIONS, limit);
+    }
+
+    public List<ObjectNode> getRecentNegative(int limit) {
+        return readRecent(NEGATIVE, limit);
+    }
+
+    public Optional<ObjectNode> getSegment(String dimension, String value) {
+        return readView(segmentId(dimension, value), SEGMENTS);
+    }
+
+    public List<ObjectNode> getSegments(String dimension) {
+        SqlQuerySpec query = new SqlQuerySpec(
+            "SELECT * FROM c WHERE c.dimension = @dimension",
+            List.of(new SqlParameter("@dimension", dimension)));
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions()
+            .setPartitionKey(new PartitionKey(SEGMENTS));
+        return viewsContainer.queryItems(query, options, ObjectNode.class).collectList().block();
+    }
+
+    private List<ObjectNode> readRecent(String view, int limit) {
+        SqlQuerySpec query = new SqlQuerySpec(
+            "SELECT TOP @limit * FROM c ORDER BY c.updatedAt DESC",
+            List.of(new SqlParameter("@limit", limit)));
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions()
+            .setPartitionKey(new PartitionKey(view));
+        return viewsContainer.queryItems(query, options, ObjectNode.class).collectList().block();
+    }
+
+    private Optional<ObjectNode> readView(String id, String view) {
+        try {
+            return Optional.ofNullable(
+                viewsContainer.readItem(id, new PartitionKey(view), ObjectNode.class).block().getItem());
+        } catch (CosmosException e) {
+            if (e.getStatusCode() == 404) return Optional.empty();
+            throw e;
+        }
+    }
+
+    // ===== Mantenimiento incremental =====
+
+    void handleChanges(List<JsonNode> changes) {
+        for (JsonNode doc : changes) {
+            try {
+                applyChange(doc);
+            } catch (CosmosException e) {
+                if (TRANSIENT_STATUS.contains(e.getStatusCode())) {
+                    // El lease no avanza si el handler lanza: el lote se reintenta
+                    logger.warn("⚠️ View update throttled for customer {} ({}), retrying batch",
+                        doc.path("customerId").asText(), e.getStatusCode());
+                    throw e;
+                }
+                skipPoison(doc, e);
+            } catch (RuntimeException e) {
+                skipPoison(doc, e);
+            }
+        }
+        logger.debug("🔄 Applied {} customer changes to views", changes.size());
+    }
+
+    // Un documento que no se puede aplicar no debe frenar el change feed para siempre
+    private void skipPoison(JsonNode doc, Exception e) {
+        logger.error("❌ View update failed for customer {} (_lsn {}), document skipped",
+            doc.path("customerId").asText(), doc.path("_lsn").asText(), e);
+    }
+
+    private void applyChange(JsonNode doc) {
+        String customerId = doc.path("customerId").asText(null);
+        if (customerId == null) return;
+
+        String membershipView = "m:" + customerId;
+        ObjectNode previous = readView(MEMBERSHIP_ID, membershipView).orElse(null);
+        long lsn = doc.path("_lsn").asLong(-1);
+        // Lease re-entregado (reinicio, rebalanceo): este cambio ya se aplicó
+        if (previous != null && lsn >= 0 && lsn <= previous.path("lsn").asLong(-1)) {
+            return;
+        }
+
+        String country = textOrNull(doc, "country");
+        String industry = textOrNull(doc, "industry");
+        JsonNode sentimentMetadata = doc.path("lastAgentResults").path("SentimentAnalyzer").path("metadata");
+        boolean escalation = sentimentMetadata.path("requiresEscalation").asBoolean(false);
+        JsonNode sentiment = sentimentMetadata.has("sentiment")
+            ? sentimentMetadata.path("sentiment") : sentimentMetadata.path("azureSentiment");
+        boolean negative = "negative".equals(sentiment.asText(null));
+        long updatedAt = doc.path("_ts").asLong(System.currentTimeMillis() / 1000) * 1000;
+
+        // Contadores de segmento: solo cambian si cambió el valor
+        adjustSegment("country", previous == null ? null : textOrNull(previous, "country"), country);
+        adjustSegment("industry", previous == null ? null : textOrNull(previous, "industry"), industry);
+
+        syncQueue(ESCALATIONS, escalation, customerId, doc, updatedAt, null);
+        syncQueue(NEGATIVE, negative, customerId, doc, updatedAt, negativeTtlSeconds);
+
+        ObjectNode membership = objectMapper.createObjectNode();
+        membership.put("id", MEMBERSHIP_ID);
+        membership.put("view", membershipView);
+        membership.put("country", country);
+        membership.put("industry", industry);
+        membership.put("lsn", lsn);
+        viewsContainer.upsertItem(membership).block();
+    }
+
+    private void adjustSegment(String dimension, String oldValue, String newValue) {
+        if (Objects.equals(oldValue, newValue)) return;
+        if (oldValue != null) incrementSegment(dimension, oldValue, -1);
+        if (newValue != null) incrementSegment(dimension, newValue, 1);
+    }
+
+    private void incrementSegment(String dimension, String value, long delta) {
+        String id = segmentId(dimension, value);
+        PartitionKey pk = new PartitionKey(SEGMENTS);
+        try {
+            viewsContainer.patchItem(id, pk, CosmosPatchOperations.create().increment("/count", delta), ObjectNode.class)
+                .block();
+        } catch (CosmosException e) {
+            if (e.getStatusCode() != 404) throw e;
+            ObjectNode segment = objectMapper.createObjectNode();
+            segment.put("id", id);
+            segment.put("view", SEGMENTS);
+            segment.put("dimension", dimension);
+            segment.put("value", value);
+            segment.put("count", Math.max(0, delta));
+            try {
+                viewsContainer.createItem(segment).block();
+            } catch (CosmosException conflict) {
+                if (conflict.getStatusCode() != 409) throw conflict;
+                // Otro host lo creó primero
+                viewsContainer.patchItem(id, pk, CosmosPatchOperations.create().increment("/count", delta), ObjectNode.class)
+                    .block();
+            }
+        }
+    }
+
+    private void syncQueue(String view, boolean member, String customerId, JsonNode doc, long updatedAt, Integer ttl) {
+        if (member) {
+            ObjectNode entry = objectMapper.createObjectNode();
+            entry.put("id", documentId(customerId));
+            entry.put("view", view);
+            entry.put("customerId", customerId);
+            entry.put("name", textOrNull(doc, "name"));
+            entry.put("country", textOrNull(doc, "country"));
+            entry.put("lastMessage", textOrNull(doc, "lastMessage"));
+            entry.put("updatedAt", updatedAt);
+            if (ttl != null) entry.put("ttl", ttl);
+            viewsContainer.upsertItem(entry).block();
+        } else {
+            try {
+                viewsContainer.deleteItem(documentId(customerId), new PartitionKey(view)).block();
+            } catch (CosmosException e) {
+                if (e.getStatusCode() != 404) throw e;
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + UUID.randomUUID();
+        } catch (UnknownHostException e) {
+            return "host-" + UUID.randomUUID();
+        }
+    }
+
+    static String segmentId(String dimension, String value) {
+        return dimension + ":" + documentId(value);
+    }
+
+    // Cosmos no admite '/', '\', '?' ni '#' en los ids: esos valores van en Base64 URL-safe
+    // (los ids que ya eran válidos no cambian, así los documentos existentes se siguen encontrando)
+    static String documentId(String value) {
+        if (value.chars().noneMatch(c -> c == '/' || c == '\\' || c == '?' || c == '#')) {
+            return value;
+        }
+        return "b64:" + Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,102 @@
+package com.smartwomen.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado compacto de una conversación (sin historial de mensajes).
+ *
+ * Solo primitivas y strings cortos/internados para que el tamaño por sesión
+ * sea pequeño y estimable ({@link #estimatedBytes()}).
+ */
+public class SessionState {
+
+    private static final int BASE_BYTES = 96;
+
+    private final String sessionId;
+    private final long createdAt;
+    private volatile long lastAccess;
+    private String customerId;
+    private int turns;
+    private int lastContentHash;
+    private String lastLanguage;
+    private String lastSentiment;
+    private int negativeTurns;
+    private boolean escalated;
+    private boolean biasDetected;
+    private String lastComplexity;
+
+    SessionState(String sessionId) {
+        this.sessionId = sessionId;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccess = createdAt;
+    }
+
+    /**
+     * Un mensaje nuevo (distinto del anterior) cuenta como un turno;
+     * las llamadas de varios agentes sobre el mismo mensaje no.
+     */
+    synchronized void observeContent(String content) {
+        int hash = content == null ? 0 : content.hashCode();
+        if (turns == 0 || hash != lastContentHash) {
+            turns++;
+            lastContentHash = hash;
+        }
+        lastAccess = System.currentTimeMillis();
+    }
+
+    synchronized void recordLanguage(String language) {
+        this.lastLanguage = language == null ? null : language.intern();
+    }
+
+    synchronized void recordSentiment(String sentiment, boolean requiresEscalation) {
+        if ("negative".equals(sentiment) && !"negative".equals(lastSentiment)) {
+            negativeTurns++;
+        }
+        this.lastSentiment = sentiment == null ? null : sentiment.intern();
+        this.escalated |= requiresEscalation;
+    }
+
+    synchronized void recordBias(boolean detected) {
+        this.biasDetected |= detected;
+    }
+
+    synchronized void recordComplexity(String complexity) {
+        this.lastComplexity = complexity == null ? null : complexity.intern();
+    }
+
+    synchronized void setCustomerId(String customerId) {
+        if (customerId != null) this.customerId = customerId;
+    }
+
+    /**
+     * Contexto incremental para los agentes. conversationLength va por tramos
+     * (new/short/long) para no fragmentar el cache semántico del planner.
+     */
+    public synchronized Map<String, Object> toContext() {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("userType", turns > 1 ? "returning" : "new");
+        context.put("conversationLength", turns <= 1 ? "new" : turns <= 5 ? "short" : "long");
+        context.put("turns", turns);
+        if (lastLanguage != null) context.put("lastLanguage", lastLanguage);
+        if (lastSentiment != null) context.put("lastSentiment", lastSentiment);
+        if (negativeTurns > 0) context.put("negativeTurns", negativeTurns);
+        if (escalated) context.put("escalated", true);
+        if (biasDetected) context.put("biasDetected", true);
+        if (lastComplexity != null) context.put("lastComplexity", lastComplexity);
+        return context;
+    }
+
+    /**
+     * Estimación del footprint en heap (cabeceras + campos + ids)
+     */
+    int estimatedBytes() {
+        return BASE_BYTES + 40 + 2 * sessionId.length() + (customerId == null ? 0 : 40 + 2 * customerId.length());
+    }
+
+    public String getSessionId() { return sessionId; }
+    public String getCustomerId() { return customerId; }
+    public long getCreatedAt() { return createdAt; }
+    public long getLastAccess() { return lastAccess; }
+    public synchronized int getTurns() { return turns; }
+}
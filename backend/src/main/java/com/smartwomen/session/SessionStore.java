@@ -0,0 +1,137 @@
+package com.smartwomen.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartwomen.models.AgentRequest;
+import com.smartwomen.models.AgentResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Store de sesiones en servidor, por AgentRequest.sessionId.
+ *
+ * Acotado por memoria (peso = bytes estimados por sesión) y con expiración
+ * por inactividad; al llegar al tope se desalojan las sesiones menos usadas.
+ * Los agentes reciben el contexto de la sesión sin que el cliente reenvíe
+ * el historial.
+ */
+@Component
+public class SessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStore.class);
+    private static final int MAX_ID_LENGTH = 128;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${smartwomen.sessions.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${smartwomen.sessions.max-memory-mb:64}")
+    private long maxMemoryMb;
+
+    private Cache<String, SessionState> sessions;
+
+    @PostConstruct
+    void init() {
+        sessions = Caffeine.newBuilder()
+            .maximumWeight(maxMemoryMb * 1024 * 1024)
+            .weigher((String id, SessionState state) -> state.estimatedBytes())
+            .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "sessions");
+        Gauge.builder("sessions.active", sessions, Cache::estimatedSize).register(meterRegistry);
+        Gauge.builder("sessions.memory.bytes", this, SessionStore::memoryBytes).baseUnit("bytes").register(meterRegistry);
+        logger.info("🗂️ Session store: ttl {} min, memory cap {} MB", ttlMinutes, maxMemoryMb);
+    }
+
+    public Optional<SessionState> get(String sessionId) {
+        return isValid(sessionId) ? Optional.ofNullable(sessions.getIfPresent(sessionId)) : Optional.empty();
+    }
+
+    /**
+     * Registra el mensaje en la sesión y completa el contexto del request con
+     * el estado de la sesión (los valores enviados por el cliente tienen prioridad).
+     */
+    public void attach(AgentRequest request, String customerId) {
+        String sessionId = request.getSessionId();
+        if (!isValid(sessionId)) {
+            return;
+        }
+        SessionState state = sessions.get(sessionId, SessionState::new);
+        state.observeContent(request.getContent());
+        state.setCustomerId(customerId);
+
+        Map<String, Object> context = request.getContext() == null
+            ? new LinkedHashMap<>() : new LinkedHashMap<>(request.getContext());
+        state.toContext().forEach(context::putIfAbsent);
+        request.setContext(context);
+    }
+
+    /**
+     * Actualiza la sesión con el resultado de un agente.
+     */
+    public void record(AgentRequest request, AgentResponse response) {
+        if (response == null || !response.isSuccess() || response.getMetadata() == null) {
+            return;
+        }
+        Optional<SessionState> session = get(request.getSessionId());
+        if (session.isEmpty()) {
+            return;
+        }
+        SessionState state = session.get();
+        Map<String, Object> metadata = response.getMetadata();
+        switch (response.getAgentType()) {
+            case "LanguageDetector":
+                state.recordLanguage(asString(metadata.get("primaryLanguage")));
+                break;
+            case "SentimentAnalyzer":
+                state.recordSentiment(asString(metadata.get("sentiment")),
+                    Boolean.TRUE.equals(metadata.get("requiresEscalation")));
+                break;
+            case "BiasGuard":
+                state.recordBias(Boolean.TRUE.equals(metadata.get("biasDetected")));
+                break;
+            case "Planner":
+                state.recordComplexity(asString(metadata.get("complexity")));
+                break;
+            default:
+                break;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeSessions", sessions.estimatedSize());
+        stats.put("memoryBytes", memoryBytes());
+        stats.put("memoryCapBytes", maxMemoryMb * 1024 * 1024);
+        stats.put("evictions", sessions.stats().evictionCount());
+        stats.put("ttlMinutes", ttlMinutes);
+        return stats;
+    }
+
+    private long memoryBytes() {
+        return sessions.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private static boolean isValid(String sessionId) {
+        return sessionId != null && !sessionId.isBlank() && sessionId.length() <= MAX_ID_LENGTH;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
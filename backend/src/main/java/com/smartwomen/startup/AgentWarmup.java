@@ -0,0 +1,138 @@
+package com.smartwomen.startup;
+
+import com.azure.ai.contentsafety.ContentSafetyClient;
+import com.azure.ai.contentsafety.models.AnalyzeTextOptions;
+import com.azure.ai.openai.OpenAIClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartwomen.agents.LanguageDetectorAgent;
+import com.smartwomen.agents.LexiconSentimentScorer;
+import com.smartwomen.agents.SentimentAnalyzerAgent;
+import com.smartwomen.models.AgentRequest;
+import com.smartwomen.models.AgentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warm-up de agentes tras el arranque.
+ *
+ * Construye los clientes Azure (lazy), ejercita los caminos locales de los
+ * agentes para que el JIT los compile y, si remote-calls=true (por defecto;
+ * false en el perfil "local"), hace llamadas baratas a Text Analytics y
+ * Content Safety para abrir las conexiones HTTP/TLS. Mientras no termina, el
+ * health indicator "warmup" reporta OUT_OF_SERVICE y la instancia no se
+ * considera sana (actuator/health).
+ */
+@Component("warmup")
+public class AgentWarmup implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentWarmup.class);
+
+    private static final List<String> SAMPLES = List.of(
+        "Hola mundo, esta IA es increíble",
+        "Me encanta este producto, es increíble y funciona perfectamente. ¡Estoy muy feliz con la compra!",
+        "Olá mundo, esta IA é incrível",
+        "No estoy contenta, el pedido llegó tarde y nadie responde 😡",
+        "Hello, this is a test. Hola, esto es una prueba. Olá, este é um teste.");
+
+    @Value("${smartwomen.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${smartwomen.warmup.iterations:500}")
+    private int iterations;
+
+    @Value("${smartwomen.warmup.remote-calls:true}")
+    private boolean remoteCalls;
+
+    @Autowired
+    @Qualifier("openAIClient")
+    private ObjectProvider<OpenAIClient> openAIClient;
+
+    @Autowired
+    @Qualifier("contentSafetyClient")
+    private ObjectProvider<ContentSafetyClient> contentSafetyClient;
+
+    @Autowired
+    private LexiconSentimentScorer lexiconScorer;
+
+    @Autowired
+    private LanguageDetectorAgent languageDetectorAgent;
+
+    @Autowired
+    private SentimentAnalyzerAgent sentimentAnalyzerAgent;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StartupMetrics startupMetrics;
+
+    private volatile boolean warm;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            if (enabled) {
+                openAIClient.getIfAvailable();
+                contentSafetyClient.getIfAvailable();
+
+                for (int i = 0; i < iterations; i++) {
+                    String sample = SAMPLES.get(i % SAMPLES.size());
+                    lexiconScorer.score(sample);
+                    objectMapper.writeValueAsString(AgentResponse.builder()
+                        .agentType("Warmup")
+                        .content(sample)
+                        .metadata(Map.of("sample", i))
+                        .build());
+                }
+
+                if (remoteCalls) {
+                    warmRemote();
+                }
+            }
+            logger.info("🔥 Warm-up done in {} ms (iterations={}, remoteCalls={})",
+                System.currentTimeMillis() - start, iterations, remoteCalls);
+        } catch (Exception e) {
+            logger.warn("⚠️ Warm-up incomplete: {}", e.getMessage());
+        } finally {
+            warm = true;
+            startupMetrics.markWarm();
+        }
+    }
+
+    // Una llamada mínima por servicio; un fallo no impide calentar los demás
+    private void warmRemote() {
+        try {
+            languageDetectorAgent.detectLanguage(AgentRequest.builder().content(SAMPLES.get(0)).build());
+            // Texto corto y ambiguo: no pasa por el léxico, va a Azure
+            sentimentAnalyzerAgent.analyzeSentiment(AgentRequest.builder().content("ok").build());
+        } catch (Exception e) {
+            logger.warn("⚠️ Text Analytics warm-up failed: {}", e.getMessage());
+        }
+        try {
+            ContentSafetyClient client = contentSafetyClient.getIfAvailable();
+            if (client != null) client.analyzeText(new AnalyzeTextOptions("ok"));
+        } catch (Exception e) {
+            logger.warn("⚠️ Content Safety warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Health health() {
+        return warm ? Health.up().build() : Health.outOfService().withDetail("warmup", "in progress").build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartwomen.startup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark de arranque: tiempo desde el inicio de la JVM hasta
+ * ready (contexto listo), warm (warm-up terminado) y primer request servido.
+ *
+ * Se publica como gauges startup.time.* (ms) y en GET /agents/startup.
+ */
+@Component
+public class StartupMetrics extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupMetrics.class);
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private volatile long readyAt;
+    private volatile long warmAt;
+    private final AtomicLong firstRequestAt = new AtomicLong();
+    private volatile long firstRequestLatency;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("startup.time.to.ready", () -> elapsed(readyAt)).baseUnit("ms").register(meterRegistry);
+        Gauge.builder("startup.time.to.warm", () -> elapsed(warmAt)).baseUnit("ms").register(meterRegistry);
+        Gauge.builder("startup.time.to.first.request", () -> elapsed(firstRequestAt.get())).baseUnit("ms").register(meterRegistry);
+        Gauge.builder("startup.first.request.latency", () -> firstRequestLatency).baseUnit("ms").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyAt = System.currentTimeMillis();
+        logger.info("⏱️ STARTUP time to ready: {} ms", elapsed(readyAt));
+    }
+
+    public void markWarm() {
+        warmAt = System.currentTimeMillis();
+        logger.info("⏱️ STARTUP time to warm: {} ms", elapsed(warmAt));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("timeToReadyMs", elapsed(readyAt));
+        stats.put("timeToWarmMs", elapsed(warmAt));
+        stats.put("timeToFirstRequestMs", elapsed(firstRequestAt.get()));
+        stats.put("firstRequestLatencyMs", firstRequestLatency);
+        return stats;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.currentTimeMillis();
+        chain.doFilter(request, response);
+        // Solo cuenta tráfico real (no sondas de salud)
+        if (firstRequestAt.get() == 0 && !request.getRequestURI().contains("/actuator")) {
+            long now = System.currentTimeMillis();
+            if (firstRequestAt.compareAndSet(0, now)) {
+                firstRequestLatency = now - start;
+                logger.info("⏱️ STARTUP first request {} served at {} ms (latency {} ms)",
+                    request.getRequestURI(), elapsed(now), firstRequestLatency);
+            }
+        }
+    }
+
+    private long elapsed(long timestamp) {
+        return timestamp == 0 ? -1 : timestamp - jvmStart;
+    }
+}
@@ -0,0 +1,51 @@
+package com.smartwomen.agents;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextSegmenterTest {
+
+    private static TextSegmenter segmenter(int maxSegments, int maxSegmentChars) {
+        TextSegmenter segmenter = new TextSegmenter();
+        ReflectionTestUtils.setField(segmenter, "maxSegments", maxSegments);
+        ReflectionTestUtils.setField(segmenter, "maxSegmentChars", maxSegmentChars);
+        ReflectionTestUtils.setField(segmenter, "minSegmentChars", 12);
+        return segmenter;
+    }
+
+    // count oraciones de ~57 caracteres
+    private static String sentences(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(String.format("Oración número %03d con texto de relleno para el lote xx.", i)).append(' ');
+        }
+        return text.toString();
+    }
+
+    @Test
+    void packsIntoAtMostMaxSegments() {
+        String text = sentences(100);
+        List<TextSegmenter.Segment> segments = segmenter(50, 5000).segment(text);
+
+        assertThat(segments).hasSizeLessThanOrEqualTo(50);
+        // Los tramos cubren el texto en orden y sin solaparse
+        int cursor = 0;
+        for (TextSegmenter.Segment segment : segments) {
+            assertThat(segment.getOffset()).isGreaterThanOrEqualTo(cursor);
+            assertThat(segment.getEnd()).isGreaterThan(segment.getOffset());
+            cursor = segment.getEnd();
+        }
+        assertThat(text.substring(cursor).trim()).isEmpty();
+    }
+
+    @Test
+    void packedChunksRespectMaxSegmentChars() {
+        List<TextSegmenter.Segment> segments = segmenter(5, 200).segment(sentences(100));
+
+        assertThat(segments).allSatisfy(segment -> assertThat(segment.getText().length()).isLessThanOrEqualTo(200));
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartwomen.service;
+
+import com.smartwomen.models.Customer;
+import com.smartwomen.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Escrituras concurrentes sobre pocos clientes "calientes" (perfil local, H2 en memoria):
+ * ninguna interacción confirmada se pierde y el camino de conflicto por ETag se ejerce.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1",
+    "smartwomen.vectors.path=target/test-data/vectors",
+    "smartwomen.warmup.enabled=false",
+    "smartwomen.views.enabled=false",
+    "smartwomen.customers.write-retries=50"
+})
+@ActiveProfiles("local")
+class CustomerServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 40;
+    private static final int HOT_CUSTOMERS = 2;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void concurrentInteractionsAreNotLost() throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < HOT_CUSTOMERS; i++) {
+            Customer customer = new Customer();
+            customer.setCustomerId("hot-" + runId + "-" + i);
+            customer.setName("Hot " + i);
+            customer.setLastAgentResults(new LinkedHashMap<>());
+            customerService.saveCustomer(customer);
+            ids.add(customer.getCustomerId());
+        }
+        long conflictsBefore = (long) customerService.getWriteStats().get("conflicts");
+
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    String key = "w" + thread + "-" + i;
+                    try {
+                        customerService.updateCustomerInteraction(ids.get((thread + i) % ids.size()), key, Map.of(key, i));
+                    } catch (CustomerConflictException | OptimisticLockingFailureException e) {
+                        // Fallo visible al llamante: no cuenta como update perdido
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        // Del repositorio, no de la cache
+        int stored = 0;
+        for (String id : ids) {
+            stored += customerRepository.findByCustomerId(id).orElseThrow().getLastAgentResults().size();
+        }
+        // Cada interacción confirmada deja su propia clave en lastAgentResults
+        assertThat(stored).isEqualTo(THREADS * OPERATIONS - failed.get());
+        long conflicts = (long) customerService.getWriteStats().get("conflicts") - conflictsBefore;
+        assertThat(conflicts).as("conflict path exercised").isPositive();
+    }
+}
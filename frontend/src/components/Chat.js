@@ -15,6 +15,15 @@ const Chat = () => {
   const [isProcessing, setIsProcessing] = useState(false);
   const [customerId, setCustomerId] = useState(null);
   const [customerData, setCustomerData] = useState({});
+  // El contexto de la conversación vive en el servidor, por sesión
+  const [sessionId] = useState(() =>
+    window.crypto?.randomUUID ? window.crypto.randomUUID() : `s_${Date.now()}_${Math.random().toString(36).slice(2)}`);
+
+  const agentHeaders = () => ({
+    'Content-Type': 'application/json',
+    'X-Session-Id': sessionId,
+    ...(customerId ? { 'X-Customer-Id': customerId } : {})
+  });
 
   useEffect(() => {
     const savedCustomer = localStorage.getItem('swcrm_customer');
@@ -50,14 +59,14 @@ const Chat = () => {
     if (!customerId) return;
 
     try {
+      // Solo lo que cambió: otra pestaña puede haber editado el resto del cliente.
+      // lastInteraction lo fija el servidor, que no pisa una interacción más reciente
       await fetch(`http://localhost:8080/api/v1/customers/${customerId}`, {
         method: 'PUT',
         headers: { 'Content-Type': 'application/json' },
         body: JSON.stringify({
-          ...customerData,
           lastMessage: message,
-          lastAgentResults: agentResults,
-          lastInteraction: new Date().toISOString()
+          lastAgentResults: agentResults
         })
       });
     } catch (error) {
@@ -84,7 +93,7 @@ const Chat = () => {
       // 1. Planner crea estrategia
       const planResponse = await fetch('http://localhost:8080/api/v1/agents/create-plan', {
         method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
+        headers: agentHeaders(),
         body: JSON.stringify({ content: userContent })
       });
       
@@ -136,7 +145,7 @@ const Chat = () => {
         try {
           const response = await fetch(`http://localhost:8080/api/v1/agents/${endpoint}`, {
             method: 'POST',
-            headers: { 'Content-Type': 'application/json' },
+            headers: agentHeaders(),
             body: JSON.stringify({ content: userContent })
           });
 